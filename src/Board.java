@@ -1,120 +1,230 @@
-
-
+import java.io.IOException;
+
+/**
+ * Console store layout, drawn from one floor of a StoreLayout (the ground floor
+ * of Maps/store.map by default). Cells hold shared, immutable Tile kinds and
+ * never change after construction; the player is tracked by position only, and
+ * moves test a precomputed walkability bitset. Shelf, Ref and Table stock is
+ * created on first access from the layout's products for the cell, and kept in
+ * a per-cell side table. With a vision radius, only cells in the player's field
+ * of view are drawn.
+ */
 public class Board {
+	private static final String PLAYER_CELL = Colors.CYAN + "[PL]" + Colors.RESET;
+	private static final String FOG_CELL = "    ";
+
 	private Tile[][] tiles;
 
-	private final int size = 22;
+	private final StoreLayout layout;
+	private final int floor;
+	private final int rows;
+	private final int cols;
+	private final long[] walkable;  // Bit row * cols + col
 	private int currentRow;
 	private int currentCol;
-	private int currentVision;
+	private int currentVision;  // Sight radius in tiles, <= 0 shows the whole board
+	private final FieldOfView fieldOfView;
+	private TerminalRenderer renderer;  // Created by the first display()
+	private Object[] fixtures;  // Stock per cell (row * cols + col), allocated on first access
 	
 	public Board(int currentRow, int currentCol, int currentVision) {
-		this.tiles = new Tile[size][size];
+		this(StoreLayout.getDefault(), 0, currentRow, currentCol, currentVision);
+	}
+
+	public Board(StoreLayout layout, int floor, int currentRow, int currentCol, int currentVision) {
+		this.layout = layout;
+		this.floor = floor;
+		this.rows = layout.getFloor(floor).getRows();
+		this.cols = layout.getFloor(floor).getCols();
+		this.tiles = new Tile[rows][cols];
+		this.walkable = new long[(int) (((long) rows * cols + 63) / 64)];
 		this.currentRow = currentRow;
 		this.currentCol = currentCol;
 		this.currentVision = currentVision;
-		initializeTiles();
+		initializeTiles(layout.getFloor(floor));
+		initializeWalkable();
+		this.fieldOfView = new FieldOfView(rows, cols, (row, col) -> !isWalkable(row, col));
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public int getCols() {
+		return cols;
 	}
 	
 	public Tile[][] getTiles() {
 		return this.tiles;
 	}
 
-	private void initializeTiles() {
-		int row, col;
-
-        for (row = 0; row < size; row++) {
-            for (col = 0; col < size; col++) {
-                boolean isWall = 
-                    (row == 0 || row == size - 1 || col == 0 || col == size - 1) ||
-                    (row == 17 || row == 18) && (col == 10 || col == 11) ||
-                    (row == 18) && 
-                    (col == 1 || col == 3 || col == 5 || col == 7 || 
-                    col == 14 || col == 16 || col == 18 || col == 20);
-                boolean isDoor = (row == 21 && col == 10) || (row == 21 && col == 11);
-                boolean isRef = (row == 1) && (col != 7 && col != 14);
-                boolean isShelf = 
-                    (row == 4 || row == 5 || row == 6 || row == 7 || 
-                    row == 10 || row == 11 || row == 12 || row == 13) && 
-                    (col == 2 || col == 3 || col == 6 || col == 7 || 
-                    col == 14 || col == 15 || col == 18 || col == 19);
-                boolean isTable = 
-                    (row == 4 || row == 5 || row == 6 || row == 7 || 
-                    row == 10 || row == 11 || row == 12 || row == 13) && 
-                    (col == 10 || col == 11);
-                boolean isLadder = (row == 15) && (col == 1 || col == 20); 
-                boolean isSearch = (row == 15) && (col == 8 || col == 13); 
-                boolean isCounter = (row == 18) && 
-                    (col == 2 || col == 4 || col == 6 || col == 8 || 
-                    col == 13 || col == 15 || col == 17 || col == 19);
-                boolean isBasket = (row == 20 && col == 1);
-                boolean isCart = (row == 20 && col == 20);
-
-				if (row == currentRow && col == currentCol) {
-					// Player tile: UI/sprite handles facing; show neutral marker
-					tiles[row][col] = new Tile("player", true, "[PL]", Colors.CYAN);
-                } else if (isDoor) {
-					tiles[row][col] = new Tile("door", false, "[  ]", Colors.VIOLET);
-                } else if (isWall) {
-					tiles[row][col] = new Tile("wall", false, "[##]", Colors.RED);
-                } else if (isRef) {
-					tiles[row][col] = new Tile("ref", false, "[**]", Colors.BLUE);
-                } else if (isShelf) {
-					tiles[row][col] = new Tile("shelf", false, "[**]", Colors.YELLOW);
-                } else if (isTable) {
-					tiles[row][col] = new Tile("table", false, "[**]", Colors.GREEN);
-                } else if (isLadder) {
-					tiles[row][col] = new Tile("ladder", false, "[//]", Colors.VIOLET);
-                } else if (isSearch) {
-					tiles[row][col] = new Tile("search", false, "[*i]", Colors.VIOLET);
-                } else if (isCounter) {
-					tiles[row][col] = new Tile("counter", false, "[$$]", Colors.VIOLET);
-                } else if (isBasket) {
-					tiles[row][col] = new Tile("basket", false, "[BT]", Colors.VIOLET);
-                } else if (isCart) {
-					tiles[row][col] = new Tile("cart", false, "[CT]", Colors.VIOLET);
-                } else {
-					tiles[row][col] = new Tile("empty", true, "[  ]", Colors.WHITE);
-                }
-            }
-        }
+	private void initializeTiles(StoreLayout.Floor floor) {
+		for (int row = 0; row < rows; row++) {
+			for (int col = 0; col < cols; col++) {
+				tiles[row][col] = tileFor(floor.getTile(row, col));
+			}
+		}
+	}
+
+	/**
+	 * Console tile kind drawn for a layout tile
+	 */
+	private static Tile tileFor(TileType type) {
+		switch (type) {
+			case WALL:
+			case BLACK_TILE:
+				return Tile.WALL;
+			case DOOR:
+			case EXIT:
+				return Tile.DOOR;
+			case CHILLED:
+			case FRIDGE:
+				return Tile.REF;
+			case SHELF:
+				return Tile.SHELF;
+			case TABLE:
+				return Tile.TABLE;
+			case STAIRS_UP:
+			case STAIRS_DOWN:
+				return Tile.LADDER;
+			case SEARCH:
+				return Tile.SEARCH;
+			case CASHIER:
+			case ATM:
+				return Tile.COUNTER;
+			case BASKET:
+				return Tile.BASKET;
+			case CART:
+				return Tile.CART;
+			default:
+				return Tile.EMPTY;
+		}
+	}
+
+	private void initializeWalkable() {
+		for (int row = 0; row < rows; row++) {
+			for (int col = 0; col < cols; col++) {
+				if (tiles[row][col].isWalkable()) {
+					int bit = row * cols + col;
+					walkable[bit >>> 6] |= 1L << bit;
+				}
+			}
+		}
+	}
+
+	public boolean isWalkable(int row, int col) {
+		if (row < 0 || row >= rows || col < 0 || col >= cols) return false;
+		int bit = row * cols + col;
+		return (walkable[bit >>> 6] & (1L << bit)) != 0;
+	}
+
+	/**
+	 * Stock of the shelf at (row, col), created on first access; null if the cell isn't a shelf
+	 */
+	public Shelf getShelf(int row, int col) {
+		if (tileAt(row, col) != Tile.SHELF) return null;
+		Object stock = fixtureAt(row, col);
+		if (stock == null) {
+			stock = new Shelf(layout.getProducts(floor, row, col));
+			fixtures[row * cols + col] = stock;
+		}
+		return (Shelf) stock;
+	}
+
+	/**
+	 * Stock of the ref at (row, col), created on first access; null if the cell isn't a ref
+	 */
+	public Ref getRef(int row, int col) {
+		if (tileAt(row, col) != Tile.REF) return null;
+		Object stock = fixtureAt(row, col);
+		if (stock == null) {
+			stock = new Ref(layout.getProducts(floor, row, col));
+			fixtures[row * cols + col] = stock;
+		}
+		return (Ref) stock;
+	}
+
+	/**
+	 * Stock of the table at (row, col), created on first access; null if the cell isn't a table
+	 */
+	public Table getTable(int row, int col) {
+		if (tileAt(row, col) != Tile.TABLE) return null;
+		Object stock = fixtureAt(row, col);
+		if (stock == null) {
+			stock = new Table(layout.getProducts(floor, row, col));
+			fixtures[row * cols + col] = stock;
+		}
+		return (Table) stock;
+	}
+
+	private Tile tileAt(int row, int col) {
+		if (row < 0 || row >= rows || col < 0 || col >= cols) return null;
+		return tiles[row][col];
+	}
+
+	private Object fixtureAt(int row, int col) {
+		if (fixtures == null) {
+			fixtures = new Object[rows * cols];
+		}
+		return fixtures[row * cols + col];
 	}
 
+	/**
+	 * Sight radius in tiles, <= 0 when the whole board is visible
+	 */
+	public int getVision() {
+		return currentVision;
+	}
+
+	public void setVision(int vision) {
+		this.currentVision = vision;
+	}
+
+	/**
+	 * Cells the player can see, or null when there is no vision limit
+	 */
+	public FieldOfView.View getView() {
+		if (currentVision <= 0) return null;
+		return fieldOfView.getView(currentRow, currentCol, currentVision);
+	}
+
+	public boolean isVisible(int row, int col) {
+		FieldOfView.View view = getView();
+		return view == null || view.isVisible(row, col);
+	}
+
+	/**
+	 * Draw the board in the console, blank outside the field of view; after the
+	 * first frame only changed cells are rewritten
+	 */
 	public void display() {
-		for (int row = 0; row < size; row++) {
-			for (int col = 0; col < size; col++) {
-				Tile tile = tiles[row][col];
-				System.out.print(tile.getCombinedContent());
-				/**
-				 * Uncomment this to check what's inside the tables.
-				 */
-				// if (tile.getType().equals("table")) {
-				// 	System.out.printf("Table at (%d, %d):%n", row, col);
-				// 	for (Item item : tile.getTable().getItems()) {
-				// 		System.out.println("  - " + item.toString());
-				// 	}
-				// }
+		if (renderer == null) {
+			renderer = new TerminalRenderer(System.out, rows, cols, 4);
+		}
+		FieldOfView.View view = getView();
+		for (int row = 0; row < rows; row++) {
+			for (int col = 0; col < cols; col++) {
+				if (view != null && !view.isVisible(row, col)) {
+					renderer.setCell(row, col, FOG_CELL);
+					continue;
+				}
+				// Player marker: UI/sprite handles facing
+				boolean isPlayer = row == currentRow && col == currentCol;
+				renderer.setCell(row, col, isPlayer ? PLAYER_CELL : tiles[row][col].getCombinedContent());
 			}
-			System.out.println();
+		}
+		try {
+			renderer.present();
+		} catch (IOException e) {
+			System.err.println("Board: failed to draw: " + e.getMessage());
 		}
 	}
 
 	public void setPlayer(int row, int col, char vision) {
-		int i, j;
-
-        for (i = 0; i < size; i++) {
-            for (j = 0; j < size; j++) {
-                if (tiles[i][j].getType().equals("player")) {
-                    tiles[i][j] = new Tile("empty", true, "[  ]", Colors.WHITE);
-                }
-            }
-        }
-
-		// ignore the vision char in tile representation; UI will display sprite facing
-		tiles[row][col] = new Tile("player", true, "[PL]", Colors.CYAN);
+		// ignore the vision char; UI will display sprite facing
 		this.currentRow = row;
 		this.currentCol = col;
-    }
+	}
 
 	// expose current player position so UI can locate the sprite
 	public int getPlayerRow() { return currentRow; }
@@ -124,41 +234,10 @@ public class Board {
 	public boolean tryMove(int dr, int dc) {
 		int nr = currentRow + dr;
 		int nc = currentCol + dc;
-		if (nr < 0 || nr >= size || nc < 0 || nc >= size) return false;
-
-		boolean isWall = 
-			(nr == 0 || nr == size - 1 || nc == 0 || nc == size - 1) ||
-			(nr == 17 || nr == 18) && (nc == 10 || nc == 11) ||
-			(nr == 18) && 
-			(nc == 1 || nc == 3 || nc == 5 || nc == 7 || 
-			nc == 14 || nc == 16 || nc == 18 || nc == 20);
-		boolean isDoor = (nr == 21 && nc == 10) || (nr == 21 && nc == 11);
-		boolean isRef = (nr == 1) && (nc != 7 && nc != 14);
-		boolean isShelf = 
-			(nr == 4 || nr == 5 || nr == 6 || nr == 7 || 
-			nr == 10 || nr == 11 || nr == 12 || nr == 13) && 
-			(nc == 2 || nc == 3 || nc == 6 || nc == 7 || 
-			nc == 14 || nc == 15 || nc == 18 || nc == 19);
-		boolean isTable = 
-			(nr == 4 || nr == 5 || nr == 6 || nr == 7 || 
-			nr == 10 || nr == 11 || nr == 12 || nr == 13) && 
-			(nc == 10 || nc == 11);
-		boolean isLadder = (nr == 15) && (nc == 1 || nc == 20); 
-		boolean isSearch = (nr == 15) && (nc == 8 || nc == 13); 
-		boolean isCounter = (nr == 18) && 
-			(nc == 2 || nc == 4 || nc == 6 || nc == 8 || 
-			nc == 13 || nc == 15 || nc == 17 || nc == 19);
-		boolean isBasket = (nr == 20 && nc == 1);
-		boolean isCart = (nr == 20 && nc == 20);
-
-		boolean isNextEmpty = !isWall && !isRef && !isShelf && !isTable 
-			&& !isLadder && !isSearch && !isCounter && !isBasket && !isCart && !isDoor;
-
-		if (isNextEmpty) {
-			setPlayer(nr, nc, ' ');
-			return true;
-		}
+		if (!isWalkable(nr, nc)) return false;
 
-		return false;
+		currentRow = nr;
+		currentCol = nc;
+		return true;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,386 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Product catalog compiled from CSV into a fixed-width binary file, read through a memory map
+ * CSV rows are "id,emoji,name,price,quantity" (header line, blank lines and # comments
+ * are skipped; fields may be double-quoted). compile() sorts the rows by ID and writes:
+ *
+ *   header   magic, version, count, record size, heap offset, heap length (32 bytes)
+ *   records  one per product in ID order, so the record index is the ordinal:
+ *            id (16 bytes ASCII, zero padded), price (double), quantity (int),
+ *            heap offset (int), emoji length (byte), category (byte), name length (short)
+ *   heap     UTF-8 emoji and name of each product, back to back
+ *
+ * open() maps the file read-only; nothing is decoded up front. IDs are found by
+ * binary search over the records, and names are decoded (and a Product built)
+ * only when a product is actually asked for, so opening a million-product
+ * catalog costs a map call and little heap. Reads use absolute gets only, so
+ * one CatalogFile can be shared between threads.
+ */
+public class CatalogFile {
+    private static final int MAGIC = 0x53434154;  // "SCAT"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int ID_WIDTH = 16;
+    private static final int RECORD_SIZE = 36;
+
+    // Field offsets within a record
+    private static final int PRICE = 16;
+    private static final int QUANTITY = 24;
+    private static final int HEAP_OFFSET = 28;
+    private static final int EMOJI_LENGTH = 32;
+    private static final int CATEGORY = 33;
+    private static final int NAME_LENGTH = 34;
+
+    private static final ProductCategory[] CATEGORIES = ProductCategory.values();
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final long heapOffset;
+    private final Map<Integer, Product> products = new ConcurrentHashMap<>();  // Built on first use
+
+    private CatalogFile(ByteBuffer buffer, int count, long heapOffset) {
+        this.buffer = buffer;
+        this.count = count;
+        this.heapOffset = heapOffset;
+    }
+
+    /**
+     * Open a catalog from CSV, compiling it to a ".bin" file next to it unless that is up to date
+     */
+    public static CatalogFile load(Path csv) throws IOException {
+        Path bin = csv.resolveSibling(csv.getFileName() + ".bin");
+        if (!Files.exists(bin)
+                || Files.getLastModifiedTime(bin).compareTo(Files.getLastModifiedTime(csv)) < 0) {
+            compile(csv, bin);
+        }
+        return open(bin);
+    }
+
+    /**
+     * Map a compiled catalog file
+     */
+    public static CatalogFile open(Path bin) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(bin, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());  // Stays valid after close
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("CatalogFile: " + bin + " is not a catalog file");
+        }
+        if (buffer.getInt(4) != VERSION || buffer.getInt(12) != RECORD_SIZE) {
+            throw new IOException("CatalogFile: " + bin + " has unsupported version " + buffer.getInt(4));
+        }
+        int count = buffer.getInt(8);
+        long heapOffset = buffer.getLong(16);
+        long heapLength = buffer.getLong(24);
+        if (count < 0 || heapOffset != HEADER_SIZE + (long) count * RECORD_SIZE
+                || heapOffset + heapLength != buffer.capacity()) {
+            throw new IOException("CatalogFile: " + bin + " is truncated or corrupt");
+        }
+        return new CatalogFile(buffer, count, heapOffset);
+    }
+
+    // ===================== COMPILER =====================
+
+    /**
+     * Parse a CSV catalog and write its binary form (through a temporary file, then moved into place)
+     * @throws IOException on read/write errors or a malformed row (the message names the line)
+     */
+    public static void compile(Path csv, Path bin) throws IOException {
+        List<Row> rows = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                    line = line.substring(1);  // UTF-8 byte order mark
+                }
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+                if (rows.isEmpty() && trimmed.toLowerCase().startsWith("id,")) continue;  // Header
+
+                String[] fields = parseCsvLine(line, csv, lineNumber);
+                if (fields.length != 5) {
+                    throw new IOException(where(csv, lineNumber) + "expected 5 fields, found " + fields.length);
+                }
+                String id = fields[0].trim();
+                if (id.isEmpty() || id.length() > ID_WIDTH || !isAscii(id)) {
+                    throw new IOException(where(csv, lineNumber) + "bad product ID \"" + id + "\"");
+                }
+                ProductCategory category = ProductCategory.of(id);
+                if (category == null) {
+                    throw new IOException(where(csv, lineNumber) + "unknown category for " + id);
+                }
+                Row row = new Row(id, category, fields[1].trim(), fields[2].trim(), lineNumber);
+                try {
+                    row.price = Double.parseDouble(fields[3].trim());
+                    row.quantity = Integer.parseInt(fields[4].trim());
+                } catch (NumberFormatException e) {
+                    throw new IOException(where(csv, lineNumber) + "bad price or quantity");
+                }
+                rows.add(row);
+            }
+        }
+
+        rows.sort((a, b) -> a.id.compareTo(b.id));
+
+        // Heap first, so the records can point into it
+        ByteArrayOutputStream heap = new ByteArrayOutputStream(rows.size() * 24);
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            if (i > 0 && row.id.equals(rows.get(i - 1).id)) {
+                throw new IOException(where(csv, row.lineNumber) + "duplicate product ID " + row.id);
+            }
+            byte[] emoji = row.emoji.getBytes(StandardCharsets.UTF_8);
+            byte[] name = row.name.getBytes(StandardCharsets.UTF_8);
+            if (emoji.length > 0xFF || name.length > 0xFFFF) {
+                throw new IOException(where(csv, row.lineNumber) + "name of " + row.id + " is too long");
+            }
+            if (heap.size() > Integer.MAX_VALUE - emoji.length - name.length) {
+                throw new IOException("CatalogFile: string heap exceeds 2 GB");
+            }
+            row.heapOffset = heap.size();
+            row.emojiLength = emoji.length;
+            row.nameLength = name.length;
+            heap.write(emoji, 0, emoji.length);
+            heap.write(name, 0, name.length);
+        }
+
+        Path tmp = bin.resolveSibling(bin.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(rows.size());
+            out.writeInt(RECORD_SIZE);
+            out.writeLong(HEADER_SIZE + (long) rows.size() * RECORD_SIZE);
+            out.writeLong(heap.size());
+
+            byte[] idBytes = new byte[ID_WIDTH];
+            for (Row row : rows) {
+                Arrays.fill(idBytes, (byte) 0);
+                for (int i = 0; i < row.id.length(); i++) {
+                    idBytes[i] = (byte) row.id.charAt(i);
+                }
+                out.write(idBytes);
+                out.writeDouble(row.price);
+                out.writeInt(row.quantity);
+                out.writeInt(row.heapOffset);
+                out.writeByte(row.emojiLength);
+                out.writeByte(row.category.ordinal());
+                out.writeShort(row.nameLength);
+            }
+            heap.writeTo(out);
+        }
+        Files.move(tmp, bin, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * One parsed CSV row while compiling
+     */
+    private static final class Row {
+        final String id;
+        final ProductCategory category;
+        final String emoji;
+        final String name;
+        final int lineNumber;
+        double price;
+        int quantity;
+        int heapOffset;
+        int emojiLength;
+        int nameLength;
+
+        Row(String id, ProductCategory category, String emoji, String name, int lineNumber) {
+            this.id = id;
+            this.category = category;
+            this.emoji = emoji;
+            this.name = name;
+            this.lineNumber = lineNumber;
+        }
+    }
+
+    /**
+     * Split one CSV line; fields may be double-quoted, with "" for a literal quote
+     */
+    private static String[] parseCsvLine(String line, Path csv, int lineNumber) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IOException(where(csv, lineNumber) + "unterminated quote");
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    private static String where(Path csv, int lineNumber) {
+        return "CatalogFile: " + csv + " line " + lineNumber + ": ";
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c <= ' ' || c >= 0x7F || c == ',') return false;
+        }
+        return true;
+    }
+
+    // ===================== READER =====================
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Ordinal of a product ID by binary search over the records, or -1 if absent
+     */
+    public int ordinalOf(String productId) {
+        if (productId == null || productId.length() > ID_WIDTH) {
+            return -1;
+        }
+        int lo = 0;
+        int hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compareId(mid, productId);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compare the ID stored in a record with a query, in String.compareTo order for ASCII IDs
+     */
+    private int compareId(int ordinal, String productId) {
+        int base = recordOffset(ordinal);
+        for (int i = 0; i < ID_WIDTH; i++) {
+            int stored = buffer.get(base + i) & 0xFF;
+            int wanted = i < productId.length() ? productId.charAt(i) : 0;
+            if (stored != wanted) {
+                return stored - wanted;
+            }
+            if (stored == 0) return 0;  // Both ended
+        }
+        return 0;
+    }
+
+    public String getId(int ordinal) {
+        int base = recordOffset(ordinal);
+        int length = 0;
+        while (length < ID_WIDTH && buffer.get(base + length) != 0) {
+            length++;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(base, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    public double getPrice(int ordinal) {
+        return buffer.getDouble(recordOffset(ordinal) + PRICE);
+    }
+
+    /**
+     * Starting stock from the CSV
+     */
+    public int getQuantity(int ordinal) {
+        return buffer.getInt(recordOffset(ordinal) + QUANTITY);
+    }
+
+    public ProductCategory getCategory(int ordinal) {
+        return CATEGORIES[buffer.get(recordOffset(ordinal) + CATEGORY)];
+    }
+
+    /**
+     * Name decoded from the string heap (not cached; see getProduct)
+     */
+    public String getName(int ordinal) {
+        int base = recordOffset(ordinal);
+        int emojiLength = buffer.get(base + EMOJI_LENGTH) & 0xFF;
+        return decode(buffer.getInt(base + HEAP_OFFSET) + emojiLength, buffer.getShort(base + NAME_LENGTH) & 0xFFFF);
+    }
+
+    public String getEmoji(int ordinal) {
+        int base = recordOffset(ordinal);
+        return decode(buffer.getInt(base + HEAP_OFFSET), buffer.get(base + EMOJI_LENGTH) & 0xFF);
+    }
+
+    /**
+     * Product record of an ordinal, decoded on first use and then shared
+     */
+    public Product getProduct(int ordinal) {
+        Product product = products.get(ordinal);
+        if (product == null) {
+            product = new Product(ordinal, getId(ordinal), getName(ordinal), getCategory(ordinal),
+                getPrice(ordinal), getEmoji(ordinal));
+            Product raced = products.putIfAbsent(ordinal, product);
+            if (raced != null) {
+                product = raced;
+            }
+        }
+        return product;
+    }
+
+    private int recordOffset(int ordinal) {
+        if (ordinal < 0 || ordinal >= count) {
+            throw new IndexOutOfBoundsException("CatalogFile: ordinal " + ordinal + " of " + count);
+        }
+        return HEADER_SIZE + ordinal * RECORD_SIZE;
+    }
+
+    private String decode(int heapPosition, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get((int) (heapOffset + heapPosition), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compile a CSV catalog: java CatalogFile catalog.csv [catalog.bin]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java CatalogFile <catalog.csv> [catalog.bin]");
+            return;
+        }
+        Path csv = Paths.get(args[0]);
+        Path bin = args.length > 1 ? Paths.get(args[1]) : csv.resolveSibling(csv.getFileName() + ".bin");
+        long start = System.nanoTime();
+        compile(csv, bin);
+        CatalogFile file = open(bin);
+        System.out.printf("Compiled %d products to %s in %.1f ms%n", file.size(), bin, (System.nanoTime() - start) / 1e6);
+    }
+}
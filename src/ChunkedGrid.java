@@ -0,0 +1,172 @@
+import java.util.Arrays;
+
+/**
+ * Tile grid of one floor, stored as square chunks of TileType ordinals
+ * Each chunk is CHUNK x CHUNK tiles (one byte each). A chunk whose tiles are
+ * all the same type (open floor, solid wall) is kept as that one byte and only
+ * gets an array when a tile in it is set to something else, so large, mostly
+ * empty floors cost less than a byte per tile. Renderers walk the chunks that
+ * intersect their viewport instead of the whole grid. copy() shares the chunk
+ * arrays with the original; either grid copies a shared chunk before writing to it.
+ * Floors may be up to MAX_SIZE x MAX_SIZE (see TileLocationIndex.pack).
+ */
+public class ChunkedGrid {
+    public static final int CHUNK_SHIFT = 6;
+    public static final int CHUNK = 1 << CHUNK_SHIFT;  // 64 x 64 tiles per chunk
+    public static final int MAX_SIZE = 2048;
+    private static final int MASK = CHUNK - 1;
+    private static final TileType[] TYPES = TileType.values();
+
+    private final int rows;
+    private final int cols;
+    private final int chunkRows;
+    private final int chunkCols;
+    private final byte[][] chunks;  // chunkRow * chunkCols + chunkCol; null = uniform
+    private final byte[] fills;     // Type of every tile of a uniform chunk
+    private final boolean[] shared; // Chunk array also used by another grid, copied on write
+
+    /**
+     * A grid filled with one tile type
+     */
+    public ChunkedGrid(int rows, int cols, TileType fill) {
+        if (rows <= 0 || cols <= 0 || rows > MAX_SIZE || cols > MAX_SIZE) {
+            throw new IllegalArgumentException("ChunkedGrid: " + rows + "x" + cols + " is outside 1.." + MAX_SIZE);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.chunkRows = (rows + MASK) >> CHUNK_SHIFT;
+        this.chunkCols = (cols + MASK) >> CHUNK_SHIFT;
+        this.chunks = new byte[chunkRows * chunkCols][];
+        this.fills = new byte[chunkRows * chunkCols];
+        this.shared = new boolean[chunkRows * chunkCols];
+        Arrays.fill(fills, (byte) fill.ordinal());
+    }
+
+    private ChunkedGrid(ChunkedGrid source) {
+        this.rows = source.rows;
+        this.cols = source.cols;
+        this.chunkRows = source.chunkRows;
+        this.chunkCols = source.chunkCols;
+        this.chunks = source.chunks.clone();
+        this.fills = source.fills.clone();
+        this.shared = new boolean[chunks.length];
+        for (int i = 0; i < chunks.length; i++) {
+            if (chunks[i] != null) {
+                shared[i] = true;
+                source.shared[i] = true;
+            }
+        }
+    }
+
+    /**
+     * Grid with the same tiles that shares this one's chunk arrays until either is written;
+     * costs a reference and a byte per chunk, not a byte per tile
+     */
+    public synchronized ChunkedGrid copy() {
+        return new ChunkedGrid(this);
+    }
+
+    /**
+     * Copy of a row-major array of TileType ordinals (row * cols + col)
+     */
+    public static ChunkedGrid of(int rows, int cols, byte[] tiles) {
+        ChunkedGrid grid = new ChunkedGrid(rows, cols, TileType.WALL);
+        for (int cr = 0; cr < grid.chunkRows; cr++) {
+            for (int cc = 0; cc < grid.chunkCols; cc++) {
+                grid.copyChunk(cr, cc, tiles);
+            }
+        }
+        return grid;
+    }
+
+    private void copyChunk(int cr, int cc, byte[] tiles) {
+        int r0 = cr << CHUNK_SHIFT, c0 = cc << CHUNK_SHIFT;
+        int r1 = Math.min(rows, r0 + CHUNK), c1 = Math.min(cols, c0 + CHUNK);
+        byte first = tiles[r0 * cols + c0];
+        boolean uniform = true;
+        for (int r = r0; r < r1 && uniform; r++) {
+            for (int c = c0; c < c1; c++) {
+                if (tiles[r * cols + c] != first) {
+                    uniform = false;
+                    break;
+                }
+            }
+        }
+        int chunk = cr * chunkCols + cc;
+        if (uniform) {
+            fills[chunk] = first;
+            return;
+        }
+        byte[] data = new byte[CHUNK * CHUNK];
+        for (int r = r0; r < r1; r++) {
+            System.arraycopy(tiles, r * cols + c0, data, (r - r0) << CHUNK_SHIFT, c1 - c0);
+        }
+        chunks[chunk] = data;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getChunkRows() {
+        return chunkRows;
+    }
+
+    public int getChunkCols() {
+        return chunkCols;
+    }
+
+    public boolean inBounds(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    public TileType get(int row, int col) {
+        int chunk = (row >> CHUNK_SHIFT) * chunkCols + (col >> CHUNK_SHIFT);
+        byte[] data = chunks[chunk];
+        if (data == null) {
+            return TYPES[fills[chunk]];
+        }
+        return TYPES[data[((row & MASK) << CHUNK_SHIFT) | (col & MASK)]];
+    }
+
+    public void set(int row, int col, TileType type) {
+        int chunk = (row >> CHUNK_SHIFT) * chunkCols + (col >> CHUNK_SHIFT);
+        byte[] data = chunks[chunk];
+        int i = ((row & MASK) << CHUNK_SHIFT) | (col & MASK);
+        if (data == null) {
+            if (fills[chunk] == type.ordinal()) return;
+            data = new byte[CHUNK * CHUNK];
+            Arrays.fill(data, fills[chunk]);
+            chunks[chunk] = data;
+        } else if (shared[chunk]) {
+            if (data[i] == type.ordinal()) return;
+            data = data.clone();
+            chunks[chunk] = data;
+            shared[chunk] = false;
+        }
+        data[i] = (byte) type.ordinal();
+    }
+
+    /**
+     * Type of every tile of a chunk, or null if its tiles differ
+     */
+    public TileType getUniformType(int chunkRow, int chunkCol) {
+        int chunk = chunkRow * chunkCols + chunkCol;
+        return chunks[chunk] == null ? TYPES[fills[chunk]] : null;
+    }
+
+    /**
+     * Bytes held by the tile arrays (uniform chunks count one byte)
+     */
+    public long getMemoryBytes() {
+        long bytes = 0;
+        for (byte[] data : chunks) {
+            bytes += data != null ? data.length : 1;
+        }
+        return bytes;
+    }
+}
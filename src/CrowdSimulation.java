@@ -0,0 +1,220 @@
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless crowd mode: many simulated shoppers, each with its own
+ * StoreSimulation/ShopperInventory, all buying from one shared StoreInventory.
+ * Reports throughput, purchase latency, stock-outs and stock contention
+ * (compare-and-set retries in ProductCatalog, the stock path takes no locks).
+ *
+ * Usage: java CrowdSimulation [shoppers] [tripsPerShopper] [seed]
+ */
+public class CrowdSimulation {
+    private static final int MAX_ITEMS_PER_TRIP = 5;
+    private static final int MAX_QUANTITY_PER_ITEM = 3;
+
+    private final StoreInventory store;
+    private final List<String> productIds;
+    private final int shoppers;
+    private final int tripsPerShopper;
+    private final long seed;
+
+    // Shared counters, updated by every shopper
+    private final LongAdder purchases = new LongAdder();
+    private final LongAdder stockOuts = new LongAdder();
+    private final LongAdder unitsBought = new LongAdder();
+    private final LongAdder unitsReturned = new LongAdder();
+    private final LongAdder checkouts = new LongAdder();
+
+    // Per-shopper purchase latencies in nanoseconds, merged after the run
+    private final long[][] latencies;
+
+    public CrowdSimulation(StoreInventory store, int shoppers, int tripsPerShopper, long seed) {
+        this.store = store;
+        this.productIds = store.getProductIds();
+        this.shoppers = shoppers;
+        this.tripsPerShopper = tripsPerShopper;
+        this.seed = seed;
+        this.latencies = new long[shoppers][];
+    }
+
+    /**
+     * One shopper: equip a cart, buy a few random products, sometimes put one
+     * back, then check out. Repeated tripsPerShopper times.
+     * @param sim The shopper's session, set up before the start gate opens
+     * @param random The shopper's source, the one sim was built with
+     */
+    private void runShopper(int index, StoreSimulation sim, Random random, CountDownLatch startGate) {
+        long[] samples = new long[tripsPerShopper * MAX_ITEMS_PER_TRIP];
+        int count = 0;
+
+        try {
+            startGate.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        for (int trip = 0; trip < tripsPerShopper; trip++) {
+            sim.equip(ShopperInventory.EquipmentType.CART);
+            int items = 1 + random.nextInt(MAX_ITEMS_PER_TRIP);
+            for (int i = 0; i < items; i++) {
+                String productId = productIds.get(random.nextInt(productIds.size()));
+                int quantity = 1 + random.nextInt(MAX_QUANTITY_PER_ITEM);
+
+                long start = System.nanoTime();
+                StoreSimulation.PurchaseResult result =
+                    sim.buy(productId, store.getProductName(productId), quantity, store.getProductPrice(productId));
+                samples[count++] = System.nanoTime() - start;
+
+                if (result == StoreSimulation.PurchaseResult.OK) {
+                    purchases.increment();
+                    unitsBought.add(quantity);
+                } else if (result == StoreSimulation.PurchaseResult.OUT_OF_STOCK) {
+                    stockOuts.increment();
+                }
+            }
+
+            // One in five trips puts the first item back on the shelf
+            if (random.nextInt(5) == 0 && !sim.getInventory().isEmpty()) {
+                InventoryItem item = sim.getInventory().getItems().iterator().next();
+                int quantity = item.getQuantity();
+                if (sim.returnProduct(store.getProduct(item.getBaseProductId()), quantity)) {
+                    unitsReturned.add(quantity);
+                }
+            }
+
+            if (sim.checkout() == StoreSimulation.CheckoutResult.OK) {
+                checkouts.increment();
+            }
+        }
+        latencies[index] = Arrays.copyOf(samples, count);
+    }
+
+    /**
+     * Run every shopper to completion and print the report
+     */
+    public void run() throws InterruptedException {
+        long initialStock = totalStock();
+        boolean virtual = true;
+        ExecutorService executor = newVirtualThreadExecutor();
+        if (executor == null) {
+            // Virtual threads need JDK 21+, fall back to a pool of platform threads
+            virtual = false;
+            executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 4);
+        }
+
+        // Set every shopper up before the clock starts, so only shopping is timed
+        StoreSimulation[] sims = new StoreSimulation[shoppers];
+        Random[] randoms = new Random[shoppers];
+        for (int i = 0; i < shoppers; i++) {
+            randoms[i] = new Random(seed + i);
+            sims[i] = new StoreSimulation(store, randoms[i]);
+            sims[i].setPlayerProfile("Shopper" + i, 18 + randoms[i].nextInt(60), 1_000_000.0, 0.0);
+        }
+
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(shoppers);
+        for (int i = 0; i < shoppers; i++) {
+            final int index = i;
+            futures.add(executor.submit(() -> runShopper(index, sims[index], randoms[index], startGate)));
+        }
+
+        ProductCatalog catalog = store.getCatalog();
+        long updatesBefore = catalog.getStockUpdates(), retriesBefore = catalog.getStockRetries();
+        long start = System.nanoTime();
+        startGate.countDown();
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                System.err.println("Shopper failed: " + e.getCause());
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long updates = catalog.getStockUpdates() - updatesBefore;
+        long retries = catalog.getStockRetries() - retriesBefore;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        printReport(virtual, elapsed, initialStock, updates, retries);
+    }
+
+    private void printReport(boolean virtual, long elapsedNanos, long initialStock, long stockUpdates, long stockRetries) {
+        long[] all = mergeLatencies();
+        double seconds = elapsedNanos / 1e9;
+        long attempts = all.length;
+
+        System.out.println("=== CROWD SIMULATION ===");
+        System.out.println("Threads: " + (virtual ? "virtual (one per shopper)" : "platform pool (virtual threads unavailable)"));
+        System.out.printf("Shoppers: %d, trips each: %d, products: %d%n", shoppers, tripsPerShopper, productIds.size());
+        System.out.printf("Elapsed: %.3f s%n", seconds);
+        System.out.printf("Purchase attempts: %d (%.0f/s)%n", attempts, attempts / seconds);
+        System.out.printf("Successful purchases: %d, checkouts: %d%n", purchases.sum(), checkouts.sum());
+        System.out.printf("Stock-outs: %d (%.2f%% of attempts)%n", stockOuts.sum(), attempts == 0 ? 0.0 : 100.0 * stockOuts.sum() / attempts);
+        if (attempts > 0) {
+            System.out.printf("Purchase latency (us): p50=%.1f p90=%.1f p99=%.1f max=%.1f%n",
+                percentile(all, 0.50) / 1e3, percentile(all, 0.90) / 1e3,
+                percentile(all, 0.99) / 1e3, all[all.length - 1] / 1e3);
+        }
+        System.out.printf("Stock contention: %d compare-and-set retries over %d stock updates (%.4f per update)%n",
+            stockRetries, stockUpdates, stockUpdates == 0 ? 0.0 : (double) stockRetries / stockUpdates);
+
+        long expected = initialStock - unitsBought.sum() + unitsReturned.sum();
+        long remaining = totalStock();
+        System.out.printf("Stock check: remaining=%d expected=%d %s%n", remaining, expected, remaining == expected ? "OK" : "MISMATCH");
+    }
+
+    private long[] mergeLatencies() {
+        int total = 0;
+        for (long[] l : latencies) {
+            if (l != null) total += l.length;
+        }
+        long[] all = new long[total];
+        int pos = 0;
+        for (long[] l : latencies) {
+            if (l == null) continue;
+            System.arraycopy(l, 0, all, pos, l.length);
+            pos += l.length;
+        }
+        Arrays.sort(all);
+        return all;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int i = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, i))];
+    }
+
+    private long totalStock() {
+        long total = 0;
+        for (String id : productIds) {
+            total += store.getAvailableQuantity(id);
+        }
+        return total;
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() when running on JDK 21+,
+     * looked up reflectively so the project still builds on older JDKs
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+        int shoppers = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int trips = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+
+        new CrowdSimulation(StoreInventory.create(), shoppers, trips, seed).run();
+    }
+}
@@ -0,0 +1,99 @@
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.JComponent;
+
+/**
+ * Collects the areas of a component that changed since the last frame and
+ * repaints only those instead of the whole panel
+ */
+public class DirtyRegionTracker {
+    private final JComponent target;
+    private final List<Rectangle> regions = new ArrayList<>();
+    private boolean fullRepaint = false;
+
+    public DirtyRegionTracker(JComponent target) {
+        this.target = target;
+    }
+
+    /**
+     * Mark a rectangle (in component coordinates) as needing a repaint
+     */
+    public void invalidate(int x, int y, int width, int height) {
+        if (fullRepaint || width <= 0 || height <= 0) return;
+        regions.add(new Rectangle(x, y, width, height));
+    }
+
+    public void invalidate(Rectangle r) {
+        if (r != null) invalidate(r.x, r.y, r.width, r.height);
+    }
+
+    /**
+     * Mark the whole component as dirty (e.g. floor change, overlay opened)
+     */
+    public void invalidateAll() {
+        fullRepaint = true;
+        regions.clear();
+    }
+
+    public boolean isEmpty() {
+        return !fullRepaint && regions.isEmpty();
+    }
+
+    /**
+     * Merge overlapping regions and issue the repaints. Must be called on the EDT.
+     */
+    public void flush() {
+        if (fullRepaint) {
+            target.repaint();
+        } else if (!regions.isEmpty()) {
+            coalesce();
+            if (regions.size() == 1) {
+                target.repaint(regions.get(0));
+            } else {
+                Rectangle union = new Rectangle(regions.get(0));
+                long area = 0;
+                for (Rectangle r : regions) {
+                    union.add(r);
+                    area += (long) r.width * r.height;
+                }
+                if ((long) union.width * union.height <= area * 2) {
+                    // Regions are close together, one repaint of their bounds is cheapest
+                    target.repaint(union);
+                } else {
+                    // RepaintManager unions every repaint(Rectangle) of a component into a
+                    // single bounding box, so far-apart regions (e.g. HUD strip and player)
+                    // are painted one by one to keep the blit small
+                    for (Rectangle r : regions) {
+                        target.paintImmediately(r);
+                    }
+                }
+            }
+        }
+        fullRepaint = false;
+        regions.clear();
+    }
+
+    /**
+     * Merge every pair of regions that overlap or touch until none do
+     */
+    private void coalesce() {
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int i = 0; i < regions.size() && !merged; i++) {
+                Rectangle a = regions.get(i);
+                for (int j = i + 1; j < regions.size(); j++) {
+                    Rectangle b = regions.get(j);
+                    if (a.x <= b.x + b.width && b.x <= a.x + a.width
+                            && a.y <= b.y + b.height && b.y <= a.y + a.height) {
+                        a.add(b);
+                        regions.remove(j);
+                        merged = true;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+}
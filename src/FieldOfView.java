@@ -0,0 +1,194 @@
+import java.util.*;
+
+/**
+ * Tiles visible from a cell, by recursive shadowcasting over one grid
+ * Each of the eight octants is scanned row by row outwards from the viewer;
+ * an opaque cell narrows the visible slope range of the rows behind it, so
+ * the work is proportional to the area actually seen. Opaque cells that are
+ * seen are themselves visible (walls and shelves show, what's behind doesn't).
+ * Views are cached per (row, col, radius), so stepping back and forth or
+ * standing still costs a map lookup; invalidate() after the grid changes.
+ * A view only stores the square around the viewer that the radius can reach,
+ * so its size doesn't grow with the grid.
+ */
+public class FieldOfView {
+    private static final int MAX_CACHED_VIEWS = 64;
+
+    // Octant transforms: col = viewer + dx * XX + dy * XY, row = viewer + dx * YX + dy * YY
+    private static final int[] XX = {1, 0, 0, -1, -1, 0, 0, 1};
+    private static final int[] XY = {0, 1, -1, 0, 0, -1, 1, 0};
+    private static final int[] YX = {0, 1, 1, 0, 0, -1, -1, 0};
+    private static final int[] YY = {1, 0, 0, 1, -1, 0, 0, -1};
+
+    /**
+     * Whether a cell stops sight; only called for in-bounds cells
+     */
+    public interface Opacity {
+        boolean blocksSight(int row, int col);
+    }
+
+    /**
+     * Callback for cells whose visibility differs between two views
+     */
+    public interface CellVisitor {
+        void visit(int row, int col);
+    }
+
+    /**
+     * Immutable set of visible cells
+     */
+    public static final class View {
+        private final long[] bits;  // Bit (row - top) * width + (col - left)
+        private final int top;
+        private final int left;
+        private final int height;
+        private final int width;
+
+        private View(int top, int left, int height, int width) {
+            this.bits = new long[(height * width + 63) / 64];
+            this.top = top;
+            this.left = left;
+            this.height = height;
+            this.width = width;
+        }
+
+        public boolean isVisible(int row, int col) {
+            int r = row - top, c = col - left;
+            if (r < 0 || r >= height || c < 0 || c >= width) return false;
+            int bit = r * width + c;
+            return (bits[bit >>> 6] & (1L << bit)) != 0;
+        }
+
+        private void set(int row, int col) {
+            int bit = (row - top) * width + (col - left);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+
+        /**
+         * Visit every cell that is visible in exactly one of this view and other
+         * (all visible cells of this view if other is null)
+         */
+        public void forEachChange(View other, CellVisitor visitor) {
+            visitMissing(other, visitor);
+            if (other != null) {
+                other.visitMissing(this, visitor);
+            }
+        }
+
+        /**
+         * Visit the cells visible in this view but not in other
+         */
+        private void visitMissing(View other, CellVisitor visitor) {
+            for (int w = 0; w < bits.length; w++) {
+                long word = bits[w];
+                while (word != 0) {
+                    int bit = (w << 6) + Long.numberOfTrailingZeros(word);
+                    int row = top + bit / width, col = left + bit % width;
+                    if (other == null || !other.isVisible(row, col)) {
+                        visitor.visit(row, col);
+                    }
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+
+    private final int rows;
+    private final int cols;
+    private final Opacity opacity;
+    private final Map<Long, View> views = new LinkedHashMap<Long, View>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, View> eldest) {
+            return size() > MAX_CACHED_VIEWS;
+        }
+    };
+
+    public FieldOfView(int rows, int cols, Opacity opacity) {
+        this.rows = rows;
+        this.cols = cols;
+        this.opacity = opacity;
+    }
+
+    /**
+     * Cells visible from (row, col) within radius tiles (Euclidean); radius <= 0 means unlimited
+     */
+    public View getView(int row, int col, int radius) {
+        if (radius <= 0) {
+            radius = rows + cols;
+        }
+        Long key = ((long) row << 40) | ((long) col << 20) | radius;
+        View view = views.get(key);
+        if (view == null) {
+            view = compute(row, col, radius);
+            views.put(key, view);
+        }
+        return view;
+    }
+
+    /**
+     * Drop cached views, e.g. after a tile changed between see-through and opaque
+     */
+    public void invalidate() {
+        views.clear();
+    }
+
+    private View compute(int row, int col, int radius) {
+        if (!inBounds(row, col)) {
+            return new View(0, 0, 0, 0);
+        }
+        int top = Math.max(0, row - radius), left = Math.max(0, col - radius);
+        View view = new View(top, left, Math.min(rows - 1, row + radius) - top + 1,
+            Math.min(cols - 1, col + radius) - left + 1);
+        view.set(row, col);
+        for (int octant = 0; octant < 8; octant++) {
+            castLight(view, row, col, 1, 1.0, 0.0, radius, octant);
+        }
+        return view;
+    }
+
+    /**
+     * Scan one octant from depth outwards between two slopes, recursing past each opaque run
+     */
+    private void castLight(View view, int viewRow, int viewCol, int depth, double start, double end,
+                           int radius, int octant) {
+        if (start < end) return;
+        int radiusSq = radius * radius;
+        double newStart = 0.0;
+        for (int j = depth; j <= radius; j++) {
+            boolean blocked = false;
+            int dy = -j;
+            for (int dx = -j; dx <= 0; dx++) {
+                double leftSlope = (dx - 0.5) / (dy + 0.5);
+                double rightSlope = (dx + 0.5) / (dy - 0.5);
+                if (start < rightSlope) continue;
+                if (end > leftSlope) break;
+
+                int c = viewCol + dx * XX[octant] + dy * XY[octant];
+                int r = viewRow + dx * YX[octant] + dy * YY[octant];
+                boolean inside = inBounds(r, c);
+                if (inside && dx * dx + dy * dy <= radiusSq) {
+                    view.set(r, c);
+                }
+
+                boolean opaque = !inside || opacity.blocksSight(r, c);
+                if (blocked) {
+                    if (opaque) {
+                        newStart = rightSlope;
+                    } else {
+                        blocked = false;
+                        start = newStart;
+                    }
+                } else if (opaque && j < radius) {
+                    blocked = true;
+                    castLight(view, viewRow, viewCol, j + 1, start, leftSlope, radius, octant);
+                    newStart = rightSlope;
+                }
+            }
+            if (blocked) return;
+        }
+    }
+
+    private boolean inBounds(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+}
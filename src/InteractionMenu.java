@@ -2,8 +2,7 @@ import javax.swing.*;
 import java.awt.*;
 
 public class InteractionMenu extends JPanel {
-    private String[] items;
-    private java.util.List<String> returnableProducts;
+    private Product[] products;  // Fixture's products, or the returnable ones in return mode
     private String tileType;
     private int selectedIndex = 0;
     private JComponent parentComponent;  // Parent for repaint notifications
@@ -11,6 +10,7 @@ public class InteractionMenu extends JPanel {
     private boolean inReturnMode = false;
     private int targetRow;
     private int targetCol;
+    private int targetFloor;
     
     // Grid dimensions based on display type
     private int gridCols;
@@ -24,7 +24,8 @@ public class InteractionMenu extends JPanel {
         this.onClose = onClose;
         this.targetRow = row;
         this.targetCol = col;
-        this.items = TileInventory.getItemsForTile(tileType, row, col, floor);
+        this.targetFloor = floor;
+        loadTileProducts();
         setOpaque(false);
         setFocusable(true);
         
@@ -32,15 +33,10 @@ public class InteractionMenu extends JPanel {
         setupGridDimensions();
     }
     
-    public void setReturnProducts(java.util.List<String> products) {
-        this.returnableProducts = products;
+    public void setReturnProducts(java.util.List<Product> products) {
         if (products != null) {
             this.inReturnMode = true;
-            if (!products.isEmpty()) {
-                this.items = products.toArray(new String[0]);
-            } else {
-                this.items = new String[0];
-            }
+            this.products = products.toArray(new Product[0]);
             this.selectedIndex = 0;
             setupGridDimensions();
         }
@@ -48,12 +44,28 @@ public class InteractionMenu extends JPanel {
     
     public void exitReturnMode() {
         this.inReturnMode = false;
-        this.returnableProducts = null;
-        this.items = TileInventory.getItemsForTile(tileType, targetRow, targetCol, 0);
+        loadTileProducts();
         this.selectedIndex = 0;
         setupGridDimensions();
     }
     
+    /**
+     * Show the fixture's products from the precomputed TileInventory table
+     */
+    private void loadTileProducts() {
+        this.products = TileInventory.getProductsForTile(tileType, targetRow, targetCol, targetFloor);
+    }
+
+    /**
+     * Product under the cursor (to buy, or to return in return mode), or null if there are none
+     */
+    public Product getSelectedProduct() {
+        if (selectedIndex >= products.length) {
+            return null;
+        }
+        return products[selectedIndex];
+    }
+
     public void setParentComponent(JComponent parent) {
         this.parentComponent = parent;
     }
@@ -125,7 +137,7 @@ public class InteractionMenu extends JPanel {
         int itemIndex = 0;
         for (int row = 0; row < gridRows; row++) {
             for (int col = 0; col < gridCols; col++) {
-                if (itemIndex >= items.length) break;
+                if (itemIndex >= products.length) break;
                 
                 int squareX = x + PADDING + col * SQUARE_SIZE;
                 int squareY = y + TITLE_HEIGHT + PADDING + row * SQUARE_SIZE;
@@ -145,9 +157,7 @@ public class InteractionMenu extends JPanel {
                 
                 g.drawRect(squareX, squareY, SQUARE_SIZE, SQUARE_SIZE);
                 
-                // Extract product name from full string
-                String fullText = items[itemIndex];
-                String productName = extractProductName(fullText);
+                String productName = products[itemIndex].getName();
                 
                 // Draw product name in square
                 g.setColor(Color.WHITE);
@@ -179,16 +189,6 @@ public class InteractionMenu extends JPanel {
         g.dispose();
     }
     
-    private String extractProductName(String fullText) {
-        // Extract just the product name from "emoji Name (ID) - Price"
-        int startIdx = fullText.indexOf(" ") + 1; // Skip emoji
-        int endIdx = fullText.indexOf("(");
-        if (endIdx > startIdx) {
-            return fullText.substring(startIdx, endIdx).trim();
-        }
-        return fullText;
-    }
-
     private String formatTileType(String type) {
         return Character.toUpperCase(type.charAt(0)) + type.substring(1);
     }
@@ -198,13 +198,13 @@ public class InteractionMenu extends JPanel {
         if (direction == -1) {  // UP
             selectedIndex = Math.max(0, selectedIndex - gridCols);
         } else if (direction == 1) {  // DOWN
-            selectedIndex = Math.min(items.length - 1, selectedIndex + gridCols);
+            selectedIndex = Math.max(0, Math.min(products.length - 1, selectedIndex + gridCols));
         } else if (direction == -2) {  // LEFT
             if (selectedIndex % gridCols > 0) {
                 selectedIndex--;
             }
         } else if (direction == 2) {  // RIGHT
-            if ((selectedIndex + 1) % gridCols != 0 && selectedIndex + 1 < items.length) {
+            if ((selectedIndex + 1) % gridCols != 0 && selectedIndex + 1 < products.length) {
                 selectedIndex++;
             }
         }
@@ -234,69 +234,18 @@ public class InteractionMenu extends JPanel {
         }
     }
 
-    public String getSelectedItem() {
-        return items[selectedIndex];
-    }
-
-    /**
-     * Parse product string to extract name, ID, and price
-     * Format: "🥛 Fresh Milk (MLK00001) - ₱68.00"
-     * Returns: [productName, productId, priceAsString]
-     */
-    public String[] parseProductInfo(String productString) {
-        try {
-            // Remove emoji at the start (if present)
-            String cleaned = productString.replaceAll("^[^A-Za-z0-9]+", "").trim();
-            
-            // Find product name (everything before the parenthesis)
-            int openParen = cleaned.indexOf('(');
-            if (openParen == -1) return null;
-            
-            String productName = cleaned.substring(0, openParen).trim();
-            
-            // Find product ID (inside parentheses)
-            int closeParen = cleaned.indexOf(')');
-            if (closeParen == -1) return null;
-            
-            String productId = cleaned.substring(openParen + 1, closeParen).trim();
-            
-            // Find price (after the dash and peso sign)
-            int dashIndex = cleaned.indexOf('-', closeParen);
-            if (dashIndex == -1) return null;
-            
-            String priceStr = cleaned.substring(dashIndex + 1).trim();
-            priceStr = priceStr.replaceAll("[^0-9.]", "");
-            
-            return new String[]{productName, productId, priceStr};
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
     public String getSelectedProductName() {
-        // In return mode, return the full product name directly
-        if (inReturnMode) {
-            return getSelectedItem();
-        }
-        // In buy mode, parse the product info
-        String[] info = parseProductInfo(getSelectedItem());
-        return info != null ? info[0] : null;
+        Product product = getSelectedProduct();
+        return product != null ? product.getName() : null;
     }
 
     public String getSelectedProductId() {
-        String[] info = parseProductInfo(getSelectedItem());
-        return info != null ? info[1] : null;
+        Product product = getSelectedProduct();
+        return product != null ? product.getId() : null;
     }
 
     public double getSelectedProductPrice() {
-        String[] info = parseProductInfo(getSelectedItem());
-        if (info != null) {
-            try {
-                return Double.parseDouble(info[2]);
-            } catch (NumberFormatException e) {
-                return 0.0;
-            }
-        }
-        return 0.0;
+        Product product = getSelectedProduct();
+        return product != null ? product.getPrice() : 0.0;
     }
 }
@@ -0,0 +1,136 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contention benchmark for the store's stock counters: the CAS-based
+ * StoreInventory against a single-lock baseline with the old HashMap layout.
+ * Each operation reserves a few units of a random product and returns them,
+ * so stock never runs out and every run measures the same work.
+ *
+ * Usage: java InventoryContentionBenchmark [millisPerRun] [hotProducts]
+ * hotProducts limits how many SKUs are used (1 = every thread hits one counter)
+ */
+public class InventoryContentionBenchmark {
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+    private static final int WARMUP_RUNS = 2;
+
+    /**
+     * Minimal view of a stock model for the benchmark loop
+     */
+    interface Stock {
+        int reserve(String productId, int quantity);
+        void returnProducts(String productId, int quantity);
+    }
+
+    /**
+     * Baseline: the previous read-check-write on HashMaps, made safe with one lock
+     */
+    static class SynchronizedStock implements Stock {
+        private final Map<String, Integer> productQuantities = new HashMap<>();
+        private final Map<String, Integer> serialNumberCounters = new HashMap<>();
+
+        SynchronizedStock(List<String> productIds, int quantity) {
+            for (String id : productIds) {
+                productQuantities.put(id, quantity);
+                serialNumberCounters.put(id, 1);
+            }
+        }
+
+        public synchronized int reserve(String productId, int quantity) {
+            Integer available = productQuantities.get(productId);
+            if (available == null || available < quantity) {
+                return -1;
+            }
+            int serial = serialNumberCounters.get(productId);
+            serialNumberCounters.put(productId, serial + quantity);
+            productQuantities.put(productId, available - quantity);
+            return serial;
+        }
+
+        public synchronized void returnProducts(String productId, int quantity) {
+            Integer current = productQuantities.get(productId);
+            if (current != null) {
+                productQuantities.put(productId, current + quantity);
+            }
+        }
+    }
+
+    /**
+     * Run threads against stock for the given time
+     * @return Operations per second
+     */
+    private static double measure(Stock stock, List<String> productIds, int threads, long millis) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        LongAdder ops = new LongAdder();
+        CountDownLatch startGate = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long[] deadline = new long[1];
+
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long local = 0;
+                try {
+                    startGate.await();
+                    while (System.nanoTime() < deadline[0]) {
+                        // Check the clock every 256 operations to keep it off the hot path
+                        for (int i = 0; i < 256; i++) {
+                            String id = productIds.get(random.nextInt(productIds.size()));
+                            int quantity = 1 + random.nextInt(3);
+                            if (stock.reserve(id, quantity) >= 0) {
+                                stock.returnProducts(id, quantity);
+                            }
+                        }
+                        local += 256;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    ops.add(local);
+                    done.countDown();
+                }
+            });
+        }
+
+        long start = System.nanoTime();
+        deadline[0] = start + TimeUnit.MILLISECONDS.toNanos(millis);
+        startGate.countDown();  // Publishes deadline to the workers
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        return ops.sum() / (elapsed / 1e9);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 500;
+        int hotProducts = args.length > 1 ? Integer.parseInt(args[1]) : Integer.MAX_VALUE;
+
+        StoreInventory store = new StoreInventory();
+        List<String> productIds = store.getProductIds();
+        Collections.sort(productIds);
+        productIds = productIds.subList(0, Math.max(1, Math.min(hotProducts, productIds.size())));
+        Stock cas = new Stock() {
+            public int reserve(String productId, int quantity) {
+                return store.reserve(productId, quantity);
+            }
+            public void returnProducts(String productId, int quantity) {
+                store.returnProducts(productId, quantity);
+            }
+        };
+        Stock locked = new SynchronizedStock(productIds, 999);
+
+        System.out.println("=== INVENTORY CONTENTION BENCHMARK ===");
+        System.out.printf("Products: %d, %d ms per run, %d cores%n", productIds.size(), millis, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%8s %16s %16s %8s%n", "threads", "synchronized/s", "cas/s", "speedup");
+        for (int threads : THREAD_COUNTS) {
+            for (int w = 0; w < WARMUP_RUNS; w++) {
+                measure(locked, productIds, threads, millis / 4);
+                measure(cas, productIds, threads, millis / 4);
+            }
+            double lockedOps = measure(locked, productIds, threads, millis);
+            double casOps = measure(cas, productIds, threads, millis);
+            System.out.printf("%8d %16.0f %16.0f %7.2fx%n", threads, lockedOps, casOps, casOps / lockedOps);
+        }
+    }
+}
@@ -3,37 +3,134 @@ import java.util.*;
 /**
  * Represents a unique product in inventory with quantity and price info
  * Each instance of a product has its own unique serial number
+ * Serials are allocated contiguously by the store, so they are kept as
+ * (start, count) ranges packed into longs and only turned into strings
+ * (e.g. "CHK00042") when asked for, such as for the receipt
  */
 public class InventoryItem {
     private String name;
     private String baseProductId;  // Base product ID (e.g., CHK00001)
-    private List<String> serialNumbers;  // Unique serial number for each instance
+    private String serialPrefix;  // First three letters of the ID (e.g., CHK)
+    private long[] serialRanges = new long[2];  // start (high 32 bits) | count (low 32 bits)
+    private int rangeCount = 0;
+    private int quantity = 0;
     private double pricePerUnit;
     private double originalPrice;  // Track original price before discounts
 
     public InventoryItem(String name, String baseProductId, double pricePerUnit, List<String> serialNumbers) {
+        this(name, baseProductId, pricePerUnit, serialNumbers, pricePerUnit);
+    }
+
+    public InventoryItem(String name, String baseProductId, double pricePerUnit, List<String> serialNumbers, double originalPrice) {
         this.name = name;
         this.baseProductId = baseProductId;
-        this.serialNumbers = new ArrayList<>(serialNumbers);
+        this.serialPrefix = baseProductId.substring(0, 3);
         this.pricePerUnit = pricePerUnit;
-        this.originalPrice = pricePerUnit;
+        this.originalPrice = originalPrice;
+        addSerialNumbers(serialNumbers);
     }
 
-    public InventoryItem(String name, String baseProductId, double pricePerUnit, List<String> serialNumbers, double originalPrice) {
+    /**
+     * Create an item holding count units numbered firstSerial, firstSerial + 1, ...
+     */
+    public InventoryItem(String name, String baseProductId, double pricePerUnit, int firstSerial, int count, double originalPrice) {
         this.name = name;
         this.baseProductId = baseProductId;
-        this.serialNumbers = new ArrayList<>(serialNumbers);
+        this.serialPrefix = baseProductId.substring(0, 3);
         this.pricePerUnit = pricePerUnit;
         this.originalPrice = originalPrice;
+        addSerialRange(firstSerial, count);
+    }
+
+    private static long packRange(int start, int count) {
+        return ((long) start << 32) | (count & 0xFFFFFFFFL);
+    }
+
+    private static int rangeStart(long range) {
+        return (int) (range >>> 32);
+    }
+
+    private static int rangeSize(long range) {
+        return (int) range;
+    }
+
+    /**
+     * Add count units numbered from firstSerial; extends the last range when contiguous
+     */
+    public void addSerialRange(int firstSerial, int count) {
+        if (count <= 0) return;
+        if (rangeCount > 0) {
+            long last = serialRanges[rangeCount - 1];
+            if (rangeStart(last) + rangeSize(last) == firstSerial) {
+                serialRanges[rangeCount - 1] = packRange(rangeStart(last), rangeSize(last) + count);
+                quantity += count;
+                return;
+            }
+        }
+        if (rangeCount == serialRanges.length) {
+            serialRanges = Arrays.copyOf(serialRanges, rangeCount * 2);
+        }
+        serialRanges[rangeCount++] = packRange(firstSerial, count);
+        quantity += count;
     }
 
     public void addSerialNumbers(List<String> newSerials) {
-        this.serialNumbers.addAll(newSerials);
+        for (String serial : newSerials) {
+            addSerialRange(Integer.parseInt(serial.substring(3)), 1);
+        }
     }
 
+    /**
+     * Remove the unit at a position in serial order, splitting its range if needed
+     */
     public void removeSerialNumber(int index) {
-        if (index >= 0 && index < serialNumbers.size()) {
-            serialNumbers.remove(index);
+        if (index < 0 || index >= quantity) return;
+        for (int r = 0; r < rangeCount; r++) {
+            int start = rangeStart(serialRanges[r]);
+            int size = rangeSize(serialRanges[r]);
+            if (index >= size) {
+                index -= size;
+                continue;
+            }
+            if (size == 1) {
+                // Range disappears
+                System.arraycopy(serialRanges, r + 1, serialRanges, r, rangeCount - r - 1);
+                rangeCount--;
+            } else if (index == 0) {
+                serialRanges[r] = packRange(start + 1, size - 1);
+            } else if (index == size - 1) {
+                serialRanges[r] = packRange(start, size - 1);
+            } else {
+                // Split [start, start + size) around the removed serial
+                if (rangeCount == serialRanges.length) {
+                    serialRanges = Arrays.copyOf(serialRanges, rangeCount * 2);
+                }
+                System.arraycopy(serialRanges, r + 1, serialRanges, r + 2, rangeCount - r - 1);
+                serialRanges[r] = packRange(start, index);
+                serialRanges[r + 1] = packRange(start + index + 1, size - index - 1);
+                rangeCount++;
+            }
+            quantity--;
+            return;
+        }
+    }
+
+    /**
+     * Remove the last count units (most recently added serials first)
+     */
+    public void removeLastSerialNumbers(int count) {
+        while (count > 0 && rangeCount > 0) {
+            long last = serialRanges[rangeCount - 1];
+            int size = rangeSize(last);
+            if (size <= count) {
+                rangeCount--;
+                quantity -= size;
+                count -= size;
+            } else {
+                serialRanges[rangeCount - 1] = packRange(rangeStart(last), size - count);
+                quantity -= count;
+                count = 0;
+            }
         }
     }
 
@@ -50,11 +147,22 @@ public class InventoryItem {
     }
 
     public int getQuantity() {
-        return serialNumbers.size();
+        return quantity;
     }
 
+    /**
+     * Build the serial number strings, e.g. "CHK00001"
+     */
     public List<String> getSerialNumbers() {
-        return new ArrayList<>(serialNumbers);
+        List<String> serials = new ArrayList<>(quantity);
+        for (int r = 0; r < rangeCount; r++) {
+            int start = rangeStart(serialRanges[r]);
+            int size = rangeSize(serialRanges[r]);
+            for (int i = 0; i < size; i++) {
+                serials.add(serialPrefix + String.format("%05d", start + i));
+            }
+        }
+        return serials;
     }
 
     public double getPricePerUnit() {
@@ -71,7 +179,7 @@ public class InventoryItem {
 
     @Override
     public String toString() {
-        return String.format("%s (%s) x%d - ₱%.2f (Total: ₱%.2f)", 
+        return String.format("%s (%s) x%d - ₱%.2f (Total: ₱%.2f)",
             name, baseProductId, getQuantity(), pricePerUnit, getTotalPrice());
     }
 }
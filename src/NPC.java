@@ -8,6 +8,9 @@ import java.io.IOException;
 public class NPC {
     private BufferedImage spriteSheet;
     private BufferedImage staticFrame;
+    private SpriteFrameCache frameCache;  // staticFrame pre-scaled to the current render size
+    private int frameRow = 0;
+    private int frameCol = 0;
     private int frameW = 1;
     private int frameH = 1;
     private int framesPerRow = 1;
@@ -31,6 +34,8 @@ public class NPC {
         this.name = name;
         this.framesPerRow = framesPerRow;
         this.totalRows = totalRows;
+        this.frameRow = frameRow;
+        this.frameCol = frameCol;
         loadSpriteSheet(spritePath);
         if (spriteSheet != null) {
             extractFrame(frameRow, frameCol);
@@ -53,6 +58,7 @@ public class NPC {
                 // Auto-detect frame dimensions based on framesPerRow and totalRows
                 frameW = spriteSheet.getWidth() / framesPerRow;
                 frameH = spriteSheet.getHeight() / totalRows;
+                frameCache = new SpriteFrameCache(spriteSheet, frameW, frameH, totalRows, framesPerRow);
             }
         } catch (IOException e) {
             System.err.println("NPC: failed to load sprite sheet: " + path + " -> " + e.getMessage());
@@ -123,7 +129,7 @@ public class NPC {
         int dx = x - dw / 2;
         int dy = y - (dh * 3 / 4);  // Anchor lower - feet at 3/4 down instead of all the way down
 
-        g.drawImage(staticFrame, dx, dy, dw, dh, null);
+        g.drawImage(frameCache.getFrame(frameRow, frameCol, false, dw, dh), dx, dy, null);
     }
 
     /**
@@ -147,6 +153,6 @@ public class NPC {
         int dx = centerX - dw / 2;
         int dy = centerY - (dh * 3 / 4);  // Anchor lower - feet at 3/4 down instead of all the way down
 
-        g.drawImage(staticFrame, dx, dy, dw, dh, null);
+        g.drawImage(frameCache.getFrame(frameRow, frameCol, false, dw, dh), dx, dy, null);
     }
 }
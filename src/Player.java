@@ -7,6 +7,7 @@ import java.io.IOException;
 
 public class Player {
     private BufferedImage sheet;
+    private SpriteFrameCache frameCache;  // pre-sliced, pre-scaled (and mirrored) frames
     private int frameW = 1, frameH = 1;
     private int framesPerRow = 1;    // number of columns (frames) per row
     private int dirRow = 0;          // 0 = right, 1 = down, 2 = up (per your sheet)
@@ -66,6 +67,7 @@ public class Player {
     }
 
     public void stopWalking() { moving = false; frameIndex = 0; }
+    public boolean isMoving() { return moving; }
 
     public void setPosition(int px, int py) { x = px; y = py; }
     public int getX() { return x; }
@@ -108,6 +110,7 @@ public class Player {
                     framesPerRow = Math.max(1, sheet.getWidth() / frameH);
                     frameW = Math.max(1, sheet.getWidth() / framesPerRow);
                 }
+                frameCache = new SpriteFrameCache(sheet, frameW, frameH, Math.max(1, sheet.getHeight() / frameH), framesPerRow);
             } else {
                 System.err.println("Player: sheet==null after load attempt: " + path);
             }
@@ -157,6 +160,19 @@ public class Player {
         lastUpdateTime = now;
     }
 
+    // Screen area covered by draw(...) at the same arguments, used for partial repaints.
+    public java.awt.Rectangle getDrawBounds(int centerX, int centerY, int tileSize) {
+        if (sheet == null) {
+            return new java.awt.Rectangle(centerX - tileSize / 2, centerY - tileSize / 2, tileSize, tileSize);
+        }
+        int dw = (int) Math.round(tileSize * scale);
+        int maxDw = tileSize * 4;
+        if (dw > maxDw) dw = maxDw;
+        if (dw < 1) dw = tileSize;
+        int dh = (int) Math.round(((double) frameH / Math.max(1, frameW)) * dw);
+        return new java.awt.Rectangle(centerX - dw / 2 - 1, centerY - dh / 2 - 1, dw + 2, dh + 2);
+    }
+
     // Draw centered at (centerX, centerY) in pixels; tileSize used as reference for desired render size.
     public void draw(Graphics2D g, int centerX, int centerY, int tileSize) {
         if (sheet == null) {
@@ -178,16 +194,7 @@ public class Player {
         int cols = Math.max(1, framesPerRow);
         int fi = Math.max(0, frameIndex % cols);
 
-        int sx1 = fi * frameW;
-        int sy1 = dirRow * frameH;
-        int sx2 = Math.min(sheet.getWidth(), sx1 + frameW);
-        int sy2 = Math.min(sheet.getHeight(), sy1 + frameH);
-
-        if (facingLeft) {
-            // flip horizontally by swapping destination x coords
-            g.drawImage(sheet, dx + dw, dy, dx, dy + dh, sx1, sy1, sx2, sy2, null);
-        } else {
-            g.drawImage(sheet, dx, dy, dx + dw, dy + dh, sx1, sy1, sx2, sy2, null);
-        }
+        // Left-facing frames are pre-mirrored copies of the right-facing row
+        g.drawImage(frameCache.getFrame(dirRow, fi, facingLeft, dw, dh), dx, dy, null);
     }
 }
\ No newline at end of file
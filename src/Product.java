@@ -0,0 +1,68 @@
+import java.util.Locale;
+
+/**
+ * Immutable product of the store catalog (see StoreInventory.getAllProducts).
+ * One instance exists per product; fixtures, menus, the kiosk and the rules all
+ * share it. The "emoji Name (ID) - ₱price" string is only built for display,
+ * on first use.
+ */
+public final class Product {
+    private final int ordinal;     // Index in the catalog, see ProductCatalog
+    private final String id;       // e.g. SNK00001
+    private final String name;     // e.g. Candies
+    private final ProductCategory category;
+    private final double price;
+    private final String emoji;    // e.g. 🍪 (may be empty)
+    private String displayString;  // Built lazily; racing threads build the same string
+
+    public Product(int ordinal, String id, String name, ProductCategory category, double price, String emoji) {
+        this.ordinal = ordinal;
+        this.id = id;
+        this.name = name;
+        this.category = category;
+        this.price = price;
+        this.emoji = emoji;
+    }
+
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ProductCategory getCategory() {
+        return category;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public String getEmoji() {
+        return emoji;
+    }
+
+    /**
+     * Full "emoji Name (ID) - ₱price" string shown in menus
+     */
+    public String getDisplayString() {
+        String s = displayString;
+        if (s == null) {
+            String label = emoji.isEmpty() ? name : emoji + " " + name;
+            s = String.format(Locale.ROOT, "%s (%s) - ₱%.2f", label, id, price);
+            displayString = s;
+        }
+        return s;
+    }
+
+    @Override
+    public String toString() {
+        return getDisplayString();
+    }
+}
@@ -0,0 +1,214 @@
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Column store of every product the supermarket sells
+ * Each product ID (e.g. "CHK00001") is interned to a dense int ordinal when the
+ * catalog is built; the shared Product records and the stock are arrays indexed
+ * by that ordinal, so the int-keyed methods never hash a String or box a number.
+ * Stock is one packed long per product (next serial in the high 32 bits,
+ * quantity in the low 32 bits) updated by compare-and-set; failed attempts are
+ * counted (getStockRetries), which is what contention on the stock costs.
+ * A catalog can also sit on a memory-mapped CatalogFile: then only the stock is
+ * on the heap, IDs are looked up in the file and Products are built on demand.
+ * Its stock starts out as 0 (a packed value never is, serials start at 1) and
+ * is read from the file the first time each product is touched.
+ */
+public class ProductCatalog {
+    private final Map<String, Integer> ordinals;  // Only used at the String API boundary; null when file-backed
+    private final Product[] products;             // Null when file-backed
+    private final CatalogFile file;               // Null for an in-memory catalog
+    private final int initialQuantity;            // Starting stock of an in-memory catalog
+    private final AtomicLongArray stock;
+    private final LongAdder stockUpdates = new LongAdder();  // Successful reserve/return compare-and-sets
+    private final LongAdder stockRetries = new LongAdder();  // Failed ones, each followed by a retry
+    private Map<ProductCategory, List<Product>> byCategory = null;  // Built on first getProducts()
+
+    /**
+     * @param products Every product, each at the index of its ordinal
+     * @param initialQuantity Starting stock of every product
+     */
+    public ProductCatalog(List<Product> products, int initialQuantity) {
+        int n = products.size();
+        this.products = products.toArray(new Product[0]);
+        this.file = null;
+        this.initialQuantity = initialQuantity;
+        ordinals = new HashMap<>(n * 2);
+        stock = new AtomicLongArray(n);
+
+        for (int i = 0; i < n; i++) {
+            if (this.products[i].getOrdinal() != i) {
+                throw new IllegalArgumentException("ProductCatalog: " + this.products[i].getId() + " is not at its ordinal");
+            }
+            ordinals.put(this.products[i].getId(), i);
+            stock.set(i, pack(1, initialQuantity));
+        }
+    }
+
+    /**
+     * Catalog over a mapped file, stocked with the file's quantities
+     */
+    public ProductCatalog(CatalogFile file) {
+        this.file = file;
+        this.products = null;
+        this.ordinals = null;
+        this.initialQuantity = 0;
+        stock = new AtomicLongArray(file.size());
+    }
+
+    /**
+     * Same products with their starting stock, e.g. for a restarted store
+     */
+    public ProductCatalog restock() {
+        return file != null ? new ProductCatalog(file) : new ProductCatalog(Arrays.asList(products), initialQuantity);
+    }
+
+    /**
+     * Current packed stock, loading a file-backed product's starting quantity on first use
+     */
+    private long stockOf(int ordinal) {
+        long packed = stock.get(ordinal);
+        if (packed == 0 && file != null) {
+            stock.compareAndSet(ordinal, 0, pack(1, file.getQuantity(ordinal)));
+            packed = stock.get(ordinal);
+        }
+        return packed;
+    }
+
+    private static long pack(int nextSerial, int quantity) {
+        return ((long) nextSerial << 32) | (quantity & 0xFFFFFFFFL);
+    }
+
+    private static int quantityOf(long packed) {
+        return (int) packed;
+    }
+
+    private static int serialOf(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    // ===================== STRING BOUNDARY =====================
+
+    /**
+     * Ordinal of a product ID, or -1 if the store doesn't sell it
+     */
+    public int ordinalOf(String productId) {
+        if (file != null) {
+            return file.ordinalOf(productId);
+        }
+        Integer ordinal = ordinals.get(productId);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    public int size() {
+        return stock.length();
+    }
+
+    /**
+     * Product of an ID, or null if the store doesn't sell it
+     */
+    public Product findProduct(String productId) {
+        int ordinal = ordinalOf(productId);
+        return ordinal < 0 ? null : getProduct(ordinal);
+    }
+
+    /**
+     * Products of one category in ordinal order, never null
+     */
+    public synchronized List<Product> getProducts(ProductCategory category) {
+        if (byCategory == null) {
+            byCategory = new EnumMap<>(ProductCategory.class);
+            for (int i = 0; i < size(); i++) {
+                Product product = getProduct(i);
+                byCategory.computeIfAbsent(product.getCategory(), c -> new ArrayList<>()).add(product);
+            }
+            byCategory.replaceAll((c, list) -> Collections.unmodifiableList(list));
+        }
+        return byCategory.getOrDefault(category, Collections.emptyList());
+    }
+
+    // ===================== INT-KEYED API =====================
+
+    public Product getProduct(int ordinal) {
+        return file != null ? file.getProduct(ordinal) : products[ordinal];
+    }
+
+    public String getId(int ordinal) {
+        return file != null ? file.getId(ordinal) : products[ordinal].getId();
+    }
+
+    public String getName(int ordinal) {
+        return file != null ? file.getName(ordinal) : products[ordinal].getName();
+    }
+
+    /**
+     * Category code of the ID, used for serial numbers (e.g. "CHK")
+     */
+    public String getSerialPrefix(int ordinal) {
+        return (file != null ? file.getCategory(ordinal) : products[ordinal].getCategory()).getCode();
+    }
+
+    public double getPrice(int ordinal) {
+        return file != null ? file.getPrice(ordinal) : products[ordinal].getPrice();
+    }
+
+    public int getAvailableQuantity(int ordinal) {
+        return quantityOf(stockOf(ordinal));
+    }
+
+    /**
+     * Atomically take quantity units and allocate their serial number range
+     * @return First serial number of the range, or -1 if not enough available
+     */
+    public int reserve(int ordinal, int quantity) {
+        if (quantity <= 0) {
+            return -1;
+        }
+        while (true) {
+            long current = stockOf(ordinal);
+            int available = quantityOf(current);
+            if (available < quantity) {
+                return -1;  // Not enough available
+            }
+            int serial = serialOf(current);
+            if (stock.compareAndSet(ordinal, current, pack(serial + quantity, available - quantity))) {
+                stockUpdates.increment();
+                return serial;
+            }
+            stockRetries.increment();
+        }
+    }
+
+    /**
+     * Put quantity units back on the shelf (serial numbers are not reused)
+     * @return false if quantity isn't positive, which would lower the stock
+     */
+    public boolean returnProducts(int ordinal, int quantity) {
+        if (quantity <= 0) {
+            return false;
+        }
+        while (true) {
+            long current = stockOf(ordinal);
+            if (stock.compareAndSet(ordinal, current, pack(serialOf(current), quantityOf(current) + quantity))) {
+                stockUpdates.increment();
+                return true;
+            }
+            stockRetries.increment();
+        }
+    }
+
+    /**
+     * Stock changes made by reserve and returnProducts so far
+     */
+    public long getStockUpdates() {
+        return stockUpdates.sum();
+    }
+
+    /**
+     * Compare-and-sets of reserve and returnProducts that lost a race and were retried
+     */
+    public long getStockRetries() {
+        return stockRetries.sum();
+    }
+}
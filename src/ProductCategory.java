@@ -0,0 +1,109 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Product category, identified by the first three letters of a product ID
+ * (e.g. "ALC00002" is ALCOHOL). Carries the store rules that depend on the
+ * category: age restriction and the senior citizen discount.
+ */
+public enum ProductCategory {
+    // Food: 20% senior discount
+    CHICKEN("CHK", "Chicken", Discount.FOOD),
+    BEEF("BEF", "Beef", Discount.FOOD),
+    SEAFOOD("SEA", "Seafood", Discount.FOOD),
+    CONDIMENTS("CON", "Condiments", Discount.FOOD),
+    CEREAL("CER", "Cereal", Discount.FOOD),
+    NOODLES("NDL", "Noodles", Discount.FOOD),
+    CANNED("CAN", "Canned Goods", Discount.FOOD),
+    SNACKS("SNK", "Snacks", Discount.FOOD),
+    FRUIT("FRU", "Fruit", Discount.FOOD),
+    FROZEN("FRZ", "Frozen Food", Discount.FOOD),
+    CHEESE("CHS", "Cheese", Discount.FOOD),
+    VEGETABLE("VEG", "Vegetable", Discount.FOOD),
+    BREAD("BRD", "Bread", Discount.FOOD),
+    EGGS("EGG", "Eggs", Discount.FOOD),
+    // Beverages: 10% senior discount
+    SOFT_DRINKS("SFT", "Soft Drinks", Discount.BEVERAGE),
+    JUICE("JUC", "Juice", Discount.BEVERAGE),
+    MILK("MLK", "Milk", Discount.BEVERAGE),
+    // No senior discount
+    ALCOHOL("ALC", "Alcohol", Discount.NONE),
+    PET_FOOD("PET", "Pet Food", Discount.NONE),
+    STATIONERY("STN", "Stationery", Discount.NONE),
+    CLOTHES("CLO", "Clothes", Discount.NONE),
+    DENTAL_CARE("DEN", "Dental Care", Discount.NONE),
+    CLEANING("CLE", "Cleaning Agents", Discount.NONE),
+    HAIR_CARE("HAR", "Hair Care", Discount.NONE),
+    HOME_ESSENTIALS("HOM", "Home Essentials", Discount.NONE),
+    BODY_CARE("BOD", "Body Care", Discount.NONE);
+
+    private enum Discount {
+        FOOD(0.8),
+        BEVERAGE(0.9),
+        NONE(1.0);
+
+        private final double multiplier;
+
+        Discount(double multiplier) {
+            this.multiplier = multiplier;
+        }
+    }
+
+    private static final Map<String, ProductCategory> BY_CODE = new HashMap<>();
+
+    static {
+        for (ProductCategory c : values()) {
+            BY_CODE.put(c.code, c);
+        }
+    }
+
+    private final String code;
+    private final String label;
+    private final Discount seniorDiscount;
+
+    ProductCategory(String code, String label, Discount seniorDiscount) {
+        this.code = code;
+        this.label = label;
+        this.seniorDiscount = seniorDiscount;
+    }
+
+    /**
+     * Three-letter ID prefix, e.g. "ALC"
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Name shown to shoppers, e.g. "Soft Drinks"
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Players under 18 can't buy these (Thugger still sells them alcohol)
+     */
+    public boolean isAgeRestricted() {
+        return this == ALCOHOL || this == CLEANING;
+    }
+
+    public boolean hasSeniorDiscount() {
+        return seniorDiscount != Discount.NONE;
+    }
+
+    /**
+     * Price multiplier for senior citizens (60+), 1.0 if the category isn't discounted
+     */
+    public double getSeniorDiscountMultiplier() {
+        return seniorDiscount.multiplier;
+    }
+
+    /**
+     * Category of a product ID such as "ALC00002", or null if the prefix is unknown
+     */
+    public static ProductCategory of(String productId) {
+        if (productId == null || productId.length() < 3) return null;
+        return BY_CODE.get(productId.substring(0, 3).toUpperCase());
+    }
+}
@@ -0,0 +1,523 @@
+import java.util.*;
+
+/**
+ * Typeahead index over the catalog's product names and IDs
+ * Prefixes are looked up in a ternary search tree stored in parallel int arrays
+ * (one slot per node, no node objects); keys are the whole name, each word of
+ * the name and the ID, all lowercase. Every node knows the best posting below
+ * it, so a prefix walk ranks as it goes and skips subtrees that can't make the
+ * result list instead of cutting off at a fixed number of candidates.
+ * When prefixes don't fill the result list,
+ * misspellings are caught by bigram overlap (Dice coefficient) between each
+ * query word and the distinct words of the catalog's names.
+ * Built once per catalog; search() reuses scratch arrays, so it is synchronized.
+ */
+public class ProductSearchIndex {
+    public static final int DEFAULT_LIMIT = 8;
+
+    // Score of each kind of match; fuzzy matches add their mean word Dice coefficient (0..1)
+    private static final double SCORE_NAME_PREFIX = 4.0;
+    private static final double SCORE_ID_PREFIX = 3.5;
+    private static final double SCORE_WORD_PREFIX = 3.0;
+    private static final double MIN_FUZZY_SCORE = 0.5;
+    private static final int MIN_FUZZY_LENGTH = 3;  // Shorter query words only match by prefix
+
+    // Posting kinds, stored in the low 2 bits of each posting
+    private static final int KIND_NAME = 0;
+    private static final int KIND_ID = 1;
+    private static final int KIND_WORD = 2;
+
+    private final ProductCatalog catalog;
+    private final String[] normalizedNames;
+
+    // Ternary search tree: node i splits on splitChar[i]; lo/eq/hi are child node indices (0 = none)
+    private char[] splitChar = new char[256];
+    private int[] lo = new int[256];
+    private int[] eq = new int[256];
+    private int[] hi = new int[256];
+    private int[] firstPosting = new int[256];  // Head of the node's posting chain, -1 = no key ends here
+    private int[] bestPosting;                  // Best posting of the node and everything below it, -1 = none
+    private int nodeCount = 1;                  // Node 0 is unused so 0 can mean "no child"
+
+    // Posting chains: ordinal << 2 | kind, linked through nextPosting, best first once built
+    private int[] postings = new int[256];
+    private int[] nextPosting = new int[256];
+    private int postingCount = 0;
+
+    // Distinct words of all names get a word id; bigram -> word ids containing it
+    private final Map<Integer, int[]> bigramPostings = new HashMap<>();
+    private final int[][] wordProducts;  // Ordinals whose name has each word id
+    private final int[] wordGramCounts;  // Distinct bigrams of each word id
+
+    // Scratch, sized to the catalog and reused by every search
+    private final double[] scores;
+    private final double[] fuzzy;         // Sum over query words of the best word match, per product
+    private final double[] fuzzyScratch;  // Best word match of the current query word, per product
+    private final int[] wordOverlap;
+    private final int[] touched;
+    private final boolean[] touchedFlags;
+    private final int[] touchedWords;
+    private int touchedCount;
+    private int[] top = new int[DEFAULT_LIMIT];  // Best distinct prefix matches so far, best first
+    private double[] topScores = new double[DEFAULT_LIMIT];
+    private int topCount;
+
+    /**
+     * One ranked hit
+     */
+    public static final class Result {
+        private final int ordinal;
+        private final String productId;
+        private final String name;
+        private final double score;
+
+        private Result(int ordinal, String productId, String name, double score) {
+            this.ordinal = ordinal;
+            this.productId = productId;
+            this.name = name;
+            this.score = score;
+        }
+
+        public int getOrdinal() {
+            return ordinal;
+        }
+
+        public String getProductId() {
+            return productId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        @Override
+        public String toString() {
+            return name + " (" + productId + ")";
+        }
+    }
+
+    public ProductSearchIndex(ProductCatalog catalog) {
+        this.catalog = catalog;
+        int n = catalog.size();
+        normalizedNames = new String[n];
+        scores = new double[n];
+        fuzzy = new double[n];
+        fuzzyScratch = new double[n];
+        touched = new int[n];
+        touchedFlags = new boolean[n];
+        Arrays.fill(firstPosting, -1);
+
+        Map<String, List<Integer>> vocabulary = new LinkedHashMap<>();
+        for (int ordinal = 0; ordinal < n; ordinal++) {
+            String name = normalize(catalog.getName(ordinal));
+            normalizedNames[ordinal] = name;
+
+            insert(name, ordinal, KIND_NAME);
+            insert(catalog.getId(ordinal).toLowerCase(), ordinal, KIND_ID);
+            int wordStart = name.indexOf(' ') + 1;
+            while (wordStart > 0 && wordStart < name.length()) {
+                insert(name.substring(wordStart), ordinal, KIND_WORD);
+                wordStart = name.indexOf(' ', wordStart) + 1;
+            }
+
+            for (String word : name.split(" ")) {
+                if (word.isEmpty()) continue;
+                List<Integer> owners = vocabulary.computeIfAbsent(word, k -> new ArrayList<>());
+                if (owners.isEmpty() || owners.get(owners.size() - 1) != ordinal) {
+                    owners.add(ordinal);
+                }
+            }
+        }
+
+        // Two passes over the vocabulary: count each bigram's postings, then fill exact-size arrays
+        int wordCount = vocabulary.size();
+        wordProducts = new int[wordCount][];
+        wordGramCounts = new int[wordCount];
+        wordOverlap = new int[wordCount];
+        touchedWords = new int[wordCount];
+        int[][] wordGrams = new int[wordCount][];
+        Map<Integer, int[]> sizes = new HashMap<>();
+        int w = 0;
+        for (Map.Entry<String, List<Integer>> e : vocabulary.entrySet()) {
+            List<Integer> owners = e.getValue();
+            wordProducts[w] = new int[owners.size()];
+            for (int i = 0; i < owners.size(); i++) {
+                wordProducts[w][i] = owners.get(i);
+            }
+            wordGrams[w] = bigramsOf(e.getKey());
+            wordGramCounts[w] = wordGrams[w].length;
+            for (int gram : wordGrams[w]) {
+                sizes.computeIfAbsent(gram, k -> new int[1])[0]++;
+            }
+            w++;
+        }
+        for (Map.Entry<Integer, int[]> e : sizes.entrySet()) {
+            bigramPostings.put(e.getKey(), new int[e.getValue()[0]]);
+            e.getValue()[0] = 0;  // Reused as the fill position
+        }
+        for (w = 0; w < wordCount; w++) {
+            for (int gram : wordGrams[w]) {
+                int[] fill = sizes.get(gram);
+                bigramPostings.get(gram)[fill[0]++] = w;
+            }
+        }
+        rankPostings();
+    }
+
+    /**
+     * Lowercase and collapse anything that isn't a letter or digit to single spaces
+     */
+    public static String normalize(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = true;  // Drops leading separators
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                sb.append(c);
+                space = false;
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int len = sb.length();
+        if (len > 0 && sb.charAt(len - 1) == ' ') {
+            sb.setLength(len - 1);
+        }
+        return sb.toString();
+    }
+
+    // ===================== TERNARY SEARCH TREE =====================
+
+    private int newNode(char c) {
+        if (nodeCount == splitChar.length) {
+            int size = nodeCount * 2;
+            splitChar = Arrays.copyOf(splitChar, size);
+            lo = Arrays.copyOf(lo, size);
+            eq = Arrays.copyOf(eq, size);
+            hi = Arrays.copyOf(hi, size);
+            firstPosting = Arrays.copyOf(firstPosting, size);
+            Arrays.fill(firstPosting, nodeCount, size, -1);
+        }
+        splitChar[nodeCount] = c;
+        return nodeCount++;
+    }
+
+    private void insert(String key, int ordinal, int kind) {
+        if (key.isEmpty()) return;
+        int node = 0;
+        int link = 0;  // Which child pointer of node leads on: 0 = root, 1 = lo, 2 = eq, 3 = hi
+        int i = 0;
+        int current = nodeCount > 1 ? 1 : 0;
+        while (true) {
+            if (current == 0) {
+                current = newNode(key.charAt(i));
+                if (link == 1) lo[node] = current;
+                else if (link == 2) eq[node] = current;
+                else if (link == 3) hi[node] = current;
+            }
+            char c = key.charAt(i);
+            node = current;
+            if (c < splitChar[node]) {
+                link = 1;
+                current = lo[node];
+            } else if (c > splitChar[node]) {
+                link = 3;
+                current = hi[node];
+            } else if (i + 1 < key.length()) {
+                i++;
+                link = 2;
+                current = eq[node];
+            } else {
+                addPosting(node, ordinal << 2 | kind);
+                return;
+            }
+        }
+    }
+
+    private void addPosting(int node, int posting) {
+        if (postingCount == postings.length) {
+            postings = Arrays.copyOf(postings, postingCount * 2);
+            nextPosting = Arrays.copyOf(nextPosting, postingCount * 2);
+        }
+        postings[postingCount] = posting;
+        nextPosting[postingCount] = firstPosting[node];
+        firstPosting[node] = postingCount++;
+    }
+
+    /**
+     * Sort each posting chain best first and fill bestPosting bottom-up
+     * (a child is always created after its parent, so it has a higher index)
+     */
+    private void rankPostings() {
+        bestPosting = new int[nodeCount];
+        bestPosting[0] = -1;
+        long[] chain = new long[16];
+        for (int node = nodeCount - 1; node > 0; node--) {
+            // Rank key: kind (name, ID, word = descending score), then name length, then ordinal
+            int n = 0;
+            for (int p = firstPosting[node]; p != -1; p = nextPosting[p]) {
+                if (n == chain.length) {
+                    chain = Arrays.copyOf(chain, n * 2);
+                }
+                int ordinal = postings[p] >>> 2;
+                chain[n++] = (long) (postings[p] & 3) << 56 | (long) normalizedNames[ordinal].length() << 32 | ordinal;
+            }
+            if (n > 1) {
+                Arrays.sort(chain, 0, n);
+                int i = 0;
+                for (int p = firstPosting[node]; p != -1; p = nextPosting[p]) {
+                    postings[p] = (int) chain[i] << 2 | (int) (chain[i] >>> 56);
+                    i++;
+                }
+            }
+
+            int best = firstPosting[node] != -1 ? postings[firstPosting[node]] : -1;
+            best = better(best, bestPosting[lo[node]]);
+            best = better(best, bestPosting[eq[node]]);
+            bestPosting[node] = better(best, bestPosting[hi[node]]);
+        }
+    }
+
+    private int better(int a, int b) {
+        if (a < 0) return b;
+        if (b < 0) return a;
+        return isBetter(b >>> 2, scoreOf(b), a >>> 2, scoreOf(a)) ? b : a;
+    }
+
+    private static double scoreOf(int posting) {
+        int kind = posting & 3;
+        return kind == KIND_NAME ? SCORE_NAME_PREFIX : kind == KIND_ID ? SCORE_ID_PREFIX : SCORE_WORD_PREFIX;
+    }
+
+    /**
+     * Node whose path spells prefix, or 0 if no key starts with it
+     */
+    private int findPrefixNode(String prefix) {
+        int node = nodeCount > 1 ? 1 : 0;
+        int i = 0;
+        while (node != 0) {
+            char c = prefix.charAt(i);
+            if (c < splitChar[node]) {
+                node = lo[node];
+            } else if (c > splitChar[node]) {
+                node = hi[node];
+            } else if (i + 1 == prefix.length()) {
+                return node;
+            } else {
+                i++;
+                node = eq[node];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Score every key below node (the node itself included) that can still make the
+     * top limit results; a subtree or the rest of a chain is skipped once its best
+     * posting ranks below the current last result
+     */
+    private void collectPrefix(int node, boolean includeSiblings, int limit) {
+        if (node == 0 || !canEnterTop(bestPosting[node], limit)) return;
+        for (int p = firstPosting[node]; p != -1; p = nextPosting[p]) {
+            if (!canEnterTop(postings[p], limit)) break;
+            int ordinal = postings[p] >>> 2;
+            double s = scoreOf(postings[p]);
+            touch(ordinal);
+            if (s > scores[ordinal]) {
+                scores[ordinal] = s;
+                offerTop(ordinal, s, limit);
+            }
+        }
+        collectPrefix(eq[node], true, limit);
+        if (includeSiblings) {
+            collectPrefix(lo[node], true, limit);
+            collectPrefix(hi[node], true, limit);
+        }
+    }
+
+    private boolean canEnterTop(int posting, int limit) {
+        if (posting < 0) return false;
+        return topCount < limit || isBetter(posting >>> 2, scoreOf(posting), top[limit - 1], topScores[limit - 1]);
+    }
+
+    /**
+     * Put a product (new, or with a higher score than before) into the sorted top list
+     */
+    private void offerTop(int ordinal, double s, int limit) {
+        for (int i = 0; i < topCount; i++) {
+            if (top[i] == ordinal) {
+                System.arraycopy(top, i + 1, top, i, topCount - i - 1);
+                System.arraycopy(topScores, i + 1, topScores, i, topCount - i - 1);
+                topCount--;
+                break;
+            }
+        }
+        int pos = topCount;
+        while (pos > 0 && isBetter(ordinal, s, top[pos - 1], topScores[pos - 1])) {
+            pos--;
+        }
+        if (pos >= limit) return;
+        int moved = Math.min(topCount, limit - 1) - pos;
+        System.arraycopy(top, pos, top, pos + 1, moved);
+        System.arraycopy(topScores, pos, topScores, pos + 1, moved);
+        top[pos] = ordinal;
+        topScores[pos] = s;
+        topCount = Math.min(topCount + 1, limit);
+    }
+
+    private void touch(int ordinal) {
+        if (!touchedFlags[ordinal]) {
+            touchedFlags[ordinal] = true;
+            touched[touchedCount++] = ordinal;
+        }
+    }
+
+    // ===================== BIGRAMS =====================
+
+    /**
+     * Distinct bigrams of " word " (padded so first and last letters weigh in), two chars per int
+     */
+    private static int[] bigramsOf(String word) {
+        String padded = " " + word + " ";
+        int[] grams = new int[padded.length() - 1];
+        int count = 0;
+        outer:
+        for (int i = 0; i + 1 < padded.length(); i++) {
+            int gram = padded.charAt(i) << 16 | padded.charAt(i + 1);
+            for (int k = 0; k < count; k++) {
+                if (grams[k] == gram) continue outer;
+            }
+            grams[count++] = gram;
+        }
+        return Arrays.copyOf(grams, count);
+    }
+
+    /**
+     * Add each product's best Dice score against one query word to fuzzy[]
+     */
+    private void scoreFuzzyWord(String queryWord, double weight) {
+        int[] queryGrams = bigramsOf(queryWord);
+        int wordsTouched = 0;
+        for (int gram : queryGrams) {
+            int[] wordIds = bigramPostings.get(gram);
+            if (wordIds == null) continue;
+            for (int w : wordIds) {
+                if (wordOverlap[w]++ == 0) {
+                    touchedWords[wordsTouched++] = w;
+                }
+            }
+        }
+
+        // Best word per product; the previous value of fuzzy[] holds earlier query words
+        for (int t = 0; t < wordsTouched; t++) {
+            int w = touchedWords[t];
+            double dice = 2.0 * wordOverlap[w] / (queryGrams.length + wordGramCounts[w]);
+            wordOverlap[w] = 0;
+            if (dice < MIN_FUZZY_SCORE) continue;
+            for (int ordinal : wordProducts[w]) {
+                touch(ordinal);
+                fuzzyScratch[ordinal] = Math.max(fuzzyScratch[ordinal], dice * weight);
+            }
+        }
+        for (int t = 0; t < touchedCount; t++) {
+            int ordinal = touched[t];
+            fuzzy[ordinal] += fuzzyScratch[ordinal];
+            fuzzyScratch[ordinal] = 0.0;
+        }
+    }
+
+    // ===================== SEARCH =====================
+
+    /**
+     * Best matches for what the user has typed so far, highest score first
+     * @param query Raw query text, e.g. "chick" or "wsiky"
+     * @param limit Maximum number of results
+     */
+    public synchronized List<Result> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        touchedCount = 0;
+        topCount = 0;
+        if (top.length < limit) {
+            top = new int[limit];
+            topScores = new double[limit];
+        }
+
+        // Prefix matches on the whole name, any word of it, or the ID
+        collectPrefix(findPrefixNode(q), false, limit);
+
+        // Fuzzy matches only when prefixes don't fill the list
+        boolean useFuzzy = touchedCount < limit;
+        String[] queryWords = q.split(" ");
+        if (useFuzzy) {
+            for (String word : queryWords) {
+                if (word.length() >= MIN_FUZZY_LENGTH) {
+                    scoreFuzzyWord(word, 1.0 / queryWords.length);
+                }
+            }
+        }
+
+        // Keep the top results in insertion-sorted arrays of size limit
+        int[] best = new int[limit];
+        double[] bestScores = new double[limit];
+        int bestCount = 0;
+        for (int t = 0; t < touchedCount; t++) {
+            int ordinal = touched[t];
+            double s = scores[ordinal];
+            if (fuzzy[ordinal] >= MIN_FUZZY_SCORE / queryWords.length) {
+                s += fuzzy[ordinal];
+            }
+            scores[ordinal] = 0.0;
+            fuzzy[ordinal] = 0.0;
+            touchedFlags[ordinal] = false;
+            if (s <= 0) continue;
+
+            int pos = bestCount;
+            while (pos > 0 && isBetter(ordinal, s, best[pos - 1], bestScores[pos - 1])) {
+                pos--;
+            }
+            if (pos >= limit) continue;
+            int moved = Math.min(bestCount, limit - 1) - pos;
+            System.arraycopy(best, pos, best, pos + 1, moved);
+            System.arraycopy(bestScores, pos, bestScores, pos + 1, moved);
+            best[pos] = ordinal;
+            bestScores[pos] = s;
+            bestCount = Math.min(bestCount + 1, limit);
+        }
+
+        List<Result> results = new ArrayList<>(bestCount);
+        for (int i = 0; i < bestCount; i++) {
+            results.add(new Result(best[i], catalog.getId(best[i]), catalog.getName(best[i]), bestScores[i]));
+        }
+        return results;
+    }
+
+    public List<Result> search(String query) {
+        return search(query, DEFAULT_LIMIT);
+    }
+
+    /**
+     * Catalog this index was built over
+     */
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Higher score first, then shorter name, then ordinal so results are stable
+     */
+    private boolean isBetter(int a, double scoreA, int b, double scoreB) {
+        if (scoreA != scoreB) return scoreA > scoreB;
+        int lenA = normalizedNames[a].length();
+        int lenB = normalizedNames[b].length();
+        if (lenA != lenB) return lenA < lenB;
+        return a < b;
+    }
+}
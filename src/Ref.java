@@ -10,6 +10,19 @@ public class Ref {
         initializeRef();
     }
 
+    /**
+     * Stocked with the given products, 10 units each (the default assortment if there are none)
+     */
+    public Ref(Product[] products) {
+        if (products.length == 0) {
+            initializeRef();
+            return;
+        }
+        for (Product p : products) {
+            addItem(p.getName(), p.getId(), 10, p.getPrice());
+        }
+    }
+
     public void addItem(String name, String category, int qty) {
         addItem(name, category, qty, 1.0);
     }
@@ -59,20 +72,20 @@ public class Ref {
     public void initializeRef() {
         items.clear();
 
-        // MLKXXXXX 
-        addItem("Fresh", "MLK00001", 10, 68.00);
-        addItem("Soy", "MLK00002", 10, 65.00);
-        addItem("Almond", "MLK00003", 10, 95.00);
-
-        // FRZXXXXX 
-        addItem("Hotdog", "FRZ00001", 10, 85.00);
-        addItem("Nuggets", "FRZ00002", 10, 125.00);
-        addItem("Tocino", "FRZ00003", 10, 155.00);
+        addProducts(ProductCategory.MILK, 3);
+        addProducts(ProductCategory.FROZEN, 3);
+        addProducts(ProductCategory.CHEESE, 3);
+    }
 
-        // CHSXXXXX 
-        addItem("Sliced", "CHS00001", 10, 145.00);
-        addItem("Mozzarella", "CHS00002", 10, 185.00);
-        addItem("Keso de Bola", "CHS00003", 10, 175.00);
+    /**
+     * Stock the first count catalog products of a category, 10 units each
+     */
+    private void addProducts(ProductCategory category, int count) {
+        List<Product> products = StoreInventory.getDefaultCatalog().getProducts(category);
+        for (int i = 0; i < count && i < products.size(); i++) {
+            Product p = products.get(i);
+            addItem(p.getName(), p.getId(), 10, p.getPrice());
+        }
     }
 
     public Item takeItemUnits(int index, int qtyRequested) {
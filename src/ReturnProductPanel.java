@@ -4,12 +4,12 @@ import java.awt.event.*;
 import java.util.List;
 
 public class ReturnProductPanel extends JPanel {
-    private List<String> returnableProducts;
+    private List<String> returnableProducts;  // Product IDs; names aren't unique (e.g. two Brooms)
     private ShopperInventory inventory;
     private int selectedIndex = 0;
     private Runnable onConfirm;
     private Runnable onCancel;
-    private String selectedProductName = null;
+    private String selectedProductId = null;
 
     public ReturnProductPanel(List<String> returnableProducts, ShopperInventory inventory, Runnable onConfirm, Runnable onCancel) {
         this.returnableProducts = returnableProducts;
@@ -52,8 +52,8 @@ public class ReturnProductPanel extends JPanel {
         g.setFont(new Font("Arial", Font.PLAIN, 14));
         
         for (int i = 0; i < returnableProducts.size(); i++) {
-            String productName = returnableProducts.get(i);
-            int quantity = inventory.getProductQuantity(productName);
+            InventoryItem item = inventory.findItem(returnableProducts.get(i));
+            int quantity = item != null ? item.getQuantity() : 0;
             
             if (quantity > 0) {
                 int itemY = startY + (i * itemHeight);
@@ -67,7 +67,7 @@ public class ReturnProductPanel extends JPanel {
                     g.setColor(new Color(200, 200, 200));
                 }
                 
-                g.drawString("► " + productName + " (x" + quantity + ")", x + 20, itemY);
+                g.drawString("► " + item.getName() + " (x" + quantity + ")", x + 20, itemY);
             }
         }
 
@@ -87,7 +87,7 @@ public class ReturnProductPanel extends JPanel {
             selectedIndex = (selectedIndex + 1) % returnableProducts.size();
             repaint();
         } else if (keyCode == KeyEvent.VK_ENTER) {
-            selectedProductName = returnableProducts.get(selectedIndex);
+            selectedProductId = returnableProducts.get(selectedIndex);
             if (onConfirm != null) {
                 onConfirm.run();
             }
@@ -98,13 +98,13 @@ public class ReturnProductPanel extends JPanel {
         }
     }
 
-    public String getSelectedProductName() {
-        return selectedProductName;
+    public String getSelectedProductId() {
+        return selectedProductId;
     }
 
     public int getInventoryQuantity() {
-        if (selectedProductName != null) {
-            return inventory.getProductQuantity(selectedProductName);
+        if (selectedProductId != null) {
+            return inventory.getProductQuantityById(selectedProductId);
         }
         return 0;
     }
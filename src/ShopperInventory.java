@@ -40,6 +40,14 @@ public class ShopperInventory {
     private String lastReceipt = null;  // Store last checkout receipt
     private StoreInventory storeInventory;  // Reference to store inventory
 
+    // Running totals, kept in step with the items so the HUD and capacity checks are O(1)
+    private int totalQuantity = 0;
+    private double totalPrice = 0.0;
+    private double totalOriginalPrice = 0.0;
+
+    // Run with -Dsupermarket.debugInventory=true to recompute and compare totals after every change
+    private static final boolean DEBUG_TOTALS = Boolean.getBoolean("supermarket.debugInventory");
+
     public ShopperInventory(StoreInventory storeInventory) {
         this.currentEquipment = EquipmentType.HANDS;
         this.inventory = new LinkedHashMap<>();
@@ -70,19 +78,22 @@ public class ShopperInventory {
             return false;
         }
 
-        // Try to take products from store
-        List<String> serialNumbers = storeInventory.takeProducts(productId, quantity);
-        if (serialNumbers.isEmpty()) {
+        // Try to take products from store; serials come back as one contiguous range
+        int firstSerial = storeInventory.reserve(productId, quantity);
+        if (firstSerial < 0) {
             return false;  // Not enough available in store
         }
 
-        if (inventory.containsKey(productId)) {
+        InventoryItem item = inventory.get(productId);
+        if (item != null) {
             // Add serial numbers to existing item
-            inventory.get(productId).addSerialNumbers(serialNumbers);
+            item.addSerialRange(firstSerial, quantity);
         } else {
             // Create new item with serial numbers
-            inventory.put(productId, new InventoryItem(name, productId, price, serialNumbers, originalPrice));
+            item = new InventoryItem(name, productId, price, firstSerial, quantity, originalPrice);
+            inventory.put(productId, item);
         }
+        adjustTotals(item, quantity);
         return true;
     }
 
@@ -102,7 +113,7 @@ public class ShopperInventory {
      * Removes a product from inventory
      */
     public boolean removeProduct(String productId, int quantity) {
-        if (!inventory.containsKey(productId)) {
+        if (quantity <= 0 || !inventory.containsKey(productId)) {
             return false;
         }
 
@@ -113,14 +124,16 @@ public class ShopperInventory {
             return false;  // Can't remove more than available
         }
         
-        // Remove the specified quantity of items
-        for (int i = 0; i < quantity && i < currentQuantity; i++) {
-            item.removeSerialNumber(currentQuantity - 1 - i);
-        }
+        // Remove the specified quantity of items (last serials first)
+        item.removeLastSerialNumbers(quantity);
+        adjustTotals(item, -quantity);
 
         if (item.getQuantity() <= 0) {
             inventory.remove(productId);
         }
+        if (inventory.isEmpty()) {
+            resetTotals();  // Drop any floating point drift
+        }
         
         // Return items to store
         storeInventory.returnProducts(productId, quantity);
@@ -128,15 +141,11 @@ public class ShopperInventory {
     }
 
     /**
-     * Removes a product from inventory by product name
+     * Find the cart line of a product
+     * @return The item, or null if the shopper isn't carrying it
      */
-    public boolean removeProductByName(String productName, int quantity) {
-        for (Map.Entry<String, InventoryItem> entry : inventory.entrySet()) {
-            if (entry.getValue().getName().equals(productName)) {
-                return removeProduct(entry.getKey(), quantity);
-            }
-        }
-        return false;
+    public InventoryItem findItem(String productId) {
+        return inventory.get(productId);
     }
 
     /**
@@ -150,7 +159,7 @@ public class ShopperInventory {
      * Get total number of products in inventory
      */
     public int getTotalQuantity() {
-        return inventory.values().stream().mapToInt(InventoryItem::getQuantity).sum();
+        return totalQuantity;
     }
 
     /**
@@ -164,7 +173,51 @@ public class ShopperInventory {
      * Get total price of all products
      */
     public double getTotalPrice() {
-        return inventory.values().stream().mapToDouble(InventoryItem::getTotalPrice).sum();
+        return totalPrice;
+    }
+
+    /**
+     * Get total price of all products before discounts
+     */
+    public double getTotalOriginalPrice() {
+        return totalOriginalPrice;
+    }
+
+    /**
+     * Apply a change of delta units of an item to the running totals
+     */
+    private void adjustTotals(InventoryItem item, int delta) {
+        totalQuantity += delta;
+        totalPrice += delta * item.getPricePerUnit();
+        totalOriginalPrice += delta * item.getOriginalPrice();
+        if (DEBUG_TOTALS) {
+            verifyTotals();
+        }
+    }
+
+    private void resetTotals() {
+        totalQuantity = 0;
+        totalPrice = 0.0;
+        totalOriginalPrice = 0.0;
+    }
+
+    /**
+     * Recompute the totals from the items and fail if the running values disagree
+     */
+    void verifyTotals() {
+        int quantity = 0;
+        double price = 0.0, originalPrice = 0.0;
+        for (InventoryItem item : inventory.values()) {
+            quantity += item.getQuantity();
+            price += item.getTotalPrice();
+            originalPrice += item.getQuantity() * item.getOriginalPrice();
+        }
+        if (quantity != totalQuantity || Math.abs(price - totalPrice) > 1e-6 * Math.max(1.0, price)
+                || Math.abs(originalPrice - totalOriginalPrice) > 1e-6 * Math.max(1.0, originalPrice)) {
+            throw new IllegalStateException(String.format(
+                "Inventory totals out of sync: quantity %d/%d, price %.4f/%.4f, original %.4f/%.4f",
+                totalQuantity, quantity, totalPrice, price, totalOriginalPrice, originalPrice));
+        }
     }
 
     /**
@@ -224,6 +277,7 @@ public class ShopperInventory {
      */
     public void clear() {
         inventory.clear();
+        resetTotals();
     }
 
     /**
@@ -241,15 +295,11 @@ public class ShopperInventory {
     }
 
     /**
-     * Get product quantity by product name
+     * Get product quantity by base product ID
      */
-    public int getProductQuantity(String productName) {
-        for (InventoryItem item : inventory.values()) {
-            if (item.getName().equals(productName)) {
-                return item.getQuantity();
-            }
-        }
-        return 0;
+    public int getProductQuantityById(String productId) {
+        InventoryItem item = inventory.get(productId);
+        return item != null ? item.getQuantity() : 0;
     }
 
     /**
@@ -335,6 +385,7 @@ public class ShopperInventory {
      */
     public void checkout() {
         inventory.clear();
+        resetTotals();
         currentEquipment = EquipmentType.HANDS;
         isEquipmentEquipped = false;
     }
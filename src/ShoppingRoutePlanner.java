@@ -0,0 +1,340 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Orders a shopping list into a short walk through the store that ends at a cashier
+ * Nearest-neighbour picks a first order and the tile to stand on for each
+ * product: a forward search from the current stop ends at the first tile next
+ * to a product still on the list. One more search per stop then fills a k x k
+ * stop-to-stop distance matrix, and 2-opt improves the order over it. Walking
+ * is asymmetric (doors and the exit are one-way), so a reversal is scored with
+ * prefix sums of the forward and backward leg costs instead of just its two end legs.
+ * Only the cashier field spans the whole store; per product the planner keeps
+ * the tiles to stand on, so planAll can plan many shoppers' lists in parallel.
+ */
+public class ShoppingRoutePlanner {
+    private static final int FLOORS = 3;
+    private static final int UNREACHABLE = 1_000_000;  // Leg cost when one stop can't reach the next
+    private static final int MAX_TWO_OPT_PASSES = 50;
+
+    private final StoreSimulation sim;
+
+    // Per layout version; reset together in ensureLayout()
+    private int layoutVersion = -1;
+    private TileLocationIndex index;
+    private int[] cashierField;
+    private final Map<String, int[]> standTiles = new ConcurrentHashMap<>();  // Nodes next to each product
+
+    private final Queue<StoreNavigator.Search> searches = new ConcurrentLinkedQueue<>();  // Idle search scratch
+
+    /**
+     * Planned visiting order; stops and fixtures line up with productIds, plus one final cashier entry
+     */
+    public static final class Route {
+        private final List<String> productIds;
+        private final List<int[]> stops;     // Tile to stand on, [floor, row, col]
+        private final List<int[]> fixtures;  // Fixture faced at each stop, [floor, row, col]
+        private final List<String> unreachable;
+        private final int totalSteps;
+
+        private Route(List<String> productIds, List<int[]> stops, List<int[]> fixtures,
+                      List<String> unreachable, int totalSteps) {
+            this.productIds = productIds;
+            this.stops = stops;
+            this.fixtures = fixtures;
+            this.unreachable = unreachable;
+            this.totalSteps = totalSteps;
+        }
+
+        public List<String> getProductIds() {
+            return productIds;
+        }
+
+        public List<int[]> getStops() {
+            return stops;
+        }
+
+        public List<int[]> getFixtures() {
+            return fixtures;
+        }
+
+        /**
+         * Products that aren't on display anywhere the shopper can walk to
+         */
+        public List<String> getUnreachable() {
+            return unreachable;
+        }
+
+        public int getTotalSteps() {
+            return totalSteps;
+        }
+    }
+
+    public ShoppingRoutePlanner(StoreSimulation sim) {
+        this.sim = sim;
+    }
+
+    /**
+     * Drop the cashier field and stand tiles if the layout changed since the last plan
+     */
+    private synchronized void ensureLayout() {
+        if (layoutVersion == sim.getLayoutVersion()) return;
+        layoutVersion = sim.getLayoutVersion();
+        index = sim.getLocationIndex();
+        standTiles.clear();
+
+        List<int[]> cashiers = new ArrayList<>();
+        for (int floor = 0; floor < FLOORS; floor++) {
+            ChunkedGrid grid = sim.getGrid(floor);
+            for (int row = 0; row < grid.getRows(); row++) {
+                for (int col = 0; col < grid.getCols(); col++) {
+                    if (grid.get(row, col) == TileType.CASHIER) {
+                        cashiers.add(new int[]{floor, row, col});
+                    }
+                }
+            }
+        }
+        cashierField = sim.getNavigator().computeDistanceField(cashiers);
+    }
+
+    /**
+     * Tiles a shopper can stand on to take a product: walkable fixtures themselves,
+     * otherwise the walkable tiles next to them (same rule as a distance field's sources)
+     */
+    private int[] standTiles(String productId) {
+        return standTiles.computeIfAbsent(productId, id -> {
+            StoreNavigator navigator = sim.getNavigator();
+            TileLocationIndex.Locations locations = index.findProduct(id);
+            Set<Integer> nodes = new LinkedHashSet<>();
+            for (int i = 0; i < locations.size(); i++) {
+                int tile = locations.get(i);
+                int floor = TileLocationIndex.floorOf(tile);
+                int row = TileLocationIndex.rowOf(tile), col = TileLocationIndex.colOf(tile);
+                if (isStandable(floor, row, col)) {
+                    nodes.add(navigator.nodeOf(floor, row, col));
+                    continue;
+                }
+                for (int[] d : new int[][]{{-1, 0}, {1, 0}, {0, -1}, {0, 1}}) {
+                    if (isStandable(floor, row + d[0], col + d[1])) {
+                        nodes.add(navigator.nodeOf(floor, row + d[0], col + d[1]));
+                    }
+                }
+            }
+            int[] result = new int[nodes.size()];
+            int k = 0;
+            for (int node : nodes) {
+                result[k++] = node;
+            }
+            return result;
+        });
+    }
+
+    private boolean isStandable(int floor, int row, int col) {
+        if (!sim.inBounds(row, col)) return false;
+        TileType t = sim.getTile(floor, row, col);
+        return StoreSimulation.isWalkable(t) && t != TileType.BLACK_TILE;  // Same as StoreNavigator
+    }
+
+    private StoreNavigator.Search borrowSearch() {
+        StoreNavigator.Search search = searches.poll();
+        return search != null ? search : sim.getNavigator().newSearch();
+    }
+
+    /**
+     * Plan one shopping list starting from a tile
+     */
+    public Route plan(int floor, int row, int col, List<String> productIds) {
+        ensureLayout();
+        return planList(sim.getNavigator().nodeOf(floor, row, col), productIds);
+    }
+
+    /**
+     * Plan many shopping lists from the same start tile in parallel
+     */
+    public List<Route> planAll(int floor, int row, int col, List<List<String>> lists) {
+        ensureLayout();
+        int start = sim.getNavigator().nodeOf(floor, row, col);
+        return lists.parallelStream()
+            .map(list -> planList(start, list))
+            .collect(Collectors.toList());
+    }
+
+    private Route planList(int start, List<String> requested) {
+        StoreNavigator navigator = sim.getNavigator();
+        StoreNavigator.Search search = borrowSearch();
+        try {
+            return planList(navigator, search, start, requested);
+        } finally {
+            searches.add(search);
+        }
+    }
+
+    private Route planList(StoreNavigator navigator, StoreNavigator.Search search, int start, List<String> requested) {
+        // One stop per distinct product that is on display
+        List<String> pending = new ArrayList<>();
+        List<String> unreachable = new ArrayList<>();
+        int owned = 0;
+        for (String id : new LinkedHashSet<>(requested)) {
+            int[] tiles = standTiles(id);
+            if (tiles.length == 0) {
+                unreachable.add(id);
+            } else {
+                pending.add(id);
+                owned += tiles.length;
+            }
+        }
+
+        // Stand tile of each pending product as node << 32 | product, sorted, so searches can binary search it
+        long[] owners = new long[owned];
+        owned = 0;
+        for (int p = 0; p < pending.size(); p++) {
+            for (int node : standTiles(pending.get(p))) {
+                owners[owned++] = (long) node << 32 | p;
+            }
+        }
+        Arrays.sort(owners);
+        BitSet standNodes = new BitSet(navigator.getNodeCount());  // Cheap test before the binary search
+        for (long owner : owners) {
+            standNodes.set((int) (owner >>> 32));
+        }
+
+        // Nearest neighbour: search outwards from the current stop to the first tile next to a pending product
+        int n = 0;
+        boolean[] taken = new boolean[pending.size()];
+        int[] found = new int[1];
+        String[] order = new String[pending.size() + 1];  // order[k] = product bought at stop k, order[0] unused
+        int[] stops = new int[pending.size() + 1];       // stops[0] = start
+        stops[0] = start;
+        while (n < pending.size()) {
+            found[0] = -1;
+            int stop = navigator.search(search, stops[n], node -> {
+                if (!standNodes.get(node)) return false;
+                int i = Arrays.binarySearch(owners, ((long) node << 32) - 1);  // Never found: first entry of node
+                for (i = -i - 1; i < owners.length && (int) (owners[i] >>> 32) == node; i++) {
+                    if (!taken[(int) owners[i]]) {
+                        found[0] = (int) owners[i];
+                        return true;
+                    }
+                }
+                return false;
+            });
+            if (stop < 0) break;  // Rest is unreachable from here (e.g. secret hallway); keep what was planned
+            taken[found[0]] = true;
+            n++;
+            order[n] = pending.get(found[0]);
+            stops[n] = stop;
+        }
+        for (int p = 0; p < pending.size(); p++) {
+            if (!taken[p]) unreachable.add(pending.get(p));
+        }
+
+        // Stop-to-stop matrix: one search per stop, ended once every other stop is reached
+        int[][] legs = new int[n + 1][n + 1];
+        int[] cashier = new int[n + 1];
+        BitSet stopNodes = new BitSet(navigator.getNodeCount());
+        for (int k = 0; k <= n; k++) {
+            stopNodes.set(stops[k]);
+        }
+        for (int i = 0; i <= n; i++) {
+            int[] remaining = {stopNodes.cardinality()};
+            navigator.search(search, stops[i], node -> stopNodes.get(node) && --remaining[0] == 0);
+            for (int j = 0; j <= n; j++) {
+                int d = search.distanceTo(stops[j]);
+                legs[i][j] = d < 0 ? UNREACHABLE : d;
+            }
+            cashier[i] = cashierField[stops[i]] < 0 ? UNREACHABLE : cashierField[stops[i]];
+        }
+
+        int[] tour = new int[n + 1];  // Stop indices in visiting order, tour[0] = 0 (start)
+        for (int k = 0; k <= n; k++) {
+            tour[k] = k;
+        }
+        twoOpt(tour, n, legs, cashier);
+
+        List<String> ids = new ArrayList<>(n);
+        List<int[]> route = new ArrayList<>(n + 1);
+        List<int[]> fixtures = new ArrayList<>(n + 1);
+        int steps = 0;
+        for (int k = 1; k <= n; k++) {
+            steps += legs[tour[k - 1]][tour[k]];
+            ids.add(order[tour[k]]);
+            route.add(navigator.tileOf(stops[tour[k]]));
+            fixtures.add(facedFixture(stops[tour[k]], index.findProduct(order[tour[k]]).asList()));
+        }
+
+        // Finish at the nearest cashier
+        int last = stops[tour[n]];
+        int checkout = navigator.descend(cashierField, last);
+        if (checkout >= 0) {
+            steps += cashierField[last];
+            route.add(navigator.tileOf(checkout));
+            fixtures.add(facedFixture(checkout, null));
+        }
+        return new Route(ids, route, fixtures, unreachable, steps);
+    }
+
+    /**
+     * Reverse tour segments while that shortens the walk; start stays first, the cashier leg stays last
+     * @param legs legs[a][b] = steps from stop a to stop b
+     * @param cashier cashier[a] = steps from stop a to the nearest cashier
+     */
+    private static void twoOpt(int[] tour, int n, int[][] legs, int[] cashier) {
+        if (n < 2) return;
+        long[] forward = new long[n + 1];   // forward[k] = cost of tour[0..k] walked in order
+        long[] backward = new long[n + 1];  // backward[k] = cost of the same legs walked in reverse
+        for (int pass = 0; pass < MAX_TWO_OPT_PASSES; pass++) {
+            for (int k = 1; k <= n; k++) {
+                forward[k] = forward[k - 1] + legs[tour[k - 1]][tour[k]];
+                backward[k] = backward[k - 1] + legs[tour[k]][tour[k - 1]];
+            }
+            boolean improved = false;
+            search:
+            for (int i = 1; i < n; i++) {
+                for (int j = i + 1; j <= n; j++) {
+                    long before = legs[tour[i - 1]][tour[i]] + (forward[j] - forward[i])
+                        + (j < n ? legs[tour[j]][tour[j + 1]] : cashier[tour[j]]);
+                    long after = legs[tour[i - 1]][tour[j]] + (backward[j] - backward[i])
+                        + (j < n ? legs[tour[i]][tour[j + 1]] : cashier[tour[i]]);
+                    if (after < before) {
+                        reverse(tour, i, j);
+                        improved = true;
+                        break search;  // Prefix sums are stale now
+                    }
+                }
+            }
+            if (!improved) return;
+        }
+    }
+
+    private static void reverse(int[] a, int i, int j) {
+        for (; i < j; i++, j--) {
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+    }
+
+    /**
+     * Target tile next to a stop (a cashier if targets is null), or the stop itself
+     */
+    private int[] facedFixture(int stop, List<int[]> targets) {
+        int[] tile = sim.getNavigator().tileOf(stop);
+        int[][] neighbours = {
+            {tile[0], tile[1] - 1, tile[2]}, {tile[0], tile[1] + 1, tile[2]},
+            {tile[0], tile[1], tile[2] - 1}, {tile[0], tile[1], tile[2] + 1}
+        };
+        for (int[] nb : neighbours) {
+            if (!sim.inBounds(nb[1], nb[2])) continue;
+            if (targets == null) {
+                if (sim.getTile(nb[0], nb[1], nb[2]) == TileType.CASHIER) return nb;
+            } else {
+                for (int[] t : targets) {
+                    if (Arrays.equals(t, nb)) return nb;
+                }
+            }
+        }
+        return tile;
+    }
+}
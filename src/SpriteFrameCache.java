@@ -0,0 +1,79 @@
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Frames of a sprite sheet sliced out and scaled to one render size, plus
+ * horizontally mirrored copies, so drawing a frame is a single unscaled blit.
+ * Each frame is built the first time it is requested and kept until the
+ * render size changes.
+ */
+public class SpriteFrameCache {
+    private final BufferedImage sheet;
+    private final int frameW;
+    private final int frameH;
+    private final int rows;
+    private final int cols;
+
+    private BufferedImage[][] frames;
+    private BufferedImage[][] mirroredFrames;
+    private int width = -1;
+    private int height = -1;
+
+    /**
+     * @param sheet Full sprite sheet
+     * @param frameW Width of one frame in the sheet
+     * @param frameH Height of one frame in the sheet
+     * @param rows Number of frame rows in the sheet
+     * @param cols Number of frames per row
+     */
+    public SpriteFrameCache(BufferedImage sheet, int frameW, int frameH, int rows, int cols) {
+        this.sheet = sheet;
+        this.frameW = Math.max(1, frameW);
+        this.frameH = Math.max(1, frameH);
+        this.rows = Math.max(1, rows);
+        this.cols = Math.max(1, cols);
+    }
+
+    /**
+     * Get a frame scaled to width x height
+     * @param row Frame row in the sheet
+     * @param col Frame column in the sheet
+     * @param mirrored true for the horizontally flipped variant
+     */
+    public BufferedImage getFrame(int row, int col, boolean mirrored, int width, int height) {
+        if (width != this.width || height != this.height || frames == null) {
+            // Render size changed (tile size or scale), drop every cached frame
+            this.width = width;
+            this.height = height;
+            frames = new BufferedImage[rows][cols];
+            mirroredFrames = new BufferedImage[rows][cols];
+        }
+
+        int r = Math.max(0, Math.min(rows - 1, row));
+        int c = Math.max(0, Math.min(cols - 1, col));
+        BufferedImage[][] target = mirrored ? mirroredFrames : frames;
+        if (target[r][c] == null) {
+            target[r][c] = renderFrame(r, c, mirrored);
+        }
+        return target[r][c];
+    }
+
+    private BufferedImage renderFrame(int row, int col, boolean mirrored) {
+        int sx1 = col * frameW;
+        int sy1 = row * frameH;
+        int sx2 = Math.min(sheet.getWidth(), sx1 + frameW);
+        int sy2 = Math.min(sheet.getHeight(), sy1 + frameH);
+
+        BufferedImage frame = TileImageLoader.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        Graphics2D g = frame.createGraphics();
+        // Default (nearest neighbour) interpolation, same as the old per-frame scaled draw
+        if (mirrored) {
+            g.drawImage(sheet, width, 0, 0, height, sx1, sy1, sx2, sy2, null);
+        } else {
+            g.drawImage(sheet, 0, 0, width, height, sx1, sy1, sx2, sy2, null);
+        }
+        g.dispose();
+        return frame;
+    }
+}
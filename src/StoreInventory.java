@@ -1,181 +1,341 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 
 /**
  * Manages the supermarket's inventory of products
  * Tracks available quantities and generates unique serial numbers for each product instance
+ * Shared between shoppers (see CrowdSimulation); stock lives in a ProductCatalog and is
+ * updated by compare-and-set, without a global lock. Callers on a hot path can resolve
+ * an ordinal once with ordinalOf() and use the int-keyed methods.
+ * The built-in catalog below is used unless a CSV catalog is given (see create()).
  */
 public class StoreInventory {
     private static final int INITIAL_QUANTITY = 999;
-    
-    // Map of base product ID -> current quantity available
-    private Map<String, Integer> productQuantities = new HashMap<>();
-    
-    // Map of base product ID -> next serial number to assign
-    private Map<String, Integer> serialNumberCounters = new HashMap<>();
-    
-    // Map of base product ID -> product name
-    private Map<String, String> productNames = new HashMap<>();
-    
-    // Map of base product ID -> product price
-    private Map<String, Double> productPrices = new HashMap<>();
+    private static final String CATALOG_PROPERTY = "store.catalog";  // Path of a CSV catalog
+
+    // Every product the store sells: {productId, emoji, name, price}. Fixtures
+    // (Maps/store.map, see StoreLayout) and the kiosk refer to these by ID or category,
+    // resolved against getDefaultCatalog(), which is this table unless a CSV is given.
+    private static final String[][] PRODUCT_TABLE = {
+        // ===== Ground floor =====
+        // Chilled - Chicken
+        {"CHK00001", "🐔", "Chicken Thigh Fillet", "280.00"},
+        {"CHK00002", "🐔", "Chicken Breast Fillet", "320.00"},
+        {"CHK00003", "🐔", "Ground Chicken", "250.00"},
+        // Chilled - Beef
+        {"BEF00001", "🐄", "Beef Rib", "450.00"},
+        {"BEF00002", "🐄", "Beef Shank", "380.00"},
+        {"BEF00003", "🐄", "Ground Beef", "420.00"},
+        // Chilled - Seafood
+        {"SEA00001", "🐟", "Tilapia", "320.00"},
+        {"SEA00002", "🐟", "Sugpo", "580.00"},
+        {"SEA00003", "🐟", "Squid", "420.00"},
+        // Shelf - Alcohol
+        {"ALC00001", "🍺", "Beer", "50.00"},
+        {"ALC00002", "🍷", "Wine", "450.00"},
+        {"ALC00003", "🥃", "Whiskey", "850.00"},
+        {"ALC00004", "🍸", "Vodka", "750.00"},
+        {"ALC00005", "🍻", "Brandy", "650.00"},
+        {"ALC00006", "🍾", "Champagne", "1200.00"},
+        {"ALC00007", "🥂", "Rum", "580.00"},
+        {"ALC00008", "🍹", "Gin", "520.00"},
+        // Shelf - Condiments
+        {"CON00001", "🧂", "Salt", "25.00"},
+        {"CON00002", "🌶️", "Pepper", "35.00"},
+        {"CON00003", "🍶", "Soy Sauce", "65.00"},
+        {"CON00004", "🍯", "Vinegar", "48.00"},
+        {"CON00005", "🧈", "Butter", "185.00"},
+        {"CON00006", "🛢️", "Cooking Oil", "95.00"},
+        {"CON00007", "🍯", "Honey", "125.00"},
+        {"CON00008", "🌽", "Corn Syrup", "75.00"},
+        // Shelf - Soft Drinks
+        {"SFT00001", "🥤", "Sparkling Water", "55.00"},
+        {"SFT00002", "🥤", "Coke", "45.00"},
+        {"SFT00003", "🥤", "Sprite", "45.00"},
+        {"SFT00004", "🥤", "Mountain Dew", "50.00"},
+        {"SFT00005", "🥤", "Royal", "40.00"},
+        {"SFT00006", "🥤", "7-Up", "45.00"},
+        {"SFT00007", "🥤", "Gatorade", "65.00"},
+        {"SFT00008", "🥤", "Lemonade", "35.00"},
+        // Shelf - Juice
+        {"JUC00001", "🧃", "Orange Juice", "65.00"},
+        {"JUC00002", "🧃", "Pineapple Juice", "55.00"},
+        {"JUC00003", "🧃", "Mango Juice", "60.00"},
+        {"JUC00004", "🧃", "Apple Juice", "58.00"},
+        {"JUC00005", "🧃", "Grape Juice", "62.00"},
+        {"JUC00006", "🧃", "Tomato Juice", "48.00"},
+        {"JUC00007", "🧃", "Carrot Juice", "52.00"},
+        {"JUC00008", "🧃", "Mixed Fruit Juice", "75.00"},
+        // Shelf - Cereal
+        {"CER00001", "🥣", "Oatmeal", "95.00"},
+        {"CER00002", "🥣", "Corn Flakes", "125.00"},
+        {"CER00003", "🥣", "Honey Bunches", "115.00"},
+        {"CER00004", "🥣", "Wheat Bran", "85.00"},
+        {"CER00005", "🥣", "Rice Krispies", "105.00"},
+        {"CER00006", "🥣", "Frosted Flakes", "110.00"},
+        {"CER00007", "🥣", "Granola", "145.00"},
+        {"CER00008", "🥣", "Bran Flakes", "95.00"},
+        // Shelf - Noodles
+        {"NDL00001", "🍜", "Instant Noodles", "8.50"},
+        {"NDL00002", "🍜", "Ramen", "25.00"},
+        {"NDL00003", "🍜", "Lomi", "12.00"},
+        {"NDL00004", "🍜", "Pancit Canton", "15.00"},
+        {"NDL00005", "🍝", "Spaghetti", "35.00"},
+        {"NDL00006", "🍝", "Pasta", "42.00"},
+        {"NDL00007", "🍜", "Udon", "48.00"},
+        {"NDL00008", "🍜", "Glass Noodles", "38.00"},
+        // Shelf - Canned
+        {"CAN00001", "🥫", "Canned Tuna", "42.00"},
+        {"CAN00002", "🥫", "Canned Sardines", "28.00"},
+        {"CAN00003", "🥫", "Canned Beans", "35.00"},
+        {"CAN00004", "🥫", "Canned Corn", "32.00"},
+        {"CAN00005", "🥫", "Canned Peas", "30.00"},
+        {"CAN00006", "🥫", "Canned Mushroom", "45.00"},
+        {"CAN00007", "🥫", "Canned Coconut Milk", "55.00"},
+        {"CAN00008", "🥫", "Canned Tomato", "38.00"},
+        // Shelf - Snacks
+        {"SNK00001", "🍪", "Candies", "45.00"},
+        {"SNK00002", "🍪", "Cookies", "65.00"},
+        {"SNK00003", "🍪", "Crackers", "55.00"},
+        {"SNK00004", "🍪", "Chips", "48.00"},
+        {"SNK00005", "🥜", "Peanuts", "75.00"},
+        {"SNK00006", "🍫", "Chocolate", "85.00"},
+        {"SNK00007", "🍪", "Wafers", "62.00"},
+        {"SNK00008", "🥨", "Pretzels", "58.00"},
+        // Table - Fruits
+        {"FRU00001", "🍎", "Apples", "65.00"},
+        {"FRU00002", "🍌", "Bananas", "45.00"},
+        {"FRU00003", "🍊", "Oranges", "55.00"},
+        {"FRU00004", "🍇", "Grapes", "125.00"},
+        // ===== Upper floor =====
+        // Fridge - Milk
+        {"MLK00001", "🥛", "Fresh Milk", "68.00"},
+        {"MLK00002", "🥛", "Soy Milk", "65.00"},
+        {"MLK00003", "🥛", "Almond Milk", "95.00"},
+        // Fridge - Frozen
+        {"FRZ00001", "❄️", "Hotdog", "85.00"},
+        {"FRZ00002", "❄️", "Chicken Nuggets", "125.00"},
+        {"FRZ00003", "❄️", "Tocino", "155.00"},
+        // Fridge - Cheese
+        {"CHS00001", "🧀", "Sliced Cheese", "145.00"},
+        {"CHS00002", "🧀", "Keso de Bola", "175.00"},
+        {"CHS00003", "🧀", "Mozzarella", "185.00"},
+        // Shelf - Pet Food
+        {"PET00001", "😺", "Cat Food", "125.00"},
+        {"PET00002", "🐕", "Dog Food", "145.00"},
+        {"PET00003", "🐠", "Fish Food", "65.00"},
+        {"PET00004", "🦜", "Bird Food", "85.00"},
+        {"PET00005", "😺", "Cat Treats", "95.00"},
+        {"PET00006", "🐕", "Dog Treats", "105.00"},
+        {"PET00007", "🐹", "Hamster Food", "55.00"},
+        {"PET00008", "🦎", "Reptile Food", "125.00"},
+        // Shelf - Stationery
+        {"STN00001", "📝", "Paper", "65.00"},
+        {"STN00002", "✏️", "Pencil", "25.00"},
+        {"STN00003", "🖊️", "Ballpoint Pen", "8.00"},
+        {"STN00004", "🖍️", "Marker", "15.00"},
+        {"STN00005", "📌", "Pushpins", "12.00"},
+        {"STN00006", "📎", "Paper Clip", "10.00"},
+        {"STN00007", "✂️", "Scissors", "45.00"},
+        {"STN00008", "📏", "Ruler", "20.00"},
+        // Shelf - Clothes
+        {"CLO00001", "👚", "Shirts", "299.00"},
+        {"CLO00002", "👖", "Jeans", "599.00"},
+        {"CLO00003", "👗", "Dresses", "449.00"},
+        {"CLO00004", "👔", "Polo", "349.00"},
+        {"CLO00005", "👕", "T-Shirts", "199.00"},
+        {"CLO00006", "🧥", "Jackets", "799.00"},
+        {"CLO00007", "👗", "Skirts", "399.00"},
+        {"CLO00008", "👚", "Blouse", "349.00"},
+        // Shelf - Dental Care
+        {"DEN00001", "🦷", "Toothpaste", "68.00"},
+        {"DEN00002", "🪥", "Toothbrush", "45.00"},
+        {"DEN00003", "🧵", "Dental Floss", "55.00"},
+        {"DEN00004", "🌿", "Mouthwash", "85.00"},
+        {"DEN00005", "😁", "Whitening Strip", "125.00"},
+        {"DEN00006", "🦷", "Sensitive Toothpaste", "95.00"},
+        {"DEN00007", "🪥", "Electric Toothbrush", "599.00"},
+        {"DEN00008", "🌿", "Natural Mouthwash", "95.00"},
+        // Shelf - Cleaning Agents
+        {"CLE00001", "🫧", "Detergent", "85.00"},
+        {"CLE00002", "🧼", "Bleach", "75.00"},
+        {"CLE00003", "🧽", "Sponge", "25.00"},
+        {"CLE00004", "🧹", "Brush", "35.00"},
+        {"CLE00005", "🪣", "Bucket", "95.00"},
+        {"CLE00006", "🧻", "Tissue Paper", "45.00"},
+        {"CLE00007", "🧴", "Liquid Soap", "65.00"},
+        {"CLE00008", "🧹", "Broom", "125.00"},
+        // Shelf - Hair Care
+        {"HAR00001", "🧴", "Shampoo", "120.00"},
+        {"HAR00002", "🧴", "Conditioner", "130.00"},
+        {"HAR00003", "🧴", "Hair Oil", "95.00"},
+        {"HAR00004", "💇", "Hair Cream", "110.00"},
+        {"HAR00005", "🧴", "Gel", "85.00"},
+        {"HAR00006", "🧴", "Hair Spray", "75.00"},
+        {"HAR00007", "🧴", "Hair Mask", "140.00"},
+        {"HAR00008", "🧴", "Hair Serum", "165.00"},
+        // Shelf - Home Essentials
+        {"HOM00001", "🏠", "Broom", "125.00"},
+        {"HOM00002", "🏠", "Dustpan", "45.00"},
+        {"HOM00003", "🏠", "Mop", "185.00"},
+        {"HOM00004", "🏠", "Bucket", "95.00"},
+        {"HOM00005", "🏠", "Cloth", "15.00"},
+        {"HOM00006", "🏠", "Towel", "125.00"},
+        {"HOM00007", "🏠", "Mat", "95.00"},
+        {"HOM00008", "🏠", "Curtain", "299.00"},
+        // Shelf - Body Care
+        {"BOD00001", "🧼", "Soap", "45.00"},
+        {"BOD00002", "🧴", "Body Wash", "95.00"},
+        {"BOD00003", "🧴", "Lotion", "105.00"},
+        {"BOD00004", "🧴", "Deodorant", "75.00"},
+        {"BOD00005", "🧴", "Body Oil", "125.00"},
+        {"BOD00006", "🧴", "Shaving Cream", "85.00"},
+        {"BOD00007", "🧴", "Face Wash", "65.00"},
+        {"BOD00008", "🧴", "Face Moisturizer", "145.00"},
+        // Table - Vegetables
+        {"VEG00001", "🥬", "Cabbage", "28.00"},
+        {"VEG00002", "🥕", "Carrot", "35.00"},
+        {"VEG00003", "🥒", "Cucumber", "25.00"},
+        {"VEG00004", "🧅", "Onion", "20.00"},
+        // Table - Bread
+        {"BRD00001", "🥖", "Baguette", "35.00"},
+        {"BRD00002", "🍞", "Sandwich Bread", "45.00"},
+        {"BRD00003", "🥐", "Croissant", "55.00"},
+        {"BRD00004", "🧈", "Toast", "25.00"},
+        // Table - Eggs
+        {"EGG00001", "🥚", "Brown Eggs", "180.00"},
+        {"EGG00002", "🥚", "White Eggs", "175.00"},
+        {"EGG00003", "🥚", "Duck Eggs", "220.00"},
+        {"EGG00004", "🥚", "Quail Eggs", "90.00"}
+    };
+
+    // Built once from PRODUCT_TABLE and shared by every StoreInventory; index = ordinal
+    private static final List<Product> PRODUCTS = buildProducts();
+    private static ProductCatalog defaultCatalog = null;  // Loaded once, see getDefaultCatalog()
+
+    // Stock, serial numbers and int-keyed access, indexed by product ordinal
+    private ProductCatalog catalog;
+    private ProductSearchIndex searchIndex = null;  // Built on first use
 
     public StoreInventory() {
-        initializeInventory();
-    }
-
-    /**
-     * Initialize the store inventory with all products
-     */
-    private void initializeInventory() {
-        // All product codes from TileInventory
-        String[][] productCategories = {
-            // Chilled
-            {"CHK00001", "Chicken Thigh Fillet", "280.00"},
-            {"CHK00002", "Chicken Breast Fillet", "320.00"},
-            {"CHK00003", "Ground Chicken", "250.00"},
-            {"BEF00001", "Beef Rib", "450.00"},
-            {"BEF00002", "Beef Shank", "380.00"},
-            {"BEF00003", "Ground Beef", "420.00"},
-            {"SEA00001", "Tilapia", "320.00"},
-            {"SEA00002", "Sugpo", "580.00"},
-            {"SEA00003", "Squid", "420.00"},
-            // Shelf - Alcohol
-            {"ALC00001", "Beer", "50.00"},
-            {"ALC00002", "Wine", "450.00"},
-            {"ALC00003", "Whiskey", "850.00"},
-            {"ALC00004", "Vodka", "750.00"},
-            {"ALC00005", "Brandy", "650.00"},
-            {"ALC00006", "Champagne", "1200.00"},
-            {"ALC00007", "Rum", "580.00"},
-            {"ALC00008", "Gin", "520.00"},
-            // Shelf - Condiments
-            {"CON00001", "Salt", "25.00"},
-            {"CON00002", "Pepper", "35.00"},
-            {"CON00003", "Soy Sauce", "65.00"},
-            {"CON00004", "Vinegar", "48.00"},
-            {"CON00005", "Butter", "185.00"},
-            {"CON00006", "Cooking Oil", "95.00"},
-            {"CON00007", "Honey", "125.00"},
-            {"CON00008", "Corn Syrup", "75.00"},
-            // Shelf - Soft Drinks
-            {"SFT00001", "Sparkling Water", "55.00"},
-            {"SFT00002", "Coke", "45.00"},
-            {"SFT00003", "Sprite", "45.00"},
-            {"SFT00004", "Mountain Dew", "50.00"},
-            {"SFT00005", "Royal", "40.00"},
-            {"SFT00006", "7-Up", "45.00"},
-            {"SFT00007", "Gatorade", "65.00"},
-            {"SFT00008", "Lemonade", "35.00"},
-            // Shelf - Juice
-            {"JUC00001", "Orange Juice", "65.00"},
-            {"JUC00002", "Pineapple Juice", "55.00"},
-            {"JUC00003", "Mango Juice", "60.00"},
-            {"JUC00004", "Apple Juice", "58.00"},
-            {"JUC00005", "Grape Juice", "62.00"},
-            {"JUC00006", "Tomato Juice", "48.00"},
-            {"JUC00007", "Carrot Juice", "52.00"},
-            {"JUC00008", "Mixed Fruit Juice", "75.00"},
-            // Shelf - Cereal
-            {"CER00001", "Oatmeal", "95.00"},
-            {"CER00002", "Corn Flakes", "125.00"},
-            {"CER00003", "Honey Bunches", "115.00"},
-            {"CER00004", "Wheat Bran", "85.00"},
-            {"CER00005", "Rice Krispies", "105.00"},
-            {"CER00006", "Frosted Flakes", "110.00"},
-            {"CER00007", "Granola", "145.00"},
-            {"CER00008", "Bran Flakes", "95.00"},
-            // Shelf - Noodles
-            {"NDL00001", "Instant Noodles", "8.50"},
-            {"NDL00002", "Ramen", "25.00"},
-            {"NDL00003", "Lomi", "12.00"},
-            {"NDL00004", "Pancit Canton", "15.00"},
-            {"NDL00005", "Spaghetti", "35.00"},
-            {"NDL00006", "Pasta", "42.00"},
-            {"NDL00007", "Udon", "48.00"},
-            {"NDL00008", "Glass Noodles", "38.00"},
-            // Shelf - Canned
-            {"CAN00001", "Canned Tuna", "42.00"},
-            {"CAN00002", "Canned Sardines", "28.00"},
-            {"CAN00003", "Canned Beans", "35.00"},
-            {"CAN00004", "Canned Corn", "32.00"},
-            {"CAN00005", "Canned Peas", "30.00"},
-            {"CAN00006", "Canned Mushroom", "45.00"},
-            {"CAN00007", "Canned Coconut Milk", "55.00"},
-            {"CAN00008", "Canned Tomato", "38.00"},
-            // Shelf - Snacks
-            {"SNK00001", "Candies", "45.00"},
-            {"SNK00002", "Cookies", "65.00"},
-            {"SNK00003", "Crackers", "55.00"},
-            {"SNK00004", "Chips", "48.00"},
-            {"SNK00005", "Peanuts", "75.00"},
-            {"SNK00006", "Chocolate", "85.00"},
-            {"SNK00007", "Wafers", "62.00"},
-            {"SNK00008", "Pretzels", "58.00"},
-            // Table - Fruits
-            {"FRU00001", "Apples", "65.00"},
-            {"FRU00002", "Bananas", "45.00"},
-            {"FRU00003", "Oranges", "55.00"},
-            {"FRU00004", "Grapes", "125.00"},
-            // Fridge - Milk
-            {"MLK00001", "Whole Milk", "85.00"},
-            {"MLK00002", "Skim Milk", "80.00"},
-            {"MLK00003", "Almond Milk", "95.00"},
-            {"MLK00004", "Oat Milk", "100.00"},
-            // Fridge - Frozen
-            {"FRZ00001", "Frozen Pizza", "240.00"},
-            {"FRZ00002", "Frozen Veggies", "120.00"},
-            {"FRZ00003", "Ice Cream", "180.00"},
-            {"FRZ00004", "Frozen Berries", "150.00"},
-            // Fridge - Cheese
-            {"CHE00001", "Cheddar Cheese", "220.00"},
-            {"CHE00002", "Mozzarella Cheese", "200.00"},
-            {"CHE00003", "Blue Cheese", "280.00"},
-            // Shelf - Pet Food
-            {"PET00001", "Dog Food", "320.00"},
-            {"PET00002", "Cat Food", "280.00"},
-            {"PET00003", "Bird Food", "150.00"},
-            {"PET00004", "Fish Food", "95.00"},
-            // Shelf - Stationery
-            {"STA00001", "Notebook", "85.00"},
-            {"STA00002", "Pen Pack", "45.00"},
-            {"STA00003", "Pencil Pack", "35.00"},
-            {"STA00004", "Eraser", "15.00"},
-            // Shelf - Clothes
-            {"CLO00001", "T-Shirt", "350.00"},
-            {"CLO00002", "Jeans", "850.00"},
-            {"CLO00003", "Socks", "120.00"},
-            {"CLO00004", "Cap", "250.00"},
-            // Shelf - Dental Care
-            {"DEN00001", "Toothpaste", "125.00"},
-            {"DEN00002", "Toothbrush", "85.00"},
-            {"DEN00003", "Mouthwash", "180.00"},
-            {"DEN00004", "Dental Floss", "95.00"}
-        };
-        
-        for (String[] product : productCategories) {
-            String productId = product[0];
-            String productName = product[1];
-            double price = Double.parseDouble(product[2]);
-            
-            productQuantities.put(productId, INITIAL_QUANTITY);
-            serialNumberCounters.put(productId, 1);
-            productNames.put(productId, productName);
-            productPrices.put(productId, price);
+        this(new ProductCatalog(PRODUCTS, INITIAL_QUANTITY));
+    }
+
+    public StoreInventory(ProductCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * Store stocked from a CSV catalog, compiled to a memory-mapped binary file (see CatalogFile)
+     */
+    public static StoreInventory open(Path csv) throws IOException {
+        return new StoreInventory(new ProductCatalog(CatalogFile.load(csv)));
+    }
+
+    /**
+     * Catalog named by -Dstore.catalog, or the built-in catalog if the property isn't set
+     * or the file can't be loaded. Loaded once per run; store layouts resolve their
+     * fixtures against it and create() stocks every new store from it.
+     */
+    public static synchronized ProductCatalog getDefaultCatalog() {
+        if (defaultCatalog == null) {
+            String path = System.getProperty(CATALOG_PROPERTY);
+            if (path != null && !path.isEmpty()) {
+                try {
+                    defaultCatalog = new ProductCatalog(CatalogFile.load(Paths.get(path)));
+                } catch (IOException e) {
+                    System.err.println("Could not load catalog " + path + ": " + e);
+                }
+            }
+            if (defaultCatalog == null) {
+                defaultCatalog = new ProductCatalog(PRODUCTS, INITIAL_QUANTITY);
+            }
+        }
+        return defaultCatalog;
+    }
+
+    /**
+     * Store with fresh stock of the default catalog (see getDefaultCatalog())
+     */
+    public static StoreInventory create() {
+        return new StoreInventory(getDefaultCatalog().restock());
+    }
+
+    private static List<Product> buildProducts() {
+        List<Product> products = new ArrayList<>(PRODUCT_TABLE.length);
+        for (String[] row : PRODUCT_TABLE) {
+            ProductCategory category = ProductCategory.of(row[0]);
+            if (category == null) {
+                throw new IllegalStateException("StoreInventory: unknown category for " + row[0]);
+            }
+            products.add(new Product(products.size(), row[0], row[2], category, Double.parseDouble(row[3]), row[1]));
         }
+        return Collections.unmodifiableList(products);
+    }
+
+    /**
+     * Every product of the built-in catalog, in ordinal order
+     */
+    public static List<Product> getAllProducts() {
+        return PRODUCTS;
+    }
+
+    /**
+     * Column store behind this inventory, for int-keyed access
+     */
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Typeahead index over product names and IDs (names never change, so it is built once)
+     */
+    public synchronized ProductSearchIndex getSearchIndex() {
+        if (searchIndex == null) {
+            searchIndex = new ProductSearchIndex(catalog);
+        }
+        return searchIndex;
+    }
+
+    /**
+     * Ordinal of a product ID in the catalog, or -1 if the store doesn't sell it
+     */
+    public int ordinalOf(String productId) {
+        return catalog.ordinalOf(productId);
     }
 
     /**
      * Check if a product is available in the store
      */
     public boolean isAvailable(String productId) {
-        return productQuantities.getOrDefault(productId, 0) > 0;
+        return getAvailableQuantity(productId) > 0;
     }
 
     /**
      * Get available quantity for a product
      */
     public int getAvailableQuantity(String productId) {
-        return productQuantities.getOrDefault(productId, 0);
+        int ordinal = catalog.ordinalOf(productId);
+        return ordinal < 0 ? 0 : catalog.getAvailableQuantity(ordinal);
+    }
+
+    public int getAvailableQuantity(int ordinal) {
+        return catalog.getAvailableQuantity(ordinal);
+    }
+
+    /**
+     * Atomically take quantity units and allocate their serial number range
+     * @return First serial number of the range, or -1 if unknown or not enough available
+     */
+    public int reserve(String productId, int quantity) {
+        int ordinal = catalog.ordinalOf(productId);
+        return ordinal < 0 ? -1 : catalog.reserve(ordinal, quantity);
+    }
+
+    public int reserve(int ordinal, int quantity) {
+        return catalog.reserve(ordinal, quantity);
     }
 
     /**
@@ -185,28 +345,22 @@ public class StoreInventory {
      * @return List of unique serial numbers, or empty list if not enough available
      */
     public List<String> takeProducts(String productId, int quantity) {
-        if (!productQuantities.containsKey(productId)) {
+        int ordinal = catalog.ordinalOf(productId);
+        return ordinal < 0 ? new ArrayList<>() : takeProducts(ordinal, quantity);
+    }
+
+    public List<String> takeProducts(int ordinal, int quantity) {
+        int firstSerial = catalog.reserve(ordinal, quantity);
+        if (firstSerial < 0) {
             return new ArrayList<>();
         }
         
-        int available = productQuantities.get(productId);
-        if (available < quantity) {
-            return new ArrayList<>();  // Not enough available
-        }
-        
         // Generate unique serial numbers
-        List<String> serialNumbers = new ArrayList<>();
-        int currentSerial = serialNumberCounters.get(productId);
-        
+        List<String> serialNumbers = new ArrayList<>(quantity);
+        String prefix = catalog.getSerialPrefix(ordinal);
         for (int i = 0; i < quantity; i++) {
-            String serialNumber = productId.substring(0, 3) + String.format("%05d", currentSerial + i);
-            serialNumbers.add(serialNumber);
+            serialNumbers.add(prefix + String.format("%05d", firstSerial + i));
         }
-        
-        // Update counters and quantities
-        serialNumberCounters.put(productId, currentSerial + quantity);
-        productQuantities.put(productId, available - quantity);
-        
         return serialNumbers;
     }
 
@@ -214,25 +368,49 @@ public class StoreInventory {
      * Return products to store
      * @param productId Base product ID
      * @param quantity Number of items to return
+     * @return false if the product is unknown or quantity isn't positive
      */
-    public void returnProducts(String productId, int quantity) {
-        if (productQuantities.containsKey(productId)) {
-            int current = productQuantities.get(productId);
-            productQuantities.put(productId, current + quantity);
+    public boolean returnProducts(String productId, int quantity) {
+        int ordinal = catalog.ordinalOf(productId);
+        return ordinal >= 0 && catalog.returnProducts(ordinal, quantity);
+    }
+
+    public boolean returnProducts(int ordinal, int quantity) {
+        return catalog.returnProducts(ordinal, quantity);
+    }
+
+    /**
+     * Get all base product IDs stocked by the store
+     */
+    public List<String> getProductIds() {
+        List<String> ids = new ArrayList<>(catalog.size());
+        for (int i = 0; i < catalog.size(); i++) {
+            ids.add(catalog.getId(i));
         }
+        return ids;
     }
 
     /**
      * Get product name from base product ID
      */
     public String getProductName(String productId) {
-        return productNames.getOrDefault(productId, "Unknown Product");
+        int ordinal = catalog.ordinalOf(productId);
+        return ordinal < 0 ? "Unknown Product" : catalog.getName(ordinal);
     }
 
     /**
      * Get product price from base product ID
      */
     public double getProductPrice(String productId) {
-        return productPrices.getOrDefault(productId, 0.0);
+        int ordinal = catalog.ordinalOf(productId);
+        return ordinal < 0 ? 0.0 : catalog.getPrice(ordinal);
+    }
+
+    /**
+     * Product record from this store's catalog, or null if the store doesn't sell it
+     */
+    public Product getProduct(String productId) {
+        int ordinal = catalog.ordinalOf(productId);
+        return ordinal < 0 ? null : catalog.getProduct(ordinal);
     }
 }
@@ -0,0 +1,807 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Store floors and what their fixtures sell, loaded from a map file
+ * The text form (Maps/store.map) is for authoring: each floor is drawn one
+ * character per tile, followed by "products" rectangles that stock the fixtures
+ * inside them and the floor's entrance, one-way doors, ATM portals and NPC (see the
+ * header of that file for the legend). load() compiles it to a packed binary
+ * file next to it and reads that on later runs:
+ *
+ *   header   magic, version, product list count, floor count
+ *   lists    per list: item count, then each item (short length + UTF-8)
+ *   floors   per floor: name, rows, cols, one TileType ordinal byte per tile,
+ *            fixture count, stocked cells (row * cols + col, ascending), list index per cell,
+ *            one-way count, cells (ascending), direction byte per cell,
+ *            portal count, cells (ascending), target floor, row and col per cell
+ *   entrance floor, row, col (-1 if the map has none)
+ *   npc      floor, row, col (-1 if the map has none)
+ *
+ * TileGrid/StoreSimulation, Board and TileInventory are all built from the
+ * layout returned by getDefault(). Floors may have any size. StoreLayoutGenerator
+ * builds large layouts in code and writes the binary form directly.
+ * Items are checked and resolved against a ProductCatalog (getDefault() uses
+ * StoreInventory.getDefaultCatalog()), so fixtures sell what the store stocks.
+ */
+public class StoreLayout {
+    private static final int MAGIC = 0x534C4159;  // "SLAY"
+    private static final int VERSION = 3;
+    private static final String DEFAULT_PATH = "Maps/store.map";
+    private static final String LAYOUT_PROPERTY = "store.layout";  // Path of another map file
+
+    // Map symbol of each TileType, by ordinal
+    private static final char[] SYMBOLS = new char[TileType.values().length];
+    private static final TileType[] TYPES = TileType.values();
+    private static final Product[] NO_PRODUCTS = new Product[0];
+
+    // Move of each direction {dr, dc}, as named in "oneway" lines
+    public static final int[][] DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final String[] DIRECTION_NAMES = {"up", "down", "left", "right"};
+
+    static {
+        SYMBOLS[TileType.WALL.ordinal()] = '#';
+        SYMBOLS[TileType.FLOOR.ordinal()] = '.';
+        SYMBOLS[TileType.SECRETFLOOR.ordinal()] = ',';
+        SYMBOLS[TileType.TABLE.ordinal()] = 'T';
+        SYMBOLS[TileType.FRIDGE.ordinal()] = 'F';
+        SYMBOLS[TileType.CHILLED.ordinal()] = 'C';
+        SYMBOLS[TileType.SHELF.ordinal()] = 'S';
+        SYMBOLS[TileType.STAIRS_UP.ordinal()] = 'U';
+        SYMBOLS[TileType.STAIRS_DOWN.ordinal()] = 'D';
+        SYMBOLS[TileType.SEARCH.ordinal()] = '?';
+        SYMBOLS[TileType.BASKET.ordinal()] = 'B';
+        SYMBOLS[TileType.CART.ordinal()] = 'c';
+        SYMBOLS[TileType.CASHIER.ordinal()] = '$';
+        SYMBOLS[TileType.DOOR.ordinal()] = 'd';
+        SYMBOLS[TileType.ATM.ordinal()] = 'A';
+        SYMBOLS[TileType.EXIT.ordinal()] = 'X';
+        SYMBOLS[TileType.BLACK_TILE.ordinal()] = '*';
+    }
+
+    private static StoreLayout defaultLayout = null;
+
+    /**
+     * One floor: tiles as TileType ordinals plus the product list of each stocked fixture,
+     * the doors that are only entered one way and the ATMs that can turn into a portal
+     */
+    public static final class Floor {
+        private final String name;
+        private final int rows;
+        private final int cols;
+        private final byte[] tiles;        // row * cols + col
+        private final int[] stockedCells;  // Ascending row * cols + col
+        private final int[] cellLists;     // Product list index of each stocked cell
+        private final int[] oneWayCells;   // Ascending row * cols + col
+        private final byte[] oneWayDirections;  // DIRECTIONS index each one-way cell is entered by
+        private final int[] portalCells;   // Ascending row * cols + col
+        private final int[] portalTargets; // Floor, row, col of each portal cell's landing
+        private ChunkedGrid grid = null;   // Never written; toChunkedGrid() hands out copies of it
+
+        private Floor(String name, int rows, int cols, byte[] tiles, int[] stockedCells, int[] cellLists,
+                      int[] oneWayCells, byte[] oneWayDirections, int[] portalCells, int[] portalTargets) {
+            this.name = name;
+            this.rows = rows;
+            this.cols = cols;
+            this.tiles = tiles;
+            this.stockedCells = stockedCells;
+            this.cellLists = cellLists;
+            this.oneWayCells = oneWayCells;
+            this.oneWayDirections = oneWayDirections;
+            this.portalCells = portalCells;
+            this.portalTargets = portalTargets;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public int getCols() {
+            return cols;
+        }
+
+        public boolean inBounds(int row, int col) {
+            return row >= 0 && row < rows && col >= 0 && col < cols;
+        }
+
+        public TileType getTile(int row, int col) {
+            return TYPES[tiles[row * cols + col]];
+        }
+
+        /**
+         * Number of fixtures that have products assigned
+         */
+        public int getStockedFixtureCount() {
+            return stockedCells.length;
+        }
+
+        /**
+         * Copy of the floor's tiles as a chunked grid. Every copy shares the chunks of one
+         * grid built on first use, so it is cheap; a chunk is only copied when a tile in it changes.
+         */
+        public synchronized ChunkedGrid toChunkedGrid() {
+            if (grid == null) {
+                grid = ChunkedGrid.of(rows, cols, tiles);
+            }
+            return grid.copy();
+        }
+
+        /**
+         * Move {dr, dc} a one-way tile must be entered with, or null if it can be entered from any side
+         */
+        public int[] getOneWay(int row, int col) {
+            if (oneWayCells.length == 0 || !inBounds(row, col)) return null;
+            int i = Arrays.binarySearch(oneWayCells, row * cols + col);
+            return i < 0 ? null : DIRECTIONS[oneWayDirections[i]];
+        }
+
+        /**
+         * Whether a tile may be stepped onto with the move (dr, dc)
+         */
+        public boolean canEnter(int row, int col, int dr, int dc) {
+            int[] oneWay = getOneWay(row, col);
+            return oneWay == null || (oneWay[0] == dr && oneWay[1] == dc);
+        }
+
+        /**
+         * {row, col} of every ATM that can turn into a portal, in row then col order
+         */
+        public List<int[]> getPortals() {
+            List<int[]> portals = new ArrayList<>(portalCells.length);
+            for (int cell : portalCells) {
+                portals.add(new int[]{cell / cols, cell % cols});
+            }
+            return portals;
+        }
+
+        /**
+         * {floor, row, col} a portal at a cell leads to, or null if the cell isn't one
+         */
+        public int[] getPortalTarget(int row, int col) {
+            if (portalCells.length == 0 || !inBounds(row, col)) return null;
+            int i = Arrays.binarySearch(portalCells, row * cols + col);
+            return i < 0 ? null : Arrays.copyOfRange(portalTargets, i * 3, i * 3 + 3);
+        }
+
+        private int listAt(int row, int col) {
+            if (!inBounds(row, col)) return -1;
+            int i = Arrays.binarySearch(stockedCells, row * cols + col);
+            return i < 0 ? -1 : cellLists[i];
+        }
+    }
+
+    private final Floor[] floors;
+    private final String[][] listItems;  // Items as written: product IDs or category codes
+    private final Product[][] lists;     // Resolved against the catalog, shared by every cell
+    private final int[] entrance;        // {floor, row, col}, or null
+    private final int[] npc;             // {floor, row, col}, or null
+
+    /**
+     * @throws IllegalStateException if an item isn't in the catalog
+     */
+    private StoreLayout(Floor[] floors, String[][] listItems, int[] entrance, int[] npc, ProductCatalog catalog) {
+        this.floors = floors;
+        this.listItems = listItems;
+        this.entrance = entrance;
+        this.npc = npc;
+        this.lists = new Product[listItems.length][];
+        for (int i = 0; i < listItems.length; i++) {
+            lists[i] = resolve(listItems[i], catalog);
+        }
+    }
+
+    /**
+     * Layout named by -Dstore.layout, or Maps/store.map, loaded once against the default catalog
+     * @throws IllegalStateException if the map can't be read
+     */
+    public static synchronized StoreLayout getDefault() {
+        if (defaultLayout == null) {
+            Path path = Paths.get(System.getProperty(LAYOUT_PROPERTY, DEFAULT_PATH));
+            try {
+                defaultLayout = load(path, StoreInventory.getDefaultCatalog());
+            } catch (IOException e) {
+                throw new IllegalStateException("StoreLayout: could not load " + path + ": " + e.getMessage(), e);
+            }
+        }
+        return defaultLayout;
+    }
+
+    public int getFloorCount() {
+        return floors.length;
+    }
+
+    public Floor getFloor(int floor) {
+        return floors[floor];
+    }
+
+    public TileType getTile(int floor, int row, int col) {
+        return floors[floor].getTile(row, col);
+    }
+
+    /**
+     * {floor, row, col} where shoppers walk in and return from a portal trip, or null if the map has none
+     */
+    public int[] getEntrance() {
+        return entrance == null ? null : entrance.clone();
+    }
+
+    /**
+     * {floor, row, col} where the NPC stands, or null if the map has none
+     */
+    public int[] getNpc() {
+        return npc == null ? null : npc.clone();
+    }
+
+    /**
+     * Products sold at a cell (empty if none). The returned array is shared, don't modify it.
+     */
+    public Product[] getProducts(int floor, int row, int col) {
+        if (floor < 0 || floor >= floors.length) return NO_PRODUCTS;
+        int list = floors[floor].listAt(row, col);
+        return list < 0 ? NO_PRODUCTS : lists[list];
+    }
+
+    /**
+     * Whether the map can stock a tile with products
+     */
+    public static boolean isFixture(TileType type) {
+        return type == TileType.SHELF || type == TileType.TABLE || type == TileType.FRIDGE || type == TileType.CHILLED;
+    }
+
+    /**
+     * Look list items up in the catalog: a 3-letter code is its whole category
+     */
+    private static Product[] resolve(String[] items, ProductCatalog catalog) {
+        List<Product> products = new ArrayList<>();
+        for (String item : items) {
+            if (item.length() == 3) {
+                ProductCategory category = ProductCategory.of(item);
+                if (category == null) {
+                    throw new IllegalStateException("StoreLayout: unknown category " + item);
+                }
+                products.addAll(catalog.getProducts(category));
+            } else {
+                Product product = catalog.findProduct(item);
+                if (product == null) {
+                    throw new IllegalStateException("StoreLayout: " + item + " is not in the store catalog");
+                }
+                products.add(product);
+            }
+        }
+        return products.toArray(NO_PRODUCTS);
+    }
+
+    // ===================== LOADING =====================
+
+    /**
+     * Read a text map, using its compiled ".bin" file when that is up to date and
+     * (re)writing it otherwise. A ".bin" path is opened as it is (e.g. a generated layout).
+     * @param catalog Products the fixtures may sell
+     */
+    public static StoreLayout load(Path map, ProductCatalog catalog) throws IOException {
+        if (map.getFileName().toString().endsWith(".bin")) {
+            return open(map, catalog);
+        }
+        Path bin = map.resolveSibling(map.getFileName() + ".bin");
+        if (Files.exists(bin) && Files.getLastModifiedTime(bin).compareTo(Files.getLastModifiedTime(map)) >= 0) {
+            try {
+                return open(bin, catalog);
+            } catch (IOException e) {
+                System.err.println("StoreLayout: recompiling " + map + " (" + e.getMessage() + ")");
+            }
+        }
+        StoreLayout layout = parse(map, catalog);
+        try {
+            layout.write(bin);
+        } catch (IOException e) {
+            System.err.println("StoreLayout: could not write " + bin + ": " + e.getMessage());
+        }
+        return layout;
+    }
+
+    /**
+     * Parse a text map, checking its items against a catalog
+     * @throws IOException on read errors or a malformed line (the message names the line)
+     */
+    public static StoreLayout parse(Path map, ProductCatalog catalog) throws IOException {
+        List<FloorBuilder> floors = new ArrayList<>();
+        List<String[]> lists = new ArrayList<>();
+        Map<String, Integer> listIndex = new HashMap<>();  // Same items share one list
+        FloorBuilder floor = null;  // Last floor, which "products" and the other cell lines refer to
+        List<String> rows = null;   // Rows of the floor being drawn, until "end"
+        boolean hasEntrance = false;
+        boolean hasNpc = false;
+        List<int[]> portalLines = new ArrayList<>();  // {line, target floor, row, col}, checked once every floor is read
+
+        try (BufferedReader reader = Files.newBufferedReader(map, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (rows != null) {
+                    // Inside a floor every line is a row ('#' is a wall, not a comment)
+                    if (line.trim().equals("end")) {
+                        if (rows.isEmpty()) {
+                            throw new IOException(where(map, lineNumber) + "floor " + floor.name + " has no rows");
+                        }
+                        floor.setRows(rows);
+                        rows = null;
+                        continue;
+                    }
+                    String row = stripTrailing(line);
+                    if (!rows.isEmpty() && row.length() != rows.get(0).length()) {
+                        throw new IOException(where(map, lineNumber) + "row is " + row.length()
+                            + " tiles wide, expected " + rows.get(0).length());
+                    }
+                    for (int c = 0; c < row.length(); c++) {
+                        if (typeOf(row.charAt(c)) == null) {
+                            throw new IOException(where(map, lineNumber) + "unknown tile '" + row.charAt(c) + "'");
+                        }
+                    }
+                    rows.add(row);
+                    continue;
+                }
+
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+                String[] words = trimmed.split("\\s+");
+                if (words[0].equals("floor")) {
+                    floor = new FloorBuilder(trimmed.substring(5).trim());
+                    floors.add(floor);
+                    rows = new ArrayList<>();
+                } else if (words[0].equals("products")) {
+                    if (floor == null) {
+                        throw new IOException(where(map, lineNumber) + "products before the first floor");
+                    }
+                    if (words.length < 6) {
+                        throw new IOException(where(map, lineNumber) + "expected products <row0> <col0> <row1> <col1> <items...>");
+                    }
+                    int r0, c0, r1, c1;
+                    try {
+                        r0 = Integer.parseInt(words[1]);
+                        c0 = Integer.parseInt(words[2]);
+                        r1 = Integer.parseInt(words[3]);
+                        c1 = Integer.parseInt(words[4]);
+                    } catch (NumberFormatException e) {
+                        throw new IOException(where(map, lineNumber) + "bad rectangle");
+                    }
+                    if (r0 < 0 || c0 < 0 || r1 >= floor.rows || c1 >= floor.cols || r0 > r1 || c0 > c1) {
+                        throw new IOException(where(map, lineNumber) + "rectangle is outside the floor");
+                    }
+                    String[] items = Arrays.copyOfRange(words, 5, words.length);
+                    for (String item : items) {
+                        if (!isKnownItem(item, catalog)) {
+                            throw new IOException(where(map, lineNumber) + "unknown product or category " + item);
+                        }
+                    }
+                    String key = String.join(" ", items);
+                    Integer list = listIndex.get(key);
+                    if (list == null) {
+                        list = lists.size();
+                        lists.add(items);
+                        listIndex.put(key, list);
+                    }
+                    floor.stock(r0, c0, r1, c1, list);
+                } else if (words[0].equals("entrance")) {
+                    int[] at = cell(map, lineNumber, floor, words, "entrance <row> <col>");
+                    TileType tile = floor.get(at[0], at[1]);
+                    if (tile != TileType.DOOR && tile != TileType.FLOOR) {
+                        throw new IOException(where(map, lineNumber) + "the entrance must be a door or floor tile");
+                    }
+                    if (hasEntrance) {
+                        throw new IOException(where(map, lineNumber) + "the map already has an entrance");
+                    }
+                    hasEntrance = true;
+                    floor.entrance = at;
+                } else if (words[0].equals("npc")) {
+                    int[] at = cell(map, lineNumber, floor, words, "npc <row> <col>");
+                    TileType tile = floor.get(at[0], at[1]);
+                    if (!StoreSimulation.isWalkable(tile) || tile == TileType.BLACK_TILE) {
+                        throw new IOException(where(map, lineNumber) + "the npc must stand on a walkable tile");
+                    }
+                    if (hasNpc) {
+                        throw new IOException(where(map, lineNumber) + "the map already has an npc");
+                    }
+                    hasNpc = true;
+                    floor.npc = at;
+                } else if (words[0].equals("oneway")) {
+                    int[] at = cell(map, lineNumber, floor, words, "oneway <row> <col> <up|down|left|right>");
+                    int direction = Arrays.asList(DIRECTION_NAMES).indexOf(words[3]);
+                    if (direction < 0) {
+                        throw new IOException(where(map, lineNumber) + "expected oneway <row> <col> <up|down|left|right>");
+                    }
+                    TileType tile = floor.get(at[0], at[1]);
+                    if (tile != TileType.DOOR && tile != TileType.EXIT) {
+                        throw new IOException(where(map, lineNumber) + "only doors and exits can be one-way");
+                    }
+                    floor.oneWay(at[0], at[1], direction);
+                } else if (words[0].equals("portal")) {
+                    int[] at = cell(map, lineNumber, floor, words, "portal <row> <col> <floor> <row> <col>");
+                    if (floor.get(at[0], at[1]) != TileType.ATM) {
+                        throw new IOException(where(map, lineNumber) + "portals must be ATM tiles");
+                    }
+                    int[] target;
+                    try {
+                        target = new int[]{lineNumber, Integer.parseInt(words[3]), Integer.parseInt(words[4]),
+                            Integer.parseInt(words[5])};
+                    } catch (NumberFormatException e) {
+                        throw new IOException(where(map, lineNumber) + "expected portal <row> <col> <floor> <row> <col>");
+                    }
+                    portalLines.add(target);
+                    floor.portal(at[0], at[1], target[1], target[2], target[3]);
+                } else {
+                    throw new IOException(where(map, lineNumber) + "unknown line \"" + words[0] + "\"");
+                }
+            }
+            if (rows != null) {
+                throw new IOException(where(map, lineNumber) + "floor " + floor.name + " is missing \"end\"");
+            }
+        }
+        if (floors.isEmpty()) {
+            throw new IOException("StoreLayout: " + map + " has no floors");
+        }
+        for (int[] portal : portalLines) {
+            int f = portal[1], r = portal[2], c = portal[3];
+            if (f < 0 || f >= floors.size() || r < 0 || c < 0 || r >= floors.get(f).rows || c >= floors.get(f).cols) {
+                throw new IOException(where(map, portal[0]) + "portal lands outside the store");
+            }
+            TileType landing = floors.get(f).get(r, c);
+            if (!StoreSimulation.isWalkable(landing) || landing == TileType.BLACK_TILE) {
+                throw new IOException(where(map, portal[0]) + "portal must land on a walkable tile");
+            }
+        }
+        return of(floors, lists, catalog);
+    }
+
+    /**
+     * {row, col} of a line's cell on the floor above it
+     * @param usage The line's form, which also gives its word count; row and col come first
+     */
+    private static int[] cell(Path map, int lineNumber, FloorBuilder floor, String[] words, String usage)
+            throws IOException {
+        if (floor == null) {
+            throw new IOException(where(map, lineNumber) + words[0] + " before the first floor");
+        }
+        if (words.length != usage.split(" ").length) {
+            throw new IOException(where(map, lineNumber) + "expected " + usage);
+        }
+        int row, col;
+        try {
+            row = Integer.parseInt(words[1]);
+            col = Integer.parseInt(words[2]);
+        } catch (NumberFormatException e) {
+            throw new IOException(where(map, lineNumber) + "expected " + usage);
+        }
+        if (row < 0 || col < 0 || row >= floor.rows || col >= floor.cols) {
+            throw new IOException(where(map, lineNumber) + "cell is outside the floor");
+        }
+        return new int[]{row, col};
+    }
+
+    /**
+     * Layout of parsed or generated floors
+     * @param lists Items of each product list, indexed by the list numbers passed to FloorBuilder.stock
+     */
+    static StoreLayout of(List<FloorBuilder> floors, List<String[]> lists, ProductCatalog catalog) {
+        Floor[] built = new Floor[floors.size()];
+        int[] entrance = null;
+        int[] npc = null;
+        for (int i = 0; i < built.length; i++) {
+            built[i] = floors.get(i).build();
+            if (entrance == null && floors.get(i).entrance != null) {
+                entrance = new int[]{i, floors.get(i).entrance[0], floors.get(i).entrance[1]};
+            }
+            if (npc == null && floors.get(i).npc != null) {
+                npc = new int[]{i, floors.get(i).npc[0], floors.get(i).npc[1]};
+            }
+        }
+        return new StoreLayout(built, lists.toArray(new String[0][]), entrance, npc, catalog);
+    }
+
+    /**
+     * Floor being parsed or generated; product lists are kept per cell until build()
+     */
+    static final class FloorBuilder {
+        final String name;
+        int rows;
+        int cols;
+        byte[] tiles;
+        int[] cellList;  // Allocated by the first stock() call
+        int[] entrance;  // {row, col} if the store is entered on this floor
+        int[] npc;       // {row, col} if the NPC stands on this floor
+        private final TreeMap<Integer, Integer> oneWays = new TreeMap<>();  // Cell -> DIRECTIONS index
+        private final TreeMap<Integer, int[]> portals = new TreeMap<>();    // Cell -> {floor, row, col}
+
+        FloorBuilder(String name) {
+            this.name = name;
+        }
+
+        /**
+         * A floor of walls, for generators to carve
+         */
+        FloorBuilder(String name, int rows, int cols) {
+            this.name = name;
+            this.rows = rows;
+            this.cols = cols;
+            this.tiles = new byte[Math.multiplyExact(rows, cols)];
+            Arrays.fill(tiles, (byte) TileType.WALL.ordinal());
+        }
+
+        TileType get(int row, int col) {
+            return TYPES[tiles[row * cols + col]];
+        }
+
+        void set(int row, int col, TileType type) {
+            tiles[row * cols + col] = (byte) type.ordinal();
+        }
+
+        void setRows(List<String> lines) {
+            rows = lines.size();
+            cols = lines.get(0).length();
+            tiles = new byte[rows * cols];
+            for (int r = 0; r < rows; r++) {
+                String line = lines.get(r);
+                for (int c = 0; c < cols; c++) {
+                    tiles[r * cols + c] = (byte) typeOf(line.charAt(c)).ordinal();
+                }
+            }
+        }
+
+        void stock(int r0, int c0, int r1, int c1, int list) {
+            if (cellList == null) {
+                cellList = new int[tiles.length];
+                Arrays.fill(cellList, -1);
+            }
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    cellList[r * cols + c] = list;
+                }
+            }
+        }
+
+        /**
+         * Let a door or exit be entered only with the move DIRECTIONS[direction]
+         */
+        void oneWay(int row, int col, int direction) {
+            oneWays.put(row * cols + col, direction);
+        }
+
+        /**
+         * Let an ATM turn into a portal to (row, col) of another floor
+         */
+        void portal(int row, int col, int floor, int targetRow, int targetCol) {
+            portals.put(row * cols + col, new int[]{floor, targetRow, targetCol});
+        }
+
+        /**
+         * Keep the lists of fixture cells only (rectangles may cover aisles too)
+         */
+        Floor build() {
+            int count = 0;
+            for (int i = 0; cellList != null && i < tiles.length; i++) {
+                if (cellList[i] >= 0 && isFixture(TYPES[tiles[i]])) count++;
+            }
+            int[] cells = new int[count];
+            int[] cellLists = new int[count];
+            int n = 0;
+            for (int i = 0; cellList != null && i < tiles.length; i++) {
+                if (cellList[i] >= 0 && isFixture(TYPES[tiles[i]])) {
+                    cells[n] = i;
+                    cellLists[n++] = cellList[i];
+                }
+            }
+            int[] oneWayCells = new int[oneWays.size()];
+            byte[] oneWayDirections = new byte[oneWayCells.length];
+            n = 0;
+            for (Map.Entry<Integer, Integer> e : oneWays.entrySet()) {
+                oneWayCells[n] = e.getKey();
+                oneWayDirections[n++] = (byte) (int) e.getValue();
+            }
+            int[] portalCells = new int[portals.size()];
+            int[] portalTargets = new int[portalCells.length * 3];
+            n = 0;
+            for (Map.Entry<Integer, int[]> e : portals.entrySet()) {
+                System.arraycopy(e.getValue(), 0, portalTargets, n * 3, 3);
+                portalCells[n++] = e.getKey();
+            }
+            return new Floor(name, rows, cols, tiles, cells, cellLists,
+                oneWayCells, oneWayDirections, portalCells, portalTargets);
+        }
+    }
+
+    /**
+     * Write the packed binary form (through a temporary file, then moved into place)
+     */
+    public void write(Path bin) throws IOException {
+        Path tmp = bin.resolveSibling(bin.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(listItems.length);
+            out.writeInt(floors.length);
+            for (String[] items : listItems) {
+                out.writeInt(items.length);
+                for (String item : items) {
+                    writeString(out, item);
+                }
+            }
+            for (Floor floor : floors) {
+                writeString(out, floor.name);
+                out.writeInt(floor.rows);
+                out.writeInt(floor.cols);
+                out.write(floor.tiles);
+                out.writeInt(floor.stockedCells.length);
+                for (int cell : floor.stockedCells) {
+                    out.writeInt(cell);
+                }
+                for (int list : floor.cellLists) {
+                    out.writeInt(list);
+                }
+                out.writeInt(floor.oneWayCells.length);
+                for (int cell : floor.oneWayCells) {
+                    out.writeInt(cell);
+                }
+                out.write(floor.oneWayDirections);
+                out.writeInt(floor.portalCells.length);
+                for (int cell : floor.portalCells) {
+                    out.writeInt(cell);
+                }
+                for (int target : floor.portalTargets) {
+                    out.writeInt(target);
+                }
+            }
+            for (int[] at : new int[][]{entrance, npc}) {
+                for (int v : at != null ? at : new int[]{-1, -1, -1}) {
+                    out.writeInt(v);
+                }
+            }
+        }
+        Files.move(tmp, bin, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Read a compiled layout; tiles and cell tables are copied out of a memory map in bulk
+     * @throws IOException also if an item isn't in the catalog (e.g. compiled for another one)
+     */
+    public static StoreLayout open(Path bin, ProductCatalog catalog) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(bin, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("StoreLayout: " + bin + " is not a layout file");
+            }
+            if (buffer.getInt() != VERSION) {
+                throw new IOException("StoreLayout: " + bin + " has an unsupported version");
+            }
+            String[][] listItems = new String[buffer.getInt()][];
+            Floor[] floors = new Floor[buffer.getInt()];
+            for (int i = 0; i < listItems.length; i++) {
+                listItems[i] = new String[buffer.getInt()];
+                for (int j = 0; j < listItems[i].length; j++) {
+                    listItems[i][j] = readString(buffer);
+                    if (!isKnownItem(listItems[i][j], catalog)) {
+                        throw new IOException("StoreLayout: " + bin + " stocks " + listItems[i][j] + ", which is not in the catalog");
+                    }
+                }
+            }
+            for (int i = 0; i < floors.length; i++) {
+                String name = readString(buffer);
+                int rows = buffer.getInt();
+                int cols = buffer.getInt();
+                byte[] tiles = new byte[Math.multiplyExact(rows, cols)];
+                buffer.get(tiles);
+                for (byte tile : tiles) {
+                    if (tile < 0 || tile >= TYPES.length) {
+                        throw new IOException("StoreLayout: " + bin + " has an unknown tile type " + tile);
+                    }
+                }
+                int[] cells = new int[buffer.getInt()];
+                int[] cellLists = new int[cells.length];
+                buffer.asIntBuffer().get(cells);
+                buffer.position(buffer.position() + cells.length * 4);
+                buffer.asIntBuffer().get(cellLists);
+                buffer.position(buffer.position() + cellLists.length * 4);
+                for (int list : cellLists) {
+                    if (list < 0 || list >= listItems.length) {
+                        throw new IOException("StoreLayout: " + bin + " is corrupt");
+                    }
+                }
+                int[] oneWayCells = new int[buffer.getInt()];
+                byte[] oneWayDirections = new byte[oneWayCells.length];
+                buffer.asIntBuffer().get(oneWayCells);
+                buffer.position(buffer.position() + oneWayCells.length * 4);
+                buffer.get(oneWayDirections);
+                for (byte direction : oneWayDirections) {
+                    if (direction < 0 || direction >= DIRECTIONS.length) {
+                        throw new IOException("StoreLayout: " + bin + " is corrupt");
+                    }
+                }
+                int[] portalCells = new int[buffer.getInt()];
+                int[] portalTargets = new int[Math.multiplyExact(portalCells.length, 3)];
+                buffer.asIntBuffer().get(portalCells);
+                buffer.position(buffer.position() + portalCells.length * 4);
+                buffer.asIntBuffer().get(portalTargets);
+                buffer.position(buffer.position() + portalTargets.length * 4);
+                floors[i] = new Floor(name, rows, cols, tiles, cells, cellLists,
+                    oneWayCells, oneWayDirections, portalCells, portalTargets);
+            }
+            int[] entrance = {buffer.getInt(), buffer.getInt(), buffer.getInt()};
+            int[] npc = {buffer.getInt(), buffer.getInt(), buffer.getInt()};
+            for (Floor floor : floors) {
+                for (int p = 0; p < floor.portalCells.length; p++) {
+                    int f = floor.portalTargets[p * 3];
+                    if (f < 0 || f >= floors.length
+                            || !floors[f].inBounds(floor.portalTargets[p * 3 + 1], floor.portalTargets[p * 3 + 2])) {
+                        throw new IOException("StoreLayout: " + bin + " is corrupt");
+                    }
+                }
+            }
+            for (int[] at : new int[][]{entrance, npc}) {
+                if (at[0] >= 0 && (at[0] >= floors.length || !floors[at[0]].inBounds(at[1], at[2]))) {
+                    throw new IOException("StoreLayout: " + bin + " is corrupt");
+                }
+            }
+            return new StoreLayout(floors, listItems, entrance[0] >= 0 ? entrance : null,
+                npc[0] >= 0 ? npc : null, catalog);
+        } catch (java.nio.BufferUnderflowException | IllegalStateException | ArithmeticException e) {
+            throw new IOException("StoreLayout: " + bin + " is truncated or corrupt", e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("StoreLayout: name too long: " + s.substring(0, 40) + "...");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // ===================== TEXT FORM =====================
+
+    /**
+     * Tile type drawn as a map symbol, or null if the symbol is unknown
+     */
+    public static TileType typeOf(char symbol) {
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            if (SYMBOLS[i] == symbol) return TYPES[i];
+        }
+        return null;
+    }
+
+    public static char symbolOf(TileType type) {
+        return SYMBOLS[type.ordinal()];
+    }
+
+    private static boolean isKnownItem(String item, ProductCatalog catalog) {
+        return item.length() == 3 ? ProductCategory.of(item) != null : catalog.ordinalOf(item) >= 0;
+    }
+
+    private static String stripTrailing(String line) {
+        int end = line.length();
+        while (end > 0 && Character.isWhitespace(line.charAt(end - 1))) {
+            end--;
+        }
+        return line.substring(0, end);
+    }
+
+    private static String where(Path map, int lineNumber) {
+        return "StoreLayout: " + map + " line " + lineNumber + ": ";
+    }
+}
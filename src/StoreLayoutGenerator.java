@@ -0,0 +1,316 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Seeded generator of large store layouts, for benchmarks
+ * The same seed and size always give the same layout. Both shop floors have
+ * chilled counters (ground) or fridges (upper) along the back wall, then bands
+ * of shelf and table blocks two tiles wide with two-tile aisles around every
+ * block, then a front area: a service row holding the stairs (the same cells
+ * on both floors, so they connect) and search kiosks or ATMs, and below it the
+ * cashiers, baskets, carts and entrance (ground) or dining tables (upper).
+ * Every block is stocked with one category, or a few products of one, drawn
+ * from the catalog the layout is generated for (main uses -Dstore.catalog).
+ * The entrance door and the exit sit at random columns of the bottom wall.
+ * The third floor is a secret hallway, a room of random size and place with
+ * a corridor below it and a black tile at either end, and the NPC near its top
+ * wall; two random ATMs of the upper service row are its portals, landing at
+ * the end of the corridor. All of these are recorded in the layout, as
+ * "entrance", "oneway", "portal" and "npc" lines do for a map file. check()
+ * walks the floors from the entrance, through the portals, to confirm every
+ * fixture, staircase, black tile and the NPC can be reached.
+ *
+ *   java StoreLayoutGenerator big.bin 42 2000 2000
+ *   java -Dstore.layout=big.bin Driver
+ */
+public class StoreLayoutGenerator {
+    public static final int MIN_SIZE = 32;
+    private static final int FRONT_ROWS = 10;  // Front area rows, bottom wall included
+    private static final int STAIRS_SPACING = 64;
+
+    private static final ProductCategory[] CHILLED_ITEMS = {
+        ProductCategory.CHICKEN, ProductCategory.BEEF, ProductCategory.SEAFOOD
+    };
+    private static final ProductCategory[] FRIDGE_ITEMS = {
+        ProductCategory.MILK, ProductCategory.FROZEN, ProductCategory.CHEESE
+    };
+    private static final ProductCategory[][] SHELF_ITEMS = {
+        {ProductCategory.ALCOHOL, ProductCategory.CONDIMENTS, ProductCategory.SOFT_DRINKS, ProductCategory.JUICE,
+            ProductCategory.CEREAL, ProductCategory.NOODLES, ProductCategory.CANNED, ProductCategory.SNACKS},
+        {ProductCategory.PET_FOOD, ProductCategory.STATIONERY, ProductCategory.CLOTHES, ProductCategory.DENTAL_CARE,
+            ProductCategory.CLEANING, ProductCategory.HAIR_CARE, ProductCategory.HOME_ESSENTIALS, ProductCategory.BODY_CARE}
+    };
+    private static final ProductCategory[][] TABLE_ITEMS = {
+        {ProductCategory.FRUIT}, {ProductCategory.VEGETABLE}
+    };
+    private static final ProductCategory[] DINING_ITEMS = {ProductCategory.BREAD, ProductCategory.EGGS};
+    private static final int DOWN = 1;  // StoreLayout.DIRECTIONS index of {1, 0}
+
+    private final Random random;
+    private final int rows;
+    private final int cols;
+    private final ProductCatalog catalog;
+    private final List<String[]> lists = new ArrayList<>();
+    private final Map<String, Integer> listIndex = new HashMap<>();  // Same items share one list
+
+    /**
+     * @param rows Rows of every floor, MIN_SIZE to ChunkedGrid.MAX_SIZE
+     * @param cols Columns of every floor, MIN_SIZE to ChunkedGrid.MAX_SIZE
+     * @param catalog Products the fixtures are stocked with
+     */
+    public StoreLayoutGenerator(long seed, int rows, int cols, ProductCatalog catalog) {
+        if (rows < MIN_SIZE || cols < MIN_SIZE || rows > ChunkedGrid.MAX_SIZE || cols > ChunkedGrid.MAX_SIZE) {
+            throw new IllegalArgumentException("StoreLayoutGenerator: " + rows + "x" + cols
+                + " is outside " + MIN_SIZE + ".." + ChunkedGrid.MAX_SIZE);
+        }
+        this.random = new Random(seed);
+        this.rows = rows;
+        this.cols = cols;
+        this.catalog = catalog;
+    }
+
+    /**
+     * Build the layout; call once per generator
+     */
+    public StoreLayout generate() {
+        List<StoreLayout.FloorBuilder> floors = new ArrayList<>();
+        floors.add(shopFloor("Ground Floor", 0));
+        floors.add(shopFloor("Upper Floor", 1));
+        int[] landing = new int[2];
+        floors.add(secretHallway(landing));
+
+        // Two of the upper service row's ATMs open onto the hallway
+        StoreLayout.FloorBuilder upper = floors.get(1);
+        int service = rows - FRONT_ROWS + 1;
+        List<Integer> atms = new ArrayList<>();
+        for (int c = 0; c < cols; c++) {
+            if (upper.get(service, c) == TileType.ATM) atms.add(c);
+        }
+        Collections.shuffle(atms, random);
+        for (int i = 0; i < 2 && i < atms.size(); i++) {
+            upper.portal(service, atms.get(i), 2, landing[0], landing[1]);
+        }
+        return StoreLayout.of(floors, lists, catalog);
+    }
+
+    private StoreLayout.FloorBuilder shopFloor(String name, int level) {
+        StoreLayout.FloorBuilder floor = new StoreLayout.FloorBuilder(name, rows, cols);
+        fill(floor, 1, 1, rows - 2, cols - 2, TileType.FLOOR);
+
+        // Back wall counters in runs of six
+        TileType counter = level == 0 ? TileType.CHILLED : TileType.FRIDGE;
+        for (int c = 1; c < cols - 1; c += 7) {
+            int end = Math.min(c + 5, cols - 2);
+            fill(floor, 1, c, 1, end, counter);
+            stock(floor, 1, c, 1, end, level == 0 ? CHILLED_ITEMS : FRIDGE_ITEMS);
+        }
+
+        // Bands of blocks between two-row cross aisles; two-column aisles between blocks
+        int front = rows - FRONT_ROWS;
+        for (int r = 4; r < front - 2; ) {
+            int height = Math.min(3 + random.nextInt(4), front - 2 - r);
+            if (height < 2) break;
+            for (int c = 2; c + 1 <= cols - 3; c += 4) {
+                boolean table = random.nextInt(100) < 15;
+                fill(floor, r, c, r + height - 1, c + 1, table ? TileType.TABLE : TileType.SHELF);
+                stock(floor, r, c, r + height - 1, c + 1, table ? TABLE_ITEMS[level] : SHELF_ITEMS[level]);
+            }
+            r += height + 2;
+        }
+        // Service row between two aisles: stairs at both ends and every STAIRS_SPACING columns
+        int service = front + 1;
+        for (int c = 1; c < cols - 1; c++) {
+            if (c == 1 || c == cols - 2 || c % STAIRS_SPACING == 0) {
+                floor.set(service, c, level == 0 ? TileType.STAIRS_UP : TileType.STAIRS_DOWN);
+            } else if (c % 16 == 8) {
+                floor.set(service, c, level == 0 ? TileType.SEARCH : TileType.ATM);
+            }
+        }
+
+        if (level == 0) {
+            // Checkout line with a gap every eight columns, baskets and carts, then the entrance
+            for (int c = 1; c < cols - 1; c++) {
+                if (c % 8 != 0) {
+                    floor.set(front + 3, c, c % 2 == 1 ? TileType.CASHIER : TileType.WALL);
+                }
+            }
+            for (int c = 1; c < cols - 1; c += 32) {
+                floor.set(front + 6, c, TileType.BASKET);
+                floor.set(front + 6, cols - 1 - c, TileType.CART);
+            }
+            // Entrance and exit at two random columns of the bottom wall, both only entered going out
+            int door = 1 + random.nextInt(cols - 2);
+            int exit = 1 + random.nextInt(cols - 3);
+            if (exit >= door) exit++;
+            floor.set(rows - 1, door, TileType.DOOR);
+            floor.set(rows - 1, exit, TileType.EXIT);
+            floor.oneWay(rows - 1, door, DOWN);
+            floor.oneWay(rows - 1, exit, DOWN);
+            floor.entrance = new int[]{rows - 1, door};
+        } else {
+            // Dining tables in runs of five
+            for (int c = 2; c < cols - 2; c += 6) {
+                int end = Math.min(c + 4, cols - 3);
+                fill(floor, front + 5, c, front + 5, end, TileType.TABLE);
+                stock(floor, front + 5, c, front + 5, end, DINING_ITEMS);
+            }
+        }
+        return floor;
+    }
+
+    /**
+     * A room with a black tile at either end, the NPC in the middle of its top row
+     * and a corridor down from its middle
+     * @param landing Set to the {row, col} at the end of the corridor, where portals land
+     */
+    private StoreLayout.FloorBuilder secretHallway(int[] landing) {
+        StoreLayout.FloorBuilder floor = new StoreLayout.FloorBuilder("Secret Hallway", rows, cols);
+        int height = 5 + random.nextInt(5);
+        int width = 7 + random.nextInt(7);
+        int corridor = 2 + random.nextInt(4);
+        int r0 = 1 + random.nextInt(rows - 2 - height - corridor);
+        int c0 = 1 + random.nextInt(cols - 1 - width);
+        fill(floor, r0, c0, r0 + height - 1, c0 + width - 1, TileType.SECRETFLOOR);
+        fill(floor, r0 + height, c0 + width / 2, r0 + height + corridor - 1, c0 + width / 2, TileType.SECRETFLOOR);
+        floor.set(r0 + height / 2, c0 + 1, TileType.BLACK_TILE);
+        floor.set(r0 + height / 2, c0 + width - 2, TileType.BLACK_TILE);
+        floor.npc = new int[]{r0, c0 + width / 2};
+        landing[0] = r0 + height + corridor - 1;
+        landing[1] = c0 + width / 2;
+        return floor;
+    }
+
+    private static void fill(StoreLayout.FloorBuilder floor, int r0, int c0, int r1, int c1, TileType type) {
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                floor.set(r, c, type);
+            }
+        }
+    }
+
+    /**
+     * Stock a rectangle with a random category of choices: the whole category,
+     * or one to three of its products
+     */
+    private void stock(StoreLayout.FloorBuilder floor, int r0, int c0, int r1, int c1, ProductCategory[] choices) {
+        ProductCategory category = choices[random.nextInt(choices.length)];
+        List<Product> products = catalog.getProducts(category);
+        String[] items;
+        if (random.nextBoolean() || products.isEmpty()) {
+            items = new String[]{category.getCode()};
+        } else {
+            TreeSet<String> ids = new TreeSet<>();  // Sorted, so equal samples share a list
+            int count = 1 + random.nextInt(3);
+            for (int i = 0; i < count; i++) {
+                ids.add(products.get(random.nextInt(products.size())).getId());
+            }
+            items = ids.toArray(new String[0]);
+        }
+        String key = String.join(" ", items);
+        Integer list = listIndex.get(key);
+        if (list == null) {
+            list = lists.size();
+            lists.add(items);
+            listIndex.put(key, list);
+        }
+        floor.stock(r0, c0, r1, c1, list);
+    }
+
+    // ===================== CHECK =====================
+
+    /**
+     * Walk the floors from the layout's entrance (stairs and portals included) and make sure
+     * every staircase, black tile and the NPC's cell is reached and every fixture, cashier, kiosk and ATM
+     * is next to a reached tile
+     * @return Number of reachable fixtures and other interactable tiles
+     * @throws IllegalStateException if something can't be reached
+     */
+    public static int check(StoreLayout layout) {
+        StoreLayout.Floor ground = layout.getFloor(0);
+        int floors = Math.min(layout.getFloorCount(), 3);
+        int rows = ground.getRows(), cols = ground.getCols(), cells = rows * cols;
+        int[] entrance = layout.getEntrance();
+        if (entrance == null || entrance[0] != 0) {
+            throw new IllegalStateException("StoreLayoutGenerator: the ground floor has no entrance");
+        }
+        int start = entrance[1] * cols + entrance[2];
+
+        BitSet reached = new BitSet(floors * cells);
+        int[] queue = new int[floors * cells];
+        int head = 0, tail = 0;
+        reached.set(start);
+        queue[tail++] = start;
+        while (head < tail) {
+            int node = queue[head++];
+            int f = node / cells, r = (node % cells) / cols, c = node % cols;
+            int[][] next = {{f, r - 1, c}, {f, r + 1, c}, {f, r, c - 1}, {f, r, c + 1}, {1 - f, r, c}};
+            for (int i = 0; i < next.length; i++) {
+                int[] n = next[i];
+                if (n[1] < 0 || n[1] >= rows || n[2] < 0 || n[2] >= cols) continue;
+                if (i == 4 && (f > 1 || layout.getTile(f, r, c) != (f == 0 ? TileType.STAIRS_UP : TileType.STAIRS_DOWN))) continue;
+                // An ATM next to the shopper may be a portal: walk on from where it lands
+                int[] landing = i < 4 ? layout.getFloor(f).getPortalTarget(n[1], n[2]) : null;
+                if (landing != null && landing[0] < floors) {
+                    n = landing;
+                }
+                int v = n[0] * cells + n[1] * cols + n[2];
+                if (!reached.get(v) && StoreSimulation.isWalkable(layout.getTile(n[0], n[1], n[2]))) {
+                    reached.set(v);
+                    queue[tail++] = v;
+                }
+            }
+        }
+
+        int reachable = 0, unreachable = 0;
+        for (int f = 0; f < floors; f++) {
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    TileType t = layout.getTile(f, r, c);
+                    if (t == TileType.STAIRS_UP || t == TileType.STAIRS_DOWN || t == TileType.BLACK_TILE) {
+                        if (!reached.get(f * cells + r * cols + c)) unreachable++;
+                    } else if (t != TileType.WALL && !StoreSimulation.isWalkable(t)) {
+                        boolean next = (r > 0 && reached.get(f * cells + (r - 1) * cols + c))
+                            || (r + 1 < rows && reached.get(f * cells + (r + 1) * cols + c))
+                            || (c > 0 && reached.get(f * cells + r * cols + c - 1))
+                            || (c + 1 < cols && reached.get(f * cells + r * cols + c + 1));
+                        if (next) reachable++; else unreachable++;
+                    }
+                }
+            }
+        }
+        int[] npc = layout.getNpc();
+        if (npc != null && npc[0] < floors && !reached.get(npc[0] * cells + npc[1] * cols + npc[2])) {
+            unreachable++;
+        }
+        if (unreachable > 0) {
+            throw new IllegalStateException("StoreLayoutGenerator: " + unreachable + " tiles can't be reached from the entrance");
+        }
+        return reachable;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java StoreLayoutGenerator <layout.bin> [seed] [rows] [cols]");
+            return;
+        }
+        Path bin = Paths.get(args[0]);
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+        int cols = args.length > 3 ? Integer.parseInt(args[3]) : rows;
+
+        long start = System.nanoTime();
+        StoreLayout layout = new StoreLayoutGenerator(seed, rows, cols, StoreInventory.getDefaultCatalog()).generate();
+        double generated = (System.nanoTime() - start) / 1e6;
+        int reachable = check(layout);
+        layout.write(bin);
+
+        int stocked = 0;
+        for (int f = 0; f < layout.getFloorCount(); f++) {
+            stocked += layout.getFloor(f).getStockedFixtureCount();
+        }
+        System.out.printf("Generated %d floors of %dx%d (%,d tiles) in %.1f ms: %,d stocked fixtures, "
+            + "%,d reachable interactable tiles; wrote %s%n", layout.getFloorCount(), rows, cols,
+            (long) layout.getFloorCount() * rows * cols, generated, stocked, reachable, bin);
+    }
+}
@@ -0,0 +1,369 @@
+import java.util.*;
+import java.util.function.IntPredicate;
+
+/**
+ * Shortest walking routes through the store, across all three floors
+ * For a set of target tiles (e.g. the fixtures stocking a product) a BFS runs
+ * backwards from every tile the shopper could stand on to face a target,
+ * giving a distance field with one entry per tile. Stairs count as one step
+ * between floors. Fields are cached per target set (LRU) and dropped when the
+ * simulation's layout version changes, so a repeated query only walks the
+ * field downhill: O(path length). search() walks forwards from one tile instead
+ * and can stop early, for callers that only need a few distances.
+ */
+public class StoreNavigator {
+    private static final int FLOORS = 3;
+    private static final int MAX_CACHED_FIELDS = 32;
+    private static final long MAX_CACHED_ENTRIES = 1L << 24;  // 64 MB of fields, fewer fields on big stores
+    private static final int[][] DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+
+    private final StoreSimulation sim;
+    private final int cols;
+    private final int cells;  // Tiles per floor
+    private final int maxCachedFields;
+    private int cachedLayoutVersion = -1;
+    private byte[] moves;  // Per node: bit d = step DIRECTIONS[d] allowed, STAIRS_BIT = stairs; for search()
+    private int movesLayoutVersion = -1;
+    private static final int STAIRS_BIT = 1 << 4;
+    private final Map<TargetKey, int[]> fields = new LinkedHashMap<TargetKey, int[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TargetKey, int[]> eldest) {
+            return size() > maxCachedFields;
+        }
+    };
+
+    /**
+     * Sorted node ids of a target set, so the same tiles in any order share a field
+     */
+    private static final class TargetKey {
+        private final int[] nodes;
+        private final int hash;
+
+        TargetKey(StoreNavigator navigator, List<int[]> targets) {
+            int[] n = new int[targets.size()];
+            for (int i = 0; i < n.length; i++) {
+                int[] t = targets.get(i);
+                n[i] = navigator.node(t[0], t[1], t[2]);
+            }
+            Arrays.sort(n);
+            this.nodes = n;
+            this.hash = Arrays.hashCode(n);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof TargetKey && Arrays.equals(nodes, ((TargetKey) o).nodes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Scratch for search(): distances and queue of one forward walk, reset lazily
+     * by the next walk. Not thread-safe; give each thread its own
+     */
+    public final class Search {
+        private final int[] dist = new int[getNodeCount()];
+        private final int[] queue = new int[getNodeCount()];
+        private int reached = 0;  // queue[0 .. reached) hold every node whose dist is set
+
+        private Search() {
+            Arrays.fill(dist, -1);
+        }
+
+        /**
+         * Steps from the last search's start to a node, -1 if that search didn't reach it
+         */
+        public int distanceTo(int node) {
+            return dist[node];
+        }
+    }
+
+    public StoreNavigator(StoreSimulation sim) {
+        this.sim = sim;
+        this.cols = sim.getCols();
+        this.cells = sim.getRows() * sim.getCols();
+        this.maxCachedFields = (int) Math.max(1, Math.min(MAX_CACHED_FIELDS, MAX_CACHED_ENTRIES / getNodeCount()));
+    }
+
+    private int node(int floor, int row, int col) {
+        return floor * cells + row * cols + col;
+    }
+
+    /**
+     * Length of a distance field: one entry per tile of every floor
+     */
+    public int getNodeCount() {
+        return FLOORS * cells;
+    }
+
+    /**
+     * Index of a tile in a distance field
+     */
+    public int nodeOf(int floor, int row, int col) {
+        return node(floor, row, col);
+    }
+
+    /**
+     * Tile of a distance field index as [floor, row, col]
+     */
+    public int[] tileOf(int node) {
+        return new int[]{node / cells, (node % cells) / cols, node % cols};
+    }
+
+    /**
+     * Tiles a route may pass through; black tiles teleport, so routes avoid them
+     */
+    private static boolean isStandable(TileType t) {
+        return StoreSimulation.isWalkable(t) && t != TileType.BLACK_TILE;
+    }
+
+    /**
+     * Steps from each tile to the nearest target, -1 where no target can be reached
+     * @param targets Tiles as [floor, row, col]; fixtures are reached by standing next to them
+     */
+    public int[] getDistanceField(List<int[]> targets) {
+        if (cachedLayoutVersion != sim.getLayoutVersion()) {
+            fields.clear();
+            cachedLayoutVersion = sim.getLayoutVersion();
+        }
+        TargetKey key = new TargetKey(this, targets);
+        int[] field = fields.get(key);
+        if (field == null) {
+            field = computeField(key.nodes);
+            fields.put(key, field);
+        }
+        return field;
+    }
+
+    /**
+     * Same as getDistanceField but never cached; only reads the grids, so it is
+     * safe to call from several threads while the layout doesn't change
+     */
+    public int[] computeDistanceField(List<int[]> targets) {
+        return computeField(new TargetKey(this, targets).nodes);
+    }
+
+    private int[] computeField(int[] targets) {
+        int[] dist = new int[getNodeCount()];
+        Arrays.fill(dist, -1);
+        int[] queue = new int[getNodeCount()];
+        int head = 0, tail = 0;
+
+        // Sources: walkable targets themselves, otherwise the tiles next to them
+        for (int target : targets) {
+            int floor = target / cells, row = (target % cells) / cols, col = target % cols;
+            if (isStandable(sim.getTile(floor, row, col))) {
+                if (dist[target] < 0) {
+                    dist[target] = 0;
+                    queue[tail++] = target;
+                }
+                continue;
+            }
+            for (int[] d : DIRECTIONS) {
+                int r = row + d[0], c = col + d[1];
+                if (sim.inBounds(r, c) && isStandable(sim.getTile(floor, r, c)) && dist[node(floor, r, c)] < 0) {
+                    dist[node(floor, r, c)] = 0;
+                    queue[tail++] = node(floor, r, c);
+                }
+            }
+        }
+
+        // Backwards BFS: relax every tile that can step onto the one dequeued
+        while (head < tail) {
+            int v = queue[head++];
+            int floor = v / cells, row = (v % cells) / cols, col = v % cols;
+            TileType tile = sim.getTile(floor, row, col);
+            for (int[] d : DIRECTIONS) {
+                int r = row - d[0], c = col - d[1];
+                if (!sim.inBounds(r, c) || !isStandable(sim.getTile(floor, r, c))) continue;
+                if (!sim.canEnter(tile, floor, row, col, d[0], d[1])) continue;
+                int u = node(floor, r, c);
+                if (dist[u] < 0) {
+                    dist[u] = dist[v] + 1;
+                    queue[tail++] = u;
+                }
+            }
+            int u = stairsFrom(floor, row, col);
+            if (u >= 0 && dist[u] < 0) {
+                dist[u] = dist[v] + 1;
+                queue[tail++] = u;
+            }
+        }
+        return dist;
+    }
+
+    public Search newSearch() {
+        return new Search();
+    }
+
+    /**
+     * Breadth-first walk forwards from one tile (the reverse of a distance field),
+     * offering each tile to stop in order of distance until it accepts one
+     * @return The accepted node, or -1 if every reachable tile was refused
+     */
+    public int search(Search s, int from, IntPredicate stop) {
+        byte[] moves = getMoves();
+        int[] offsets = {-cols, cols, -1, 1};  // Node offset of each of DIRECTIONS
+        for (int i = 0; i < s.reached; i++) {
+            s.dist[s.queue[i]] = -1;
+        }
+        int[] dist = s.dist, queue = s.queue;
+        int head = 0, tail = 0;
+        dist[from] = 0;
+        queue[tail++] = from;
+        try {
+            while (head < tail) {
+                int v = queue[head++];
+                if (stop.test(v)) return v;
+                int m = moves[v];
+                for (int d = 0; d < 4; d++) {
+                    int u = v + offsets[d];
+                    if ((m & 1 << d) != 0 && dist[u] < 0) {
+                        dist[u] = dist[v] + 1;
+                        queue[tail++] = u;
+                    }
+                }
+                if ((m & STAIRS_BIT) != 0) {
+                    int u = v < cells ? v + cells : v - cells;  // Floor 0 <-> Floor 1, same row and col
+                    if (dist[u] < 0) {
+                        dist[u] = dist[v] + 1;
+                        queue[tail++] = u;
+                    }
+                }
+            }
+            return -1;
+        } finally {
+            s.reached = tail;
+        }
+    }
+
+    /**
+     * Moves out of every tile, rebuilt when the layout version changes; one byte per node,
+     * so search() reads one array instead of the grids
+     */
+    private synchronized byte[] getMoves() {
+        if (moves != null && movesLayoutVersion == sim.getLayoutVersion()) {
+            return moves;
+        }
+        byte[] m = new byte[getNodeCount()];
+        for (int floor = 0; floor < FLOORS; floor++) {
+            for (int row = 0; row < sim.getRows(); row++) {
+                for (int col = 0; col < cols; col++) {
+                    int bits = 0;
+                    for (int d = 0; d < 4; d++) {
+                        int r = row + DIRECTIONS[d][0], c = col + DIRECTIONS[d][1];
+                        if (!sim.inBounds(r, c)) continue;
+                        TileType t = sim.getTile(floor, r, c);
+                        if (isStandable(t) && sim.canEnter(t, floor, r, c, DIRECTIONS[d][0], DIRECTIONS[d][1])) {
+                            bits |= 1 << d;
+                        }
+                    }
+                    if (stairsTo(floor, row, col) >= 0) {
+                        bits |= STAIRS_BIT;
+                    }
+                    m[node(floor, row, col)] = (byte) bits;
+                }
+            }
+        }
+        moves = m;
+        movesLayoutVersion = sim.getLayoutVersion();
+        return m;
+    }
+
+    /**
+     * Tile whose stairs lead to (floor, row, col), or -1
+     */
+    private int stairsFrom(int floor, int row, int col) {
+        if (floor == 1 && sim.getTile(0, row, col) == TileType.STAIRS_UP && sim.getTile(1, row, col) != TileType.WALL) {
+            return node(0, row, col);
+        }
+        if (floor == 0 && sim.getTile(1, row, col) == TileType.STAIRS_DOWN && sim.getTile(0, row, col) != TileType.WALL) {
+            return node(1, row, col);
+        }
+        return -1;
+    }
+
+    /**
+     * Tile the stairs at (floor, row, col) lead to, or -1 (mirrors StoreSimulation.useStairs)
+     */
+    private int stairsTo(int floor, int row, int col) {
+        TileType t = sim.getTile(floor, row, col);
+        if (floor == 0 && t == TileType.STAIRS_UP && sim.getTile(1, row, col) != TileType.WALL) {
+            return node(1, row, col);
+        }
+        if (floor == 1 && t == TileType.STAIRS_DOWN && sim.getTile(0, row, col) != TileType.WALL) {
+            return node(0, row, col);
+        }
+        return -1;
+    }
+
+    /**
+     * Steps from a tile to the nearest target, or -1 if unreachable
+     */
+    public int getDistance(int floor, int row, int col, List<int[]> targets) {
+        if (targets.isEmpty()) return -1;
+        return getDistanceField(targets)[node(floor, row, col)];
+    }
+
+    /**
+     * Next tile on a shortest route down a distance field, or -1 at a target or if unreachable
+     */
+    public int nextStep(int[] dist, int current) {
+        if (dist[current] <= 0) return -1;
+        int f = current / cells, r = (current % cells) / cols, c = current % cols;
+        int next = stairsTo(f, r, c);
+        if (next >= 0 && dist[next] == dist[current] - 1) {
+            return next;
+        }
+        for (int[] d : DIRECTIONS) {
+            int nr = r + d[0], nc = c + d[1];
+            if (!sim.inBounds(nr, nc)) continue;
+            int w = node(f, nr, nc);
+            if (dist[w] == dist[current] - 1 && isStandable(sim.getTile(f, nr, nc))
+                    && sim.canEnter(sim.getTile(f, nr, nc), f, nr, nc, d[0], d[1])) {
+                return w;
+            }
+        }
+        return -1;  // Can't happen for a consistent field
+    }
+
+    /**
+     * Target-side end of the shortest route from current, or -1 if unreachable
+     */
+    public int descend(int[] dist, int current) {
+        if (dist[current] < 0) return -1;
+        for (int next = nextStep(dist, current); next >= 0; next = nextStep(dist, next)) {
+            current = next;
+        }
+        return current;
+    }
+
+    /**
+     * Shortest route from a tile to the nearest target, start and end included
+     * @return Tiles as [floor, row, col]; a floor change shows as two tiles with the same row and col; empty if unreachable
+     */
+    public List<int[]> findPath(int floor, int row, int col, List<int[]> targets) {
+        if (targets.isEmpty()) return Collections.emptyList();
+        return findPath(getDistanceField(targets), floor, row, col);
+    }
+
+    /**
+     * Shortest route down a field from getDistanceField, for callers that keep the field
+     * while the shopper moves instead of looking it up by target set on every step
+     */
+    public List<int[]> findPath(int[] dist, int floor, int row, int col) {
+        int current = node(floor, row, col);
+        if (dist[current] < 0) return Collections.emptyList();
+
+        List<int[]> path = new ArrayList<>(dist[current] + 1);
+        path.add(new int[]{floor, row, col});
+        for (int next = nextStep(dist, current); next >= 0; next = nextStep(dist, next)) {
+            path.add(tileOf(next));
+        }
+        return path;
+    }
+}
@@ -0,0 +1,839 @@
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Headless supermarket engine
+ * Owns the floor grids, shopper position and profile, waypoints, NPC timers,
+ * discounts, store/shopper inventories and the buy/return/checkout rules.
+ * Nothing here touches Swing or a display, so it runs with java.awt.headless=true;
+ * TileGrid is a view that forwards input to it and renders its state.
+ */
+public class StoreSimulation {
+    public static final long LOCK_DURATION = 3000;  // 3 seconds lock after talking to Thugger
+    public static final long THUGGER_ABILITY_DURATION = 26000;  // 26 seconds to buy alcohol
+
+    public enum MoveResult {
+        BLOCKED,        // Wall, fixture, NPC, one-way door or locked
+        MOVED,          // Moved one tile on the same floor
+        FLOOR_CHANGED   // Stepped on a black tile and was teleported
+    }
+
+    public enum Interaction {
+        NONE,
+        THUGGER,        // Talked to Thugger (lock and discounts already applied)
+        ATM,
+        SEARCH_KIOSK,
+        BASKET,
+        CART,
+        CASHIER,
+        FIXTURE,        // Shelf/chilled/fridge/table, see getFacingFixtureKey()
+        STAIRS,         // Floor changed by taking the stairs
+        EXIT            // Standing on the exit tile
+    }
+
+    public enum PurchaseResult { OK, AGE_RESTRICTED, INVENTORY_FULL, OUT_OF_STOCK }
+
+    public enum CheckoutResult { OK, EMPTY, INSUFFICIENT_BALANCE }
+
+    public enum ExitResult { OK, HAS_EQUIPMENT, HAS_ITEMS }
+
+    // Copy-on-write views of the StoreLayout's floors, shared with every other simulation
+    // until a tile changes (black tiles come and go); the layout itself gives the entrance, one-way doors and portals
+    private StoreLayout layout;
+    private ChunkedGrid gridFloor0;
+    private ChunkedGrid gridFloor1;
+    private ChunkedGrid gridSecretHallway;
+    private int rows, cols;  // Every floor has the same size, so stairs keep row and col
+    private int currentFloor = 0;  // 0 = Floor 1, 1 = Floor 2, 2 = Secret Hallway
+    private int shopperRow, shopperCol;
+    private int spawnFloor, spawnRow, spawnCol;  // Entrance of this layout
+    private int facingDr = -1, facingDc = 0;  // Facing up initially
+    private final List<int[]> portals = new ArrayList<>();  // {floor, row, col} of every portal ATM
+    private int blackTileFloor = -1, blackTileRow = -1, blackTileCol = -1;  // Portal ATM showing its black tile
+
+    private final Random random;
+    private LongSupplier clock = System::currentTimeMillis;
+    private IntConsumer tileChangeListener = null;  // Notified with the floor whose tiles changed
+    private int layoutVersion = 0;  // Bumped on every tile change, invalidates navigation caches
+    private int fixtureVersion = 0;  // Bumped when a fixture tile changes, invalidates locationIndex
+    private TileLocationIndex locationIndex = null;
+    private StoreNavigator navigator = null;
+    private ShoppingRoutePlanner routePlanner = null;
+
+    // Waypoint tracking
+    private boolean hasWaypoint = false;
+    private List<int[]> waypoints = new ArrayList<>();     // Waypoints on the current floor
+    private List<int[]> allWaypoints = new ArrayList<>();  // Keep full list for floor changes
+    private boolean orderedWaypoints = false;  // Shopping route: visit allWaypoints front to back
+    private int waypointVersion = 0;  // Bumped whenever allWaypoints changes, so views need not compare lists
+
+    // Inventory system
+    private final StoreInventory storeInventory;
+    private ShopperInventory inventory;
+
+    // Player profile data
+    private String playerUsername = "Player";
+    private int playerAge = 18;
+    private double balance = 1000.0;
+    private double bankBalance = 50000.0;
+    private double initialBalance = 1000.0;  // Track starting balance for restart
+
+    // NPC (Thugger) position and interaction state
+    private int npcFloor = -1, npcRow = -1, npcCol = -1;
+    private boolean playerLocked = false;
+    private long lockStartTime = 0;
+    private long thuggerInteractionTime = 0;
+    private boolean isInteractingWithThugger = false;  // Minors may buy alcohol for a while
+    private boolean hasInteractedWithThugger = false;  // Normal-aged players get 50% off
+
+    // Discount system
+    private double discountMultiplier = 1.0;  // 1.0 = no discount, 0.5 = 50% off
+
+    public StoreSimulation() {
+        this(StoreInventory.create(), new Random());
+    }
+
+    /**
+     * @param storeInventory Store stock, may be shared between simulations
+     * @param random Source for black tile placement
+     */
+    public StoreSimulation(StoreInventory storeInventory, Random random) {
+        this.storeInventory = storeInventory;
+        this.inventory = new ShopperInventory(storeInventory);
+        this.random = random;
+        initGrids();
+    }
+
+    private void initGrids() {
+        layout = StoreLayout.getDefault();
+        gridFloor0 = layoutGrid(layout, 0);
+        rows = gridFloor0.getRows();
+        cols = gridFloor0.getCols();
+        gridFloor1 = layoutGrid(layout, 1);
+        gridSecretHallway = layoutGrid(layout, 2);
+        for (int floor = 0; floor < 3; floor++) {
+            for (int[] cell : layout.getFloor(floor).getPortals()) {
+                portals.add(new int[]{floor, cell[0], cell[1]});
+            }
+        }
+
+        // Spawn on the map's entrance; a map without one starts on its lowest door or floor tile
+        int[] entrance = layout.getEntrance();
+        if (entrance != null && entrance[0] < 3) {
+            spawnFloor = entrance[0];
+            spawnRow = entrance[1];
+            spawnCol = entrance[2];
+        } else if (!findSpawn(TileType.DOOR)) {
+            findSpawn(TileType.FLOOR);
+        }
+        currentFloor = spawnFloor;
+        shopperRow = spawnRow;
+        shopperCol = spawnCol;
+
+        int[] npc = layout.getNpc();
+        if (npc != null && npc[0] < 3) {
+            npcFloor = npc[0];
+            npcRow = npc[1];
+            npcCol = npc[2];
+        }
+    }
+
+    /**
+     * Spawn on the lowest, then leftmost ground floor tile of a type
+     * @return false if the floor has none
+     */
+    private boolean findSpawn(TileType type) {
+        for (int r = rows - 1; r >= 0; r--) {
+            for (int c = 0; c < cols; c++) {
+                if (gridFloor0.get(r, c) == type) {
+                    spawnFloor = 0;
+                    spawnRow = r;
+                    spawnCol = c;
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A floor of the layout as a grid; every floor must be the size of the first
+     */
+    private ChunkedGrid layoutGrid(StoreLayout layout, int floor) {
+        if (floor >= layout.getFloorCount()) {
+            throw new IllegalStateException("StoreSimulation: the store layout needs 3 floors, it has " + layout.getFloorCount());
+        }
+        StoreLayout.Floor f = layout.getFloor(floor);
+        if (floor > 0 && (f.getRows() != rows || f.getCols() != cols)) {
+            throw new IllegalStateException("StoreSimulation: floor " + f.getName() + " is " + f.getRows() + "x"
+                + f.getCols() + ", the first floor is " + rows + "x" + cols);
+        }
+        return f.toChunkedGrid();
+    }
+
+    // ===================== SETUP =====================
+
+    public void setPlayerProfile(String username, int age, double startingBalance, double bankBalance) {
+        this.playerUsername = username;
+        this.playerAge = age;
+        this.balance = startingBalance;
+        this.initialBalance = startingBalance;
+        this.bankBalance = bankBalance;
+    }
+
+    /**
+     * {floor, row, col} of the layout's NPC (blocks movement and can be talked to), or null if it has none
+     */
+    public int[] getNpcPosition() {
+        return npcFloor < 0 ? null : new int[]{npcFloor, npcRow, npcCol};
+    }
+
+    /**
+     * Replace the time source (milliseconds), e.g. a simulated clock for batch runs
+     */
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public void setTileChangeListener(IntConsumer listener) {
+        this.tileChangeListener = listener;
+    }
+
+    // ===================== GRID / POSITION =====================
+
+    public ChunkedGrid getGrid(int floor) {
+        if (floor == 0) return gridFloor0;
+        else if (floor == 1) return gridFloor1;
+        else return gridSecretHallway;
+    }
+
+    public TileType getTile(int floor, int row, int col) {
+        return getGrid(floor).get(row, col);
+    }
+
+    public boolean inBounds(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Place the shopper directly, e.g. when a Board owns movement
+     */
+    public void setShopperPosition(int row, int col) {
+        shopperRow = row;
+        shopperCol = col;
+    }
+
+    public int getCurrentFloor() { return currentFloor; }
+    public int getShopperRow() { return shopperRow; }
+    public int getShopperCol() { return shopperCol; }
+    public int getFacingDr() { return facingDr; }
+    public int getFacingDc() { return facingDc; }
+
+    public TileType getCurrentTile() {
+        return getTile(currentFloor, shopperRow, shopperCol);
+    }
+
+    /**
+     * Tile the shopper is facing, or null if it is outside the grid
+     */
+    public TileType getFacingTile() {
+        int r = shopperRow + facingDr, c = shopperCol + facingDc;
+        return inBounds(r, c) ? getTile(currentFloor, r, c) : null;
+    }
+
+    public int getFacingRow() { return shopperRow + facingDr; }
+    public int getFacingCol() { return shopperCol + facingDc; }
+
+    /**
+     * TileInventory key of the fixture being faced ("shelf", "chilled", "ref", "table") or null
+     */
+    public String getFacingFixtureKey() {
+        return fixtureKey(getFacingTile());
+    }
+
+    public static String fixtureKey(TileType t) {
+        if (t == TileType.SHELF) return "shelf";
+        else if (t == TileType.CHILLED) return "chilled";
+        else if (t == TileType.FRIDGE) return "ref";
+        else if (t == TileType.TABLE) return "table";
+        return null;
+    }
+
+    public boolean isNpcAt(int floor, int row, int col) {
+        return npcFloor == floor && npcRow == row && npcCol == col;
+    }
+
+    // ===================== SIMULATION STEP =====================
+
+    /**
+     * Advance timers: release the NPC lock and expire the Thugger alcohol ability
+     */
+    public void step() {
+        long now = clock.getAsLong();
+        if (playerLocked && now - lockStartTime >= LOCK_DURATION) {
+            playerLocked = false;  // Unlock after 3 seconds
+        }
+        if (isInteractingWithThugger && now - thuggerInteractionTime >= THUGGER_ABILITY_DURATION) {
+            isInteractingWithThugger = false;  // Disable alcohol purchase
+        }
+    }
+
+    public boolean isPlayerLocked() {
+        step();
+        return playerLocked;
+    }
+
+    /**
+     * Turn to face a direction without moving
+     */
+    public void face(int dr, int dc) {
+        facingDr = dr;
+        facingDc = dc;
+    }
+
+    /**
+     * Face (dr, dc) and try to step one tile in that direction
+     */
+    public MoveResult move(int dr, int dc) {
+        if (isPlayerLocked()) {
+            return MoveResult.BLOCKED;
+        }
+        face(dr, dc);
+
+        int nr = shopperRow + dr, nc = shopperCol + dc;
+        if (!inBounds(nr, nc)) {
+            return MoveResult.BLOCKED;
+        }
+        // Can't move through NPC
+        if (isNpcAt(currentFloor, nr, nc)) {
+            return MoveResult.BLOCKED;
+        }
+
+        TileType target = getTile(currentFloor, nr, nc);
+        if (!canEnter(target, currentFloor, nr, nc, dr, dc)) {
+            return MoveResult.BLOCKED;
+        }
+
+        shopperRow = nr;
+        shopperCol = nc;
+
+        if (target == TileType.BLACK_TILE) {
+            int[] landing = layout.getFloor(currentFloor).getPortalTarget(nr, nc);
+            if (landing != null && landing[0] < 3) {
+                // Portal ATM (into the secret hallway) - teleport to where it leads
+                setFloor(landing[0]);
+                shopperRow = landing[1];
+                shopperCol = landing[2];
+            } else {
+                // Any other black tile (the secret hallway's) - teleport back to the entrance
+                setFloor(spawnFloor);
+                regenerateBlackTile();
+                shopperRow = spawnRow;
+                shopperCol = spawnCol;
+            }
+            return MoveResult.FLOOR_CHANGED;
+        }
+
+        // Waypoints are fixtures, so they count as reached once the shopper is next to one
+        if (hasWaypoint && orderedWaypoints) {
+            int[] next = allWaypoints.get(0);
+            if (next[0] == currentFloor && Math.abs(shopperRow - next[1]) + Math.abs(shopperCol - next[2]) == 1) {
+                allWaypoints.remove(0);
+                waypointVersion++;
+                if (allWaypoints.isEmpty()) {
+                    clearWaypoints();
+                } else {
+                    filterWaypoints();
+                }
+            }
+        } else if (hasWaypoint && !waypoints.isEmpty()) {
+            for (int[] wp : waypoints) {
+                if (Math.abs(shopperRow - wp[1]) + Math.abs(shopperCol - wp[2]) == 1) {
+                    clearWaypoints();
+                    break;
+                }
+            }
+        }
+        return MoveResult.MOVED;
+    }
+
+    /**
+     * Whether a tile can be stepped onto from the tile at (row - dr, col - dc);
+     * the layout's one-way doors and exits are only entered moving their way
+     */
+    public boolean canEnter(TileType target, int floor, int row, int col, int dr, int dc) {
+        return isWalkable(target) && layout.getFloor(floor).canEnter(row, col, dr, dc);
+    }
+
+    /**
+     * Move {dr, dc} a one-way door or exit is entered with, or null if it has none
+     */
+    public int[] getOneWay(int floor, int row, int col) {
+        return layout.getFloor(floor).getOneWay(row, col);
+    }
+
+    /**
+     * {floor, row, col} shoppers start on and return to from the secret hallway
+     */
+    public int[] getEntrance() {
+        return new int[]{spawnFloor, spawnRow, spawnCol};
+    }
+
+    public static boolean isWalkable(TileType t) {
+        return t == TileType.FLOOR || t == TileType.SECRETFLOOR || t == TileType.STAIRS_UP
+            || t == TileType.STAIRS_DOWN || t == TileType.DOOR || t == TileType.EXIT
+            || t == TileType.BLACK_TILE;
+    }
+
+    /**
+     * Handle the ENTER key outside of menus: talk to the NPC, classify the faced
+     * tile, or take the stairs / exit from the tile the shopper stands on
+     */
+    public Interaction interact() {
+        if (npcFloor == currentFloor && isNpcAt(currentFloor, getFacingRow(), getFacingCol())) {
+            interactWithThugger();
+            return Interaction.THUGGER;
+        }
+
+        TileType facing = getFacingTile();
+        if (facing == TileType.ATM) return Interaction.ATM;
+        if (facing == TileType.SEARCH) return Interaction.SEARCH_KIOSK;
+        if (facing == TileType.BASKET) return Interaction.BASKET;
+        if (facing == TileType.CART) return Interaction.CART;
+        if (facing == TileType.CASHIER) return Interaction.CASHIER;
+        String key = fixtureKey(facing);
+        if (key != null && TileInventory.isInteractable(key)) {
+            return Interaction.FIXTURE;
+        }
+
+        if (useStairs()) {
+            return Interaction.STAIRS;
+        }
+        if (getCurrentTile() == TileType.EXIT && currentFloor == 0) {
+            return Interaction.EXIT;
+        }
+        return Interaction.NONE;
+    }
+
+    private void interactWithThugger() {
+        long now = clock.getAsLong();
+        playerLocked = true;
+        lockStartTime = now;
+        thuggerInteractionTime = now;  // Track when Thugger interaction started
+        isInteractingWithThugger = true;
+        // Normal-aged players (18-59) get a permanent 50% discount on all products
+        if (playerAge >= 18 && playerAge < 60) {
+            hasInteractedWithThugger = true;
+        }
+    }
+
+    /**
+     * 50% discount granted once Thugger's song has finished playing
+     */
+    public void applySongDiscount() {
+        discountMultiplier = 0.5;
+    }
+
+    /**
+     * Take the stairs from the current tile
+     * @return true if the floor changed
+     */
+    public boolean useStairs() {
+        TileType t = getCurrentTile();
+        if (t == TileType.STAIRS_UP && currentFloor == 0) {
+            if (gridFloor1.get(shopperRow, shopperCol) != TileType.WALL) {
+                setFloor(1);
+                return true;
+            }
+        } else if (t == TileType.STAIRS_DOWN && currentFloor == 1) {
+            if (gridFloor0.get(shopperRow, shopperCol) != TileType.WALL) {
+                setFloor(0);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Switch floors; entering a floor with portal ATMs re-rolls the black tile
+     */
+    public void setFloor(int floor) {
+        currentFloor = floor;
+        for (int[] portal : portals) {
+            if (portal[0] == floor) {
+                regenerateBlackTile();
+                break;
+            }
+        }
+        filterWaypoints();
+    }
+
+    public void regenerateBlackTile() {
+        // Turn the previous black tile back into its ATM
+        if (blackTileFloor != -1 && getTile(blackTileFloor, blackTileRow, blackTileCol) == TileType.BLACK_TILE) {
+            setTile(blackTileFloor, blackTileRow, blackTileCol, TileType.ATM);
+        }
+
+        // 10% chance that one of the layout's portal ATMs shows a black tile
+        int[] portal = !portals.isEmpty() && random.nextDouble() < 0.1
+            ? portals.get((int) (random.nextDouble() * portals.size())) : null;
+        if (portal != null && getTile(portal[0], portal[1], portal[2]) == TileType.ATM) {
+            blackTileFloor = portal[0];
+            blackTileRow = portal[1];
+            blackTileCol = portal[2];
+            setTile(blackTileFloor, blackTileRow, blackTileCol, TileType.BLACK_TILE);
+        } else {
+            blackTileFloor = -1;
+            blackTileRow = -1;
+            blackTileCol = -1;
+        }
+    }
+
+    /**
+     * Change one tile; a swap that touches no fixture keeps the location index
+     */
+    private void setTile(int floor, int row, int col, TileType type) {
+        ChunkedGrid grid = getGrid(floor);
+        TileType old = grid.get(row, col);
+        if (old == type) return;
+        grid.set(row, col, type);
+        layoutVersion++;
+        if (fixtureKey(old) != null || fixtureKey(type) != null) {
+            fixtureVersion++;
+        }
+        if (tileChangeListener != null) {
+            tileChangeListener.accept(floor);
+        }
+    }
+
+    public int getLayoutVersion() {
+        return layoutVersion;
+    }
+
+    /**
+     * Product-to-tile index of the current layout, rebuilt lazily after fixture tiles change
+     */
+    public TileLocationIndex getLocationIndex() {
+        if (locationIndex == null || locationIndex.getFixtureVersion() != fixtureVersion) {
+            locationIndex = new TileLocationIndex(
+                new ChunkedGrid[]{gridFloor0, gridFloor1, gridSecretHallway}, fixtureVersion);
+        }
+        return locationIndex;
+    }
+
+    /**
+     * Route finder over this simulation's grids, sharing its cached distance fields
+     */
+    public StoreNavigator getNavigator() {
+        if (navigator == null) {
+            navigator = new StoreNavigator(this);
+        }
+        return navigator;
+    }
+
+    public ShoppingRoutePlanner getRoutePlanner() {
+        if (routePlanner == null) {
+            routePlanner = new ShoppingRoutePlanner(this);
+        }
+        return routePlanner;
+    }
+
+    /**
+     * Order a shopping list into a walk from the shopper's tile to a cashier
+     */
+    public ShoppingRoutePlanner.Route planShoppingRoute(List<String> productIds) {
+        return getRoutePlanner().plan(currentFloor, shopperRow, shopperCol, productIds);
+    }
+
+    /**
+     * Shortest route from the shopper to the nearest tile of targets ([floor, row, col], any floor)
+     */
+    public List<int[]> findRouteTo(List<int[]> targets) {
+        return getNavigator().findPath(currentFloor, shopperRow, shopperCol, targets);
+    }
+
+    // ===================== WAYPOINTS =====================
+
+    /**
+     * Set waypoints from a search, format [floor, row, col]
+     */
+    public void setWaypoints(List<int[]> all) {
+        hasWaypoint = true;
+        orderedWaypoints = false;
+        allWaypoints = new ArrayList<>(all);
+        waypointVersion++;
+        filterWaypoints();
+    }
+
+    /**
+     * Set a shopping route: waypoints are visited in order and each is dropped once reached
+     */
+    public void setOrderedWaypoints(List<int[]> route) {
+        if (route.isEmpty()) {
+            clearWaypoints();
+            return;
+        }
+        setWaypoints(route);
+        orderedWaypoints = true;
+    }
+
+    public boolean hasOrderedWaypoints() {
+        return hasWaypoint && orderedWaypoints;
+    }
+
+    /**
+     * Tiles the shopper should head for next: the first stop of a route, otherwise every waypoint
+     */
+    public List<int[]> getNextTargets() {
+        if (!hasWaypoint || allWaypoints.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return orderedWaypoints ? allWaypoints.subList(0, 1) : allWaypoints;
+    }
+
+    public void clearWaypoints() {
+        hasWaypoint = false;
+        orderedWaypoints = false;
+        waypoints.clear();
+        allWaypoints.clear();
+        waypointVersion++;
+    }
+
+    public boolean hasWaypoint() {
+        return hasWaypoint;
+    }
+
+    public int getWaypointVersion() {
+        return waypointVersion;
+    }
+
+    /**
+     * Waypoints on every floor
+     */
+    public List<int[]> getAllWaypoints() {
+        return allWaypoints;
+    }
+
+    /**
+     * Waypoints on the current floor
+     */
+    public List<int[]> getWaypoints() {
+        return waypoints;
+    }
+
+    private void filterWaypoints() {
+        if (hasWaypoint && !allWaypoints.isEmpty()) {
+            waypoints = new ArrayList<>();
+            for (int[] wp : allWaypoints) {
+                if (wp[0] == currentFloor) {
+                    waypoints.add(wp);
+                }
+            }
+        }
+    }
+
+    // ===================== SHOPPING =====================
+
+    public StoreInventory getStoreInventory() { return storeInventory; }
+    public ShopperInventory getInventory() { return inventory; }
+
+    /**
+     * Buy a catalog product at its listed price; discounts and age rules are applied here
+     */
+    public PurchaseResult buy(Product product, int quantity) {
+        return buy(product.getId(), product.getName(), quantity, product.getPrice());
+    }
+
+    /**
+     * Buy a product at its base price; discounts and age rules are applied here
+     */
+    public PurchaseResult buy(String productId, String productName, int quantity, double basePrice) {
+        if (!canBuyProduct(productId)) {
+            return PurchaseResult.AGE_RESTRICTED;
+        }
+        if (quantity > inventory.getAvailableCapacity()) {
+            return PurchaseResult.INVENTORY_FULL;
+        }
+        double discountedPrice = calculateEffectivePrice(productId, basePrice);
+        if (!inventory.addProduct(productId, productName, quantity, discountedPrice, basePrice)) {
+            return PurchaseResult.OUT_OF_STOCK;
+        }
+        return PurchaseResult.OK;
+    }
+
+    /**
+     * Return products to the store
+     */
+    public boolean returnProduct(Product product, int quantity) {
+        return inventory.removeProduct(product.getId(), quantity);
+    }
+
+    /**
+     * Pay for everything in the inventory; the receipt is kept in the shopper inventory
+     */
+    public CheckoutResult checkout() {
+        if (inventory.isEmpty()) {
+            return CheckoutResult.EMPTY;
+        }
+        double totalPrice = inventory.getTotalPrice();
+        if (balance < totalPrice) {
+            return CheckoutResult.INSUFFICIENT_BALANCE;
+        }
+        // Generate receipt only after successful balance check
+        inventory.generateReceipt();
+        balance -= totalPrice;
+        inventory.checkout();
+        return CheckoutResult.OK;
+    }
+
+    public ExitResult canExit() {
+        if (inventory.getEquipment() != ShopperInventory.EquipmentType.HANDS) {
+            return ExitResult.HAS_EQUIPMENT;
+        }
+        if (!inventory.isEmpty()) {
+            return ExitResult.HAS_ITEMS;
+        }
+        return ExitResult.OK;
+    }
+
+    public boolean hasEquipped(ShopperInventory.EquipmentType type) {
+        return inventory.isEquipmentEquipped() && inventory.getEquipment() == type;
+    }
+
+    public void equip(ShopperInventory.EquipmentType type) {
+        inventory.setEquipment(type);
+        inventory.equipCurrentEquipment();
+    }
+
+    /**
+     * Return the basket/cart; with forfeitItems the carried items are dropped
+     */
+    public void returnEquipment(boolean forfeitItems) {
+        if (forfeitItems) {
+            inventory.clear();
+        }
+        inventory.returnEquipment();
+    }
+
+    // ===================== MONEY =====================
+
+    public String getPlayerUsername() { return playerUsername; }
+    public int getPlayerAge() { return playerAge; }
+    public double getBalance() { return balance; }
+    public double getBankBalance() { return bankBalance; }
+    public double getDiscountMultiplier() { return discountMultiplier; }
+
+    /**
+     * Move money from the bank to the wallet
+     */
+    public boolean withdraw(double amount) {
+        if (amount > 0 && amount <= bankBalance) {
+            bankBalance -= amount;
+            balance += amount;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reset position, inventories, discounts and profile for a new session; the
+     * cart's units go back to the store, which keeps its stock (it may be shared)
+     */
+    public void restart() {
+        shopperRow = spawnRow;
+        shopperCol = spawnCol;
+        facingDr = -1;
+        facingDc = 0;
+        currentFloor = spawnFloor;
+
+        for (InventoryItem item : new ArrayList<>(inventory.getItems())) {
+            inventory.removeProduct(item.getBaseProductId(), item.getQuantity());
+        }
+        inventory = new ShopperInventory(storeInventory);
+
+        playerAge = 18;
+        playerUsername = "Player";
+        isInteractingWithThugger = false;
+        hasInteractedWithThugger = false;
+        thuggerInteractionTime = 0;
+        playerLocked = false;
+        discountMultiplier = 1.0;
+        balance = initialBalance;
+
+        clearWaypoints();
+    }
+
+    // ===================== PRICING RULES =====================
+
+    /**
+     * Determine if product can be purchased based on age
+     */
+    public boolean canBuyProduct(String productId) {
+        return canBuyProduct(ProductCategory.of(productId));
+    }
+
+    private boolean canBuyProduct(ProductCategory category) {
+        if (playerAge < 18 && category != null && category.isAgeRestricted()) {
+            // Players under 18 cannot buy Alcohol or Cleaning Agents
+            // UNLESS they are interacting with Thugger (who sells alcohol to minors)
+            step();
+            return isInteractingWithThugger && category != ProductCategory.CLEANING;
+        }
+        return true;
+    }
+
+    /**
+     * Calculate effective price considering age restrictions and senior discounts
+     */
+    public double calculateEffectivePrice(String productId, double basePrice) {
+        ProductCategory category = ProductCategory.of(productId);
+        // First check age restriction
+        if (!canBuyProduct(category)) {
+            return -1;  // Indicate purchase not allowed
+        }
+
+        double price = basePrice;
+
+        // Apply Thugger song discount (50%)
+        price *= discountMultiplier;
+
+        // Apply 50% discount for normal-aged players who have interacted with Thugger
+        if (hasInteractedWithThugger) {
+            price *= 0.5;  // 50% off all products
+        }
+
+        // Senior citizens (60+): food 20% off, beverages 10% off, nothing off alcohol or non-food
+        if (playerAge >= 60 && category != null) {
+            price *= category.getSeniorDiscountMultiplier();
+        }
+
+        return price;
+    }
+
+    // ===================== RETURNS =====================
+
+    /**
+     * Get returnable products for a tile - returns list of products in player's inventory
+     * that are also sold at the given tile (one index probe per tile product)
+     */
+    public List<Product> getReturnableProducts(String tileKey, int row, int col, int floor) {
+        List<Product> returnable = new ArrayList<>();
+        Product[] tileProducts = TileInventory.getProductsForTile(tileKey, row, col, floor);
+
+        for (Product product : tileProducts) {
+            if (inventory.getProductQuantityById(product.getId()) > 0) {
+                returnable.add(product);
+            }
+        }
+        return returnable;
+    }
+}
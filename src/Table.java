@@ -1,7 +1,7 @@
 
 
 import java.util.*;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class Table {
     private final List<Item> items = new ArrayList<>();
@@ -10,6 +10,19 @@ public class Table {
         randomizedTable();
     }
 
+    /**
+     * Stocked with the given products, 10 units each (the default assortment if there are none)
+     */
+    public Table(Product[] products) {
+        if (products.length == 0) {
+            randomizedTable();
+            return;
+        }
+        for (Product p : products) {
+            addItem(p.getName(), p.getId(), 10, p.getPrice());
+        }
+    }
+
     public void addItem(String name, String category, int qty) {
         addItem(name, category, qty, 1.0);
     }
@@ -56,33 +69,26 @@ public class Table {
         return items;
     }
 
+    // Categories a table can be stocked with
+    private static final ProductCategory[] ASSORTMENTS = {
+        ProductCategory.FRUIT, ProductCategory.VEGETABLE, ProductCategory.BREAD, ProductCategory.EGGS
+    };
+
     public void randomizedTable() {
         items.clear();
 
-        int number;
-        Random num = new Random();
-        number = num.nextInt(4);
-      
-        if (number == 0) {
-            addItem("Mango", "FRU00001", 10, 48.00);
-            addItem("Apple", "FRU00002", 10, 65.00);
-            addItem("Banana", "FRU00003", 10, 35.00);
-            addItem("Orange", "FRU00004", 10, 45.00);
-        } else if (number == 1) {
-            addItem("Cabbage", "Veg00001", 10, 28.00);
-            addItem("Lettuce", "Veg00002", 10, 32.00);
-            addItem("Broccoli", "Veg00003", 10, 55.00);
-            addItem("Carrot", "Veg00004", 10, 25.00);
-        } else if (number == 2) {
-            addItem("Baguette", "BRD00001", 10, 35.00);
-            addItem("Croissant", "BRD00002", 10, 42.00);
-            addItem("Bagel", "BRD00003", 10, 38.00);
-            addItem("Pandesal", "BRD00004", 10, 12.00);
-        } else {
-            addItem("Brown", "EGG00001", 10, 180.00);
-            addItem("Quail", "EGG00002", 10, 150.00);
-            addItem("Free-range", "EGG00003", 10, 220.00);
-            addItem("Egg White", "EGG00004", 10, 85.00);
+        int number = ThreadLocalRandom.current().nextInt(ASSORTMENTS.length);
+        addProducts(ASSORTMENTS[number], 4);
+    }
+
+    /**
+     * Stock the first count catalog products of a category, 10 units each
+     */
+    private void addProducts(ProductCategory category, int count) {
+        List<Product> products = StoreInventory.getDefaultCatalog().getProducts(category);
+        for (int i = 0; i < count && i < products.size(); i++) {
+            Product p = products.get(i);
+            addItem(p.getName(), p.getId(), 10, p.getPrice());
         }
     }
 
@@ -0,0 +1,118 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Differential ANSI renderer for a grid of fixed-width console cells
+ * Callers fill the back frame with setCell and call present(); only cells that
+ * differ from the previous frame are written, each after a cursor-positioning
+ * escape (skipped when the cursor is already there). A frame is assembled in
+ * one reusable char buffer and sent with a single write and flush.
+ */
+public class TerminalRenderer {
+    private static final String ESC = "\u001B[";
+
+    private final int rows;
+    private final int cols;
+    private final int cellWidth;
+    private final Writer out;
+
+    private final String[] front;  // What the terminal shows, row * cols + col
+    private final String[] back;   // Frame being built
+    private char[] buffer = new char[4096];
+    private int length;
+    private boolean fullRedraw = true;
+
+    /**
+     * @param cellWidth Visible characters per cell, e.g. 4 for "[##]"
+     */
+    public TerminalRenderer(OutputStream out, int rows, int cols, int cellWidth) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        this.rows = rows;
+        this.cols = cols;
+        this.cellWidth = cellWidth;
+        this.front = new String[rows * cols];
+        this.back = new String[rows * cols];
+    }
+
+    /**
+     * Set a cell of the next frame; content may contain color codes but must show cellWidth characters
+     */
+    public void setCell(int row, int col, String content) {
+        back[row * cols + col] = content;
+    }
+
+    /**
+     * Clear the screen and redraw every cell on the next present(), e.g. after other output scrolled it
+     */
+    public void invalidate() {
+        fullRedraw = true;
+    }
+
+    /**
+     * Write the cells that changed since the last frame and leave the cursor below the grid
+     */
+    public void present() throws IOException {
+        length = 0;
+        if (fullRedraw) {
+            append(ESC + "2J");
+            Arrays.fill(front, null);
+            fullRedraw = false;
+        }
+
+        int cursor = -1;  // Cell the cursor sits in front of, -1 if unknown
+        boolean changed = false;
+        for (int i = 0; i < back.length; i++) {
+            String cell = back[i];
+            if (cell == null || cell.equals(front[i])) continue;
+            if (!changed) {
+                append(ESC + "?25l");  // Hide the cursor while drawing
+                changed = true;
+            }
+            if (cursor != i) {
+                moveTo(i / cols, i % cols);
+            }
+            append(cell);
+            front[i] = cell;
+            cursor = (i + 1) % cols == 0 ? -1 : i + 1;
+        }
+        if (!changed) return;
+
+        moveTo(rows, 0);
+        append(ESC + "?25h");
+        out.write(buffer, 0, length);
+        out.flush();
+    }
+
+    private void moveTo(int row, int col) {
+        append(ESC);
+        appendInt(row + 1);
+        append(';');
+        appendInt(col * cellWidth + 1);
+        append('H');
+    }
+
+    private void append(String s) {
+        ensureCapacity(s.length());
+        s.getChars(0, s.length(), buffer, length);
+        length += s.length();
+    }
+
+    private void append(char c) {
+        ensureCapacity(1);
+        buffer[length++] = c;
+    }
+
+    private void appendInt(int n) {
+        if (n >= 10) {
+            appendInt(n / 10);
+        }
+        append((char) ('0' + n % 10));
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+}
@@ -1,28 +1,35 @@
 
 
-public class Tile {
-	
-	private String type;
-    private String symbol;
-	private String color;
-    private boolean walkable;
-
-    private Table table;
-    private Ref ref;
-    private Shelf shelf;
-
-    public Tile(String type, boolean walkable, String symbol, String color) {
+/**
+ * Immutable tile kind of the console Board. One shared instance exists per
+ * kind; per-cell fixture stock lives in the Board, not in the tile.
+ */
+public final class Tile {
+
+	public static final Tile EMPTY = new Tile("empty", true, "[  ]", Colors.WHITE);
+	public static final Tile WALL = new Tile("wall", false, "[##]", Colors.RED);
+	public static final Tile DOOR = new Tile("door", false, "[  ]", Colors.VIOLET);
+	public static final Tile REF = new Tile("ref", false, "[**]", Colors.BLUE);
+	public static final Tile SHELF = new Tile("shelf", false, "[**]", Colors.YELLOW);
+	public static final Tile TABLE = new Tile("table", false, "[**]", Colors.GREEN);
+	public static final Tile LADDER = new Tile("ladder", false, "[//]", Colors.VIOLET);
+	public static final Tile SEARCH = new Tile("search", false, "[*i]", Colors.VIOLET);
+	public static final Tile COUNTER = new Tile("counter", false, "[$$]", Colors.VIOLET);
+	public static final Tile BASKET = new Tile("basket", false, "[BT]", Colors.VIOLET);
+	public static final Tile CART = new Tile("cart", false, "[CT]", Colors.VIOLET);
+
+	private final String type;
+    private final String symbol;
+	private final String color;
+    private final boolean walkable;
+	private final String combinedContent;
+
+    private Tile(String type, boolean walkable, String symbol, String color) {
         this.type = type;
         this.walkable = walkable;
         this.symbol = symbol;
 		this.color = color;
-        if (type.equals("table")) {
-            this.table = new Table();
-        } else if (type.equals("ref")) {
-            this.ref = new Ref();
-        } else if (type.equals("shelf")) {
-            this.shelf = new Shelf();
-        }
+		this.combinedContent = color + symbol + Colors.RESET;
     }
 
     public String getType() {
@@ -37,32 +44,12 @@ public class Tile {
         return symbol;
     }
 
-    public void setSymbol(String symbol) {
-        this.symbol = symbol;
-    }
-
 	public String getColor() {
 		return color;
 	}
 
-	public void setColor(String color) {
-        this.color = color;
-    } 
-
 	public String getCombinedContent() {
-		return color + symbol + Colors.RESET;
+		return combinedContent;
 	}
 
-    public Table getTable() { 
-        return table; 
-    }
-
-    public Ref getRef() { 
-        return ref; 
-    }
-
-    public Shelf getShelf() { 
-        return shelf; 
-    }
-
-}
\ No newline at end of file
+}
@@ -1,19 +1,19 @@
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.BufferedImage;
 import javax.swing.*;
 import javax.sound.sampled.*;
 import java.io.File;
 
 public class TileGrid extends JPanel {
-    private static final int SIZE = 22;
+    private static final int VIEW_TILES = 22;  // Default viewport size; the camera scrolls over bigger floors
     private static final int CELL = 28;
+    private static final int SCROLL_MARGIN = 5;  // Tiles kept between the shopper and the viewport edge
+    private static final int VISION_RADIUS = 8;  // Sight radius in tiles when fog is on
+    private static final Color FOG = new Color(10, 10, 15, 235);
 
-    private TileType[][] gridFloor0;
-    private TileType[][] gridFloor1;
-    private TileType[][] gridSecretHallway;
-    private int currentFloor = 0;  // 0 = Floor 1, 1 = Floor 2, 2 = Secret Hallway
-    private int shopperRow = 21, shopperCol = 11;
-    private int blackTileRow = -1, blackTileCol = -1;  // Position of black tile ATM
+    // Grids, shopper state and store rules; this panel only renders and handles dialogs
+    private final StoreSimulation sim;
 
     private JLabel status;
     private Player player;
@@ -21,25 +21,55 @@ public class TileGrid extends JPanel {
     private Timer repaintTimer;
     private Board board = null;
 
+    // Camera: world pixel shown at the panel's top-left corner
+    private int camX = 0;
+    private int camY = 0;
+
+    // Pre-rendered static tiles in BLOCK x BLOCK blocks, least recently drawn dropped first.
+    // Blocks inside a uniform chunk of the grid share one image per tile type.
+    private static final int BLOCK = 16;  // Divides ChunkedGrid.CHUNK
+    private static final int MAX_CACHED_BLOCKS = 48;
+    private final java.util.Map<Long, BufferedImage> blockCache =
+        new java.util.LinkedHashMap<Long, BufferedImage>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(java.util.Map.Entry<Long, BufferedImage> eldest) {
+                return size() > Math.max(MAX_CACHED_BLOCKS, 2 * blocksInView());
+            }
+        };
+
+    // Partial repaint scheduling for the animation timer and movement
+    private DirtyRegionTracker dirtyRegions;
+    private static final int HUD_HEIGHT = 44;  // Floor/equipment/balance/help strip at the top
+    private int lastHudQuantity = -1;
+    private ShopperInventory.EquipmentType lastHudEquipment = null;
+    private double lastHudBalance = Double.NaN;
+    private java.util.List<int[]> route = java.util.Collections.emptyList();  // Shortest path to the nearest waypoint
+    // What the route was computed from, see updateRoute()
+    private Object routeSource = null;
+    private int routeSourceVersion = 0;
+    private boolean routeOrdered = false;
+    private int routeLayoutVersion = -1;
+    private int[] routeField = null;  // Distance field of the current targets, null = no targets
+    private int routeFloor = -1, routeRow = -1, routeCol = -1;
+    private String lastDialogueText = null;
+
+    // Fog of war: per-floor field of view over the walkability grid (F toggles it; a Board uses its own vision)
+    private final FieldOfView[] fieldsOfView = new FieldOfView[3];
+    private int fovLayoutVersion = -1;
+    private boolean fogEnabled = false;
+    private FieldOfView.View lastView = null;
+
     private TileImageLoader imageLoader;
     private InteractionMenu menu = null;
     private SearchKiosk searchKiosk = null;
-    private int facingDr = -1, facingDc = 0;  // Facing up initially
-    
-    // Waypoint tracking
-    private boolean hasWaypoint = false;
-    private java.util.List<int[]> waypoints = new java.util.ArrayList<>();
-    private java.util.List<int[]> allWaypoints = new java.util.ArrayList<>();  // Keep full list for floor changes
     
     // Return product tracking
     private int currentTileRow = -1;
     private int currentTileCol = -1;
-    private java.util.List<String> currentReturnableProducts = new java.util.ArrayList<>();
+    private java.util.List<Product> currentReturnableProducts = new java.util.ArrayList<>();
     private boolean isProcessingReturn = false;
 
-    // Inventory system
-    private StoreInventory storeInventory;
-    private ShopperInventory inventory;
+    // Inventory display
     private InventoryDisplay inventoryDisplay = null;
     private int receiptScrollOffset = 0;  // Track scroll position for receipt
     private QuantityInputPanel quantityInputPanel = null;
@@ -47,28 +77,11 @@ public class TileGrid extends JPanel {
     private ReturnProductPanel returnProductPanel = null;
     
     // Product selection state
-    private String lastSelectedProductId = null;
-    private String lastSelectedProductName = null;
-    private double lastSelectedProductPrice = 0.0;
+    private Product lastSelectedProduct = null;
     
-    // NPC interaction state
-    private boolean playerLocked = false;
-    private long lockStartTime = 0;
-    private static final long LOCK_DURATION = 3000;  // 3 seconds lock animation
-    private static final long THUGGER_ABILITY_DURATION = 26000;  // 26 seconds to buy alcohol
-    private long thuggerInteractionTime = 0;
+    // NPC dialogue bubble
     private String dialogueText = null;
     private long dialogueStartTime = 0;
-    private boolean isInteractingWithThugger = false;  // Track if currently interacting with Thugger
-    private boolean hasInteractedWithThugger = false;  // Track if normal-aged player has interacted with Thugger (gives 50% discount)
-    
-    // Discount system
-    private double discountMultiplier = 1.0;  // 1.0 = no discount, 0.5 = 50% off
-    
-    // Player profile data
-    private String playerUsername = "Player";
-    private int playerAge = 18;
-    private double initialBalance = 1000.0;  // Track starting balance for restart
     
     // ATM interaction
     private ATMMenu atmMenu = null;
@@ -81,11 +94,10 @@ public class TileGrid extends JPanel {
     public TileGrid(JLabel status) {
         this.status = status;
         this.imageLoader = new TileImageLoader();
-        this.storeInventory = new StoreInventory();
-        this.inventory = new ShopperInventory(storeInventory);
+        this.sim = new StoreSimulation();
+        sim.setTileChangeListener(this::invalidateFloorLayer);  // e.g. black tile swapped on Floor 2
 
-        setPreferredSize(new Dimension(SIZE * CELL, SIZE * CELL));
-        initGrids();
+        setPreferredSize(new Dimension(VIEW_TILES * CELL, VIEW_TILES * CELL));
 
         // Load player sprite
         String spriteFile = "Graphics/Player/run.png";
@@ -93,12 +105,15 @@ public class TileGrid extends JPanel {
         player.setScale(5.0);
         player.face(-1, 0);  // Face up initially
 
-        // Load Thugger NPC (row 0, col 1 from 4-row, 3-column sprite sheet)
-        String thuggerFile = "Graphics/Player/Thugger.png";
-        thugger = new NPC(thuggerFile, 0, 1, 3, 4, "Thugger");
-        thugger.setScale(1.5);
-        thugger.setGridPosition(4, 11, CELL);  // Position at secret room row 4, col 11
-        thugger.setAppearFloor(2);  // Appear in secret room (floor 2)
+        // Load Thugger NPC (row 0, col 1 from 4-row, 3-column sprite sheet) where the layout puts him
+        int[] npc = sim.getNpcPosition();
+        if (npc != null) {
+            String thuggerFile = "Graphics/Player/Thugger.png";
+            thugger = new NPC(thuggerFile, 0, 1, 3, 4, "Thugger");
+            thugger.setScale(1.5);
+            thugger.setGridPosition(npc[1], npc[2], CELL);
+            thugger.setAppearFloor(npc[0]);
+        }
 
         updateStatus();
         setupKeyBindings();
@@ -112,19 +127,21 @@ public class TileGrid extends JPanel {
                 // Handle return product panel keys
                 if (returnProductPanel != null) {
                     returnProductPanel.handleKeyPress(e.getKeyCode());
+                    repaint();
                     return;
                 }
                 
                 // Handle numeric input and backspace for withdrawal panel
                 if (atmWithdrawalPanel != null) {
                     atmWithdrawalPanel.handleKeyInput(e);
+                    repaint();
                     return;
                 }
                 
                 // Handle R key to toggle between buy and return modes
                 if ((e.getKeyCode() == KeyEvent.VK_R || e.getKeyChar() == 'r' || e.getKeyChar() == 'R') && menu != null) {
                     System.out.println("DEBUG R KEY: menu exists, inReturnMode=" + menu.isInReturnMode() + ", returnableProducts size=" + currentReturnableProducts.size());
-                    for (String prod : currentReturnableProducts) {
+                    for (Product prod : currentReturnableProducts) {
                         System.out.println("  - " + prod);
                     }
                     if (!menu.isInReturnMode() && !currentReturnableProducts.isEmpty()) {
@@ -151,7 +168,7 @@ public class TileGrid extends JPanel {
                 }
                 
                 System.out.println("Key pressed: " + e.getKeyCode() + " (" + e.getKeyChar() + ") searchKiosk=" + (searchKiosk != null));
-                if ((e.getKeyCode() == KeyEvent.VK_X || e.getKeyChar() == 'x' || e.getKeyChar() == 'X') && searchKiosk != null) {
+                if ((e.getKeyCode() == KeyEvent.VK_X || e.getKeyChar() == 'x' || e.getKeyChar() == 'X') && searchKiosk != null && !searchKiosk.isTyping()) {
                     System.out.println("X key detected! Calling searchKiosk.handleKeyPress");
                     searchKiosk.handleKeyPress(KeyEvent.VK_X);
                     repaint();
@@ -163,13 +180,26 @@ public class TileGrid extends JPanel {
                 // Also handle character input for withdrawal
                 if (atmWithdrawalPanel != null) {
                     atmWithdrawalPanel.handleCharInput(e);
+                    repaint();
+                }
+                // Typing into the search kiosk; consuming stops the V/B bindings from firing
+                if (searchKiosk != null && searchKiosk.handleKeyTyped(e.getKeyChar())) {
+                    e.consume();
+                    repaint();
                 }
             }
         });
 
+        dirtyRegions = new DirtyRegionTracker(this);
         repaintTimer = new Timer(40, e -> {
-            if (player != null) player.update(System.currentTimeMillis());
-            repaint();
+            if (player != null) {
+                // Also repaint on the tick the walk cycle stops so the idle frame shows
+                boolean animating = player.isMoving();
+                player.update(System.currentTimeMillis());
+                if (animating) invalidatePlayer();
+            }
+            invalidateAnimatedRegions();
+            dirtyRegions.flush();
         });
         repaintTimer.start();
     }
@@ -177,75 +207,25 @@ public class TileGrid extends JPanel {
     public TileGrid(JLabel status, Board board) {
         this(status);
         this.board = board;
+        invalidateFloorLayer(sim.getCurrentFloor());
         if (board != null) {
-            this.shopperRow = board.getPlayerRow();
-            this.shopperCol = board.getPlayerCol();
+            sim.setShopperPosition(board.getPlayerRow(), board.getPlayerCol());
         }
     }
     
     public void setPlayerData(String username, int age, double startingBalance) {
-        this.playerUsername = username;
-        this.playerAge = age;
-        this.initialBalance = startingBalance;  // Store the initial balance for restart
-        if (player != null) {
-            player.setBalance(startingBalance);
-            // Initialize bank balance with random value between 50000-100000
-            double bankBalance = 50000 + Math.random() * 50000;
-            player.setBankBalance(bankBalance);
-        }
+        // Initialize bank balance with random value between 50000-100000
+        double bankBalance = 50000 + Math.random() * 50000;
+        sim.setPlayerProfile(username, age, startingBalance, bankBalance);
         updateStatus();
     }
 
-    /**
-     * Check if an NPC is occupying a grid position
-     */
-    private boolean isNPCAtPosition(int row, int col) {
-        if (thugger == null) return false;
-        
-        // Get NPC's pixel position
-        int npcX = thugger.getX();
-        int npcY = thugger.getY();
-        
-        // Convert grid position to center pixel position
-        int gridCenterX = col * CELL + CELL / 2;
-        int gridCenterY = row * CELL + CELL / 2;
-        
-        // Check if NPC is within the grid cell (with some tolerance)
-        int tolerance = CELL / 3;
-        return Math.abs(npcX - gridCenterX) < tolerance && Math.abs(npcY - gridCenterY) < tolerance;
-    }
-
-    private void initGrids() {
-        gridFloor0 = new TileType[SIZE][SIZE];
-        gridFloor1 = new TileType[SIZE][SIZE];
-        gridSecretHallway = new TileType[SIZE][SIZE];
-
-        TileGridInitializer.initFloor0(gridFloor0);
-        TileGridInitializer.initFloor1(gridFloor1);
-        SecretHallwayInitializer.initSecretHallway(gridSecretHallway);
-
-        TileType[][] currentGrid = getCurrentGrid();
-        if (currentGrid[shopperRow][shopperCol] != TileType.FLOOR &&
-            currentGrid[shopperRow][shopperCol] != TileType.STAIRS_UP &&
-            currentGrid[shopperRow][shopperCol] != TileType.STAIRS_DOWN &&
-            currentGrid[shopperRow][shopperCol] != TileType.DOOR) {
-            outer:
-            for (int r = SIZE - 2; r >= 1; r--) {
-                for (int c = 1; c < SIZE - 1; c++) {
-                    if (currentGrid[r][c] == TileType.FLOOR) {
-                        shopperRow = r;
-                        shopperCol = c;
-                        break outer;
-                    }
-                }
-            }
-        }
+    private int floorRows() {
+        return board != null ? board.getRows() : sim.getRows();
     }
 
-    private TileType[][] getCurrentGrid() {
-        if (currentFloor == 0) return gridFloor0;
-        else if (currentFloor == 1) return gridFloor1;
-        else return gridSecretHallway;
+    private int floorCols() {
+        return board != null ? board.getCols() : sim.getCols();
     }
 
     private void setupKeyBindings() {
@@ -262,6 +242,8 @@ public class TileGrid extends JPanel {
         im.put(KeyStroke.getKeyStroke('v'), "inventory");  // Also handle lowercase
         im.put(KeyStroke.getKeyStroke('B'), "receipt");
         im.put(KeyStroke.getKeyStroke('b'), "receipt");  // Also handle lowercase
+        im.put(KeyStroke.getKeyStroke('F'), "fog");
+        im.put(KeyStroke.getKeyStroke('f'), "fog");  // Also handle lowercase
 
         am.put("left", moveAction(0, -1));
         am.put("right", moveAction(0, 1));
@@ -283,7 +265,7 @@ public class TileGrid extends JPanel {
                 } else if (balanceInquiryPanel != null) {
                     // ESC from balance inquiry - return to menu
                     atmState = 0;
-                    atmMenu = new ATMMenu(playerUsername, atmSessionBalance, () -> {
+                    atmMenu = new ATMMenu(sim.getPlayerUsername(), atmSessionBalance, () -> {
                         atmMenu = null;
                         atmState = 0;
                         repaint();
@@ -293,7 +275,7 @@ public class TileGrid extends JPanel {
                 } else if (atmWithdrawalPanel != null) {
                     // ESC from withdrawal - return to menu
                     atmState = 0;
-                    atmMenu = new ATMMenu(playerUsername, atmSessionBalance, () -> {
+                    atmMenu = new ATMMenu(sim.getPlayerUsername(), atmSessionBalance, () -> {
                         atmMenu = null;
                         atmState = 0;
                         repaint();
@@ -303,7 +285,7 @@ public class TileGrid extends JPanel {
                 } else if (withdrawalSuccessPanel != null) {
                     // ESC from success panel - return to menu
                     atmState = 0;
-                    atmMenu = new ATMMenu(playerUsername, atmSessionBalance, () -> {
+                    atmMenu = new ATMMenu(sim.getPlayerUsername(), atmSessionBalance, () -> {
                         atmMenu = null;
                         atmState = 0;
                         repaint();
@@ -317,23 +299,17 @@ public class TileGrid extends JPanel {
                     repaint();
                 } else if (menu != null) {
                     // Clear waypoints when opening a menu (player is interacting with a tile)
-                    hasWaypoint = false;
-                    waypoints.clear();
-                    allWaypoints.clear();
+                    sim.clearWaypoints();
                     menu = null;
                     repaint();
                 } else if (searchKiosk != null) {
                     // Copy waypoint data with floor info before closing
-                    if (searchKiosk.hasActiveWaypoint()) {
-                        hasWaypoint = true;
-                        allWaypoints = new java.util.ArrayList<>(searchKiosk.getWaypoints());
-                        // Filter waypoints to only show current floor
-                        waypoints = new java.util.ArrayList<>();
-                        for (int[] wp : allWaypoints) {
-                            if (wp[0] == currentFloor) {
-                                waypoints.add(wp);
-                            }
-                        }
+                    if (searchKiosk.hasActiveWaypoint() && searchKiosk.hasOrderedRoute()) {
+                        // Shopping route: stops are visited in order, ending at a cashier
+                        sim.setOrderedWaypoints(searchKiosk.getWaypoints());
+                    } else if (searchKiosk.hasActiveWaypoint()) {
+                        // Simulation keeps the full list and shows the current floor's waypoints
+                        sim.setWaypoints(searchKiosk.getWaypoints());
                     }
                     searchKiosk = null;
                     repaint();
@@ -342,33 +318,27 @@ public class TileGrid extends JPanel {
         });
         am.put("toggleView", new AbstractAction() {
             public void actionPerformed(ActionEvent e) {
-                System.out.println("DEBUG: toggleView called, currentFloor before: " + currentFloor);
-                currentFloor = 1 - currentFloor;
-                System.out.println("DEBUG: currentFloor after toggle: " + currentFloor);
-                // Regenerate black tile when entering Floor 2
-                if (currentFloor == 1) {
-                    System.out.println("DEBUG: About to call regenerateBlackTile()");
-                    regenerateBlackTile();
-                }
-                // Re-filter waypoints when changing floors to only show products on current floor
-                if (hasWaypoint && !allWaypoints.isEmpty()) {
-                    waypoints = new java.util.ArrayList<>();
-                    for (int[] wp : allWaypoints) {
-                        if (wp[0] == currentFloor) {
-                            waypoints.add(wp);
-                        }
-                    }
-                }
+                System.out.println("DEBUG: toggleView called, sim.getCurrentFloor() before: " + sim.getCurrentFloor());
+                // Black tile is regenerated and waypoints re-filtered by the simulation
+                sim.setFloor(1 - sim.getCurrentFloor());
+                System.out.println("DEBUG: sim.getCurrentFloor() after toggle: " + sim.getCurrentFloor());
                 repaint();
                 updateStatus();
             }
         });
+        am.put("fog", new AbstractAction() {
+            public void actionPerformed(ActionEvent e) {
+                fogEnabled = !fogEnabled;
+                updateFog();
+                dirtyRegions.flush();
+            }
+        });
         am.put("inventory", new AbstractAction() {
             public void actionPerformed(ActionEvent e) {
                 if (inventoryDisplay != null) {
                     inventoryDisplay = null;
                 } else {
-                    inventoryDisplay = new InventoryDisplay(inventory, () -> {
+                    inventoryDisplay = new InventoryDisplay(sim.getInventory(), () -> {
                         inventoryDisplay = null;
                         requestFocusInWindow();
                         repaint();
@@ -382,7 +352,7 @@ public class TileGrid extends JPanel {
         
         am.put("receipt", new AbstractAction() {
             public void actionPerformed(ActionEvent e) {
-                String lastReceipt = inventory.getLastReceipt();
+                String lastReceipt = sim.getInventory().getLastReceipt();
                 if (lastReceipt == null) {
                     JOptionPane.showMessageDialog(
                         null,
@@ -395,7 +365,7 @@ public class TileGrid extends JPanel {
                         inventoryDisplay = null;
                     } else {
                         // Create a receipt display (with showReceipt=true)
-                        inventoryDisplay = new InventoryDisplay(inventory, () -> {
+                        inventoryDisplay = new InventoryDisplay(sim.getInventory(), () -> {
                             inventoryDisplay = null;
                             requestFocusInWindow();
                             repaint();
@@ -415,28 +385,15 @@ public class TileGrid extends JPanel {
     private Action moveAction(int dr, int dc) {
         return new AbstractAction() {
             public void actionPerformed(ActionEvent e) {
-                // Check if player is locked from NPC interaction
-                if (playerLocked) {
-                    long elapsed = System.currentTimeMillis() - lockStartTime;
-                    if (elapsed < LOCK_DURATION) {
-                        return;  // Still locked, can't move
-                    } else {
-                        playerLocked = false;  // Unlock after 3 seconds
-                    }
-                }
-                
-                // Check if Thugger alcohol ability duration has expired
-                if (isInteractingWithThugger) {
-                    long thuggerElapsed = System.currentTimeMillis() - thuggerInteractionTime;
-                    if (thuggerElapsed >= THUGGER_ABILITY_DURATION) {
-                        isInteractingWithThugger = false;  // Disable alcohol purchase after 20 seconds
-                    }
+                // Check if player is locked from NPC interaction (also expires the Thugger ability)
+                if (sim.isPlayerLocked()) {
+                    return;  // Still locked, can't move
                 }
                 
                 // If inventory/receipt display is open, handle receipt scrolling
                 if (inventoryDisplay != null) {
                     if (dr < 0 || dr > 0) {  // UP or DOWN arrow
-                        String lastReceipt = inventory.getLastReceipt();
+                        String lastReceipt = sim.getInventory().getLastReceipt();
                         if (lastReceipt != null) {
                             String[] lines = lastReceipt.split("\n");
                             int maxLines = 20;
@@ -511,102 +468,55 @@ public class TileGrid extends JPanel {
                 }
 
                 if (player != null) player.face(dr, dc);
-                facingDr = dr;
-                facingDc = dc;
+                invalidatePlayer();
 
                 if (board != null) {
+                    sim.face(dr, dc);
                     boolean moved = board.tryMove(dr, dc);
                     if (moved) {
-                        shopperRow = board.getPlayerRow();
-                        shopperCol = board.getPlayerCol();
+                        sim.setShopperPosition(board.getPlayerRow(), board.getPlayerCol());
                         if (player != null) player.startWalking(dr, dc);
-                        repaint();
+                        invalidatePlayer();  // New cell
+                        updateFog();
+                        updateCamera();
                         updateStatus();
                     }
+                    dirtyRegions.flush();
                     return;
                 }
 
-                int nr = shopperRow + dr, nc = shopperCol + dc;
-                if (nr >= 0 && nr < SIZE && nc >= 0 && nc < SIZE) {
-                    // Check NPC collision (only if NPC is on current floor)
-                    if (thugger != null && thugger.getAppearFloor() == currentFloor && isNPCAtPosition(nr, nc)) {
-                        return;  // Can't move through NPC
-                    }
-                    
-                    TileType target = getCurrentGrid()[nr][nc];
-                    
-                    // Handle DOOR tiles with directional restrictions
-                    if (target == TileType.DOOR) {
-                        // Down door (21, 10) only accessible from above (dr = 1 moving down)
-                        if (nr == 21 && nc == 10) {
-                            if (dr != 1) {
-                                // Not moving down - blocked
-                                return;
-                            }
-                        }
-                        // Up door (21, 11) only accessible from above (dr = 1 moving down)
-                        else if (nr == 21 && nc == 11 && currentFloor != 2) {
-                            if (dr != 1) {
-                                // Not moving down - blocked
-                                return;
-                            }
-                        }
-                    }
-                    
-                    // Handle EXIT tiles with directional restrictions
-                    if (target == TileType.EXIT) {
-                        // Exit (21, 10) only accessible from above (dr = 1 moving down)
-                        if (dr != 1) {
-                            // Not moving down - blocked
-                            return;
-                        }
-                    }
-                    
-                    if (target == TileType.FLOOR || target == TileType.SECRETFLOOR || target == TileType.STAIRS_UP || target == TileType.STAIRS_DOWN || target == TileType.DOOR || target == TileType.EXIT || target == TileType.BLACK_TILE) {
-                        shopperRow = nr;
-                        shopperCol = nc;
-                        if (player != null) {
-                            player.startWalking(dr, dc);
-                        }
-                        
-                        // Check if player stepped on BLACK_TILE in secret hallway - teleport back to ground floor entrance
-                        if (target == TileType.BLACK_TILE && currentFloor == 2) {
-                            currentFloor = 0;  // Switch back to ground floor (Floor 0)
-                            regenerateBlackTile();
-                            shopperRow = 21;
-                            shopperCol = 11;
-                            System.out.println("Exited secret hallway back to ground floor at (21, 11)!");
-                            repaint();
-                            updateStatus();
-                            return;
-                        }
-                        
-                        // Check if player stepped on BLACK_TILE on Floor 1 - teleport to secret hallway
-                        if (target == TileType.BLACK_TILE && currentFloor == 1) {
-                            currentFloor = 2;  // Switch to secret hallway
-                            shopperRow = 18;
-                            shopperCol = 11;
-                            System.out.println("Teleported to secret hallway!");
-                            repaint();
-                            updateStatus();
-                            return;
-                        }
-                        
-                        // Check if player reached waypoint
-                        if (hasWaypoint && !waypoints.isEmpty()) {
-                            for (int[] wp : waypoints) {
-                                if (shopperRow == wp[0] && shopperCol == wp[1]) {
-                                    hasWaypoint = false;
-                                    waypoints.clear();
-                                    System.out.println("Reached waypoint location");
-                                    break;
-                                }
-                            }
-                        }
-                        repaint();
-                        updateStatus();
+                boolean hadWaypoint = sim.hasWaypoint();
+                if (hadWaypoint) invalidateWaypoints();  // Still drawn if this move reaches one
+                invalidatePlayer();  // Old cell
+                StoreSimulation.MoveResult result = sim.move(dr, dc);
+                if (result == StoreSimulation.MoveResult.BLOCKED) {
+                    dirtyRegions.flush();  // Facing changed
+                    return;
+                }
+                if (player != null) {
+                    player.startWalking(dr, dc);
+                }
+
+                if (result == StoreSimulation.MoveResult.FLOOR_CHANGED) {
+                    if (sim.getCurrentFloor() == 2) {
+                        System.out.println("Teleported to secret hallway!");
+                    } else {
+                        System.out.println("Exited secret hallway back to the entrance at ("
+                            + sim.getShopperRow() + ", " + sim.getShopperCol() + ")!");
                     }
+                    repaint();
+                    updateStatus();
+                    return;
+                }
+
+                if (hadWaypoint && !sim.hasWaypoint()) {
+                    System.out.println("Reached waypoint location");
                 }
+                invalidatePlayer();  // New cell
+                updateFog();
+                updateCamera();
+                dirtyRegions.flush();
+                updateStatus();
             }
         };
     }
@@ -620,7 +530,7 @@ public class TileGrid extends JPanel {
                     String selected = atmMenu.getSelectedOption();
                     if (selected.equals("Balance Inquiry")) {
                         atmState = 1;
-                        balanceInquiryPanel = new BalanceInquiryPanel(player.getBankBalance());
+                        balanceInquiryPanel = new BalanceInquiryPanel(sim.getBankBalance());
                         atmMenu = null;
                         repaint();
                     } else if (selected.equals("Withdrawal")) {
@@ -636,7 +546,7 @@ public class TileGrid extends JPanel {
                 if (balanceInquiryPanel != null) {
                     // Return to menu from balance inquiry
                     atmState = 0;
-                    atmMenu = new ATMMenu(playerUsername, atmSessionBalance, () -> {
+                    atmMenu = new ATMMenu(sim.getPlayerUsername(), atmSessionBalance, () -> {
                         atmMenu = null;
                         atmState = 0;
                         repaint();
@@ -649,10 +559,8 @@ public class TileGrid extends JPanel {
                 if (atmWithdrawalPanel != null) {
                     // Handle withdrawal - subtract from bank balance and add to current balance
                     double withdrawAmount = atmWithdrawalPanel.getWithdrawalAmount();
-                    if (withdrawAmount > 0 && withdrawAmount <= player.getBankBalance()) {
-                        player.subtractFromBankBalance(withdrawAmount);
-                        player.addBalance(withdrawAmount);
-                        atmSessionBalance = player.getBankBalance();
+                    if (sim.withdraw(withdrawAmount)) {
+                        atmSessionBalance = sim.getBankBalance();
                         // Show success panel
                         atmState = 3;
                         withdrawalSuccessPanel = new WithdrawalSuccessPanel(withdrawAmount);
@@ -665,7 +573,7 @@ public class TileGrid extends JPanel {
                 if (withdrawalSuccessPanel != null) {
                     // Return to menu from success panel
                     atmState = 0;
-                    atmMenu = new ATMMenu(playerUsername, atmSessionBalance, () -> {
+                    atmMenu = new ATMMenu(sim.getPlayerUsername(), atmSessionBalance, () -> {
                         atmMenu = null;
                         atmState = 0;
                         repaint();
@@ -693,11 +601,10 @@ public class TileGrid extends JPanel {
                         
                         // Handle return confirmation
                         if (isProcessingReturn) {
-                            if (inventory.removeProductByName(lastSelectedProductName, quantity)) {
-                                String cleanName = extractProductName(lastSelectedProductName);
+                            if (sim.returnProduct(lastSelectedProduct, quantity)) {
                                 JOptionPane.showMessageDialog(
                                     null,
-                                    "Returned " + quantity + " " + cleanName + "(s).",
+                                    "Returned " + quantity + " " + lastSelectedProduct.getName() + "(s).",
                                     "Return Successful",
                                     JOptionPane.INFORMATION_MESSAGE
                                 );
@@ -718,9 +625,9 @@ public class TileGrid extends JPanel {
                             return;
                         }
                         
-                        // Handle buy confirmation
-                        // On confirm: check age restrictions first
-                        if (!canBuyProduct(lastSelectedProductId)) {
+                        // Handle buy confirmation: age restrictions and discounts are applied by the simulation
+                        StoreSimulation.PurchaseResult result = sim.buy(lastSelectedProduct, quantity);
+                        if (result == StoreSimulation.PurchaseResult.AGE_RESTRICTED) {
                             JOptionPane.showMessageDialog(
                                 null,
                                 "You are not allowed to purchase this item due to age restrictions.",
@@ -732,10 +639,7 @@ public class TileGrid extends JPanel {
                             return;
                         }
                         
-                        // On confirm: add product to inventory with discounts applied
-                        double discountedPrice = calculateEffectivePrice(lastSelectedProductId, lastSelectedProductPrice);
-                        
-                        if (inventory.addProduct(lastSelectedProductId, lastSelectedProductName, quantity, discountedPrice, lastSelectedProductPrice)) {
+                        if (result == StoreSimulation.PurchaseResult.OK) {
                             quantityInputPanel = null;
                             menu = null;
                             repaint();
@@ -757,27 +661,22 @@ public class TileGrid extends JPanel {
                 // If menu is open, handle product selection
                 if (menu != null) {
                     // Get product info from menu
-                    String productName = menu.getSelectedProductName();
-                    String productId = menu.getSelectedProductId();
-                    double price = menu.getSelectedProductPrice();
+                    Product product = menu.getSelectedProduct();
+                    String productId = product != null ? product.getId() : null;
                     
-                    System.out.println("DEBUG MENU ENTER: productName=" + productName + ", productId=" + productId + ", inReturnMode=" + menu.isInReturnMode());
+                    System.out.println("DEBUG MENU ENTER: product=" + product + ", inReturnMode=" + menu.isInReturnMode());
                     
-                    if (productName != null) {
+                    if (product != null) {
                         // Handle return mode
                         if (menu.isInReturnMode()) {
-                            // productName here is the full name from inventory (e.g., "🍎 Apples (FRU00001) - ₱50.00")
-                            // Get the clean name for display
-                            String cleanProductName = extractProductName(productName);
-                            
                             // Show quantity selector for returns
-                            int maxQuantity = inventory.getProductQuantity(productName);  // Use full name for lookup
+                            int maxQuantity = sim.getInventory().getProductQuantityById(productId);
                             
                             isProcessingReturn = true;
-                            lastSelectedProductName = productName;  // Store full name for confirmation
+                            lastSelectedProduct = product;
                             
                             quantityInputPanel = new QuantityInputPanel(
-                                "Return " + cleanProductName,
+                                "Return " + product.getName(),
                                 0,  // Price doesn't matter for returns
                                 maxQuantity,
                                 maxQuantity,
@@ -797,7 +696,7 @@ public class TileGrid extends JPanel {
                         // Handle buy mode (existing logic)
                         if (productId != null) {
                             // Check age restrictions before allowing selection
-                            if (!canBuyProduct(productId)) {
+                            if (!sim.canBuyProduct(productId)) {
                                 menu = null;
                                 JOptionPane.showMessageDialog(
                                     null,
@@ -811,13 +710,11 @@ public class TileGrid extends JPanel {
                             }
                             
                             // Store for later use in quantity confirmation
-                            lastSelectedProductId = productId;
-                            lastSelectedProductName = productName;
-                            lastSelectedProductPrice = price;
+                            lastSelectedProduct = product;
                             
                             // Get actual available quantity from store
-                            int maxAvailable = storeInventory.getAvailableQuantity(productId);
-                            int maxCanCarry = inventory.getAvailableCapacity();
+                            int maxAvailable = sim.getStoreInventory().getAvailableQuantity(productId);
+                            int maxCanCarry = sim.getInventory().getAvailableCapacity();
                             
                             if (maxCanCarry <= 0) {
                                 JOptionPane.showMessageDialog(
@@ -833,8 +730,8 @@ public class TileGrid extends JPanel {
                             
                             // Show quantity input panel
                             quantityInputPanel = new QuantityInputPanel(
-                                productName, 
-                                price, 
+                                product.getName(), 
+                                product.getPrice(), 
                                 maxAvailable, 
                                 maxCanCarry,
                                 () -> {
@@ -861,322 +758,210 @@ public class TileGrid extends JPanel {
                     return;
                 }
                 
-                // Check if facing Thugger NPC
-                if (thugger != null && thugger.getAppearFloor() == currentFloor && isNPCAtPosition(shopperRow + facingDr, shopperCol + facingDc)) {
-                    playThuggerSound();
-                    playerLocked = true;
-                    lockStartTime = System.currentTimeMillis();
-                    thuggerInteractionTime = System.currentTimeMillis();  // Track when Thugger interaction started
-                    isInteractingWithThugger = true;
-                    // If player is normal-aged (18-59), grant permanent 50% discount on all products
-                    if (playerAge >= 18 && playerAge < 60) {
-                        hasInteractedWithThugger = true;
-                    }
-                    repaint();
-                    return;
-                }
-
-                // Check if facing an interactable tile
-                int targetRow = shopperRow + facingDr;
-                int targetCol = shopperCol + facingDc;
-
-                if (targetRow >= 0 && targetRow < SIZE && targetCol >= 0 && targetCol < SIZE) {
-                    TileType facing = getCurrentGrid()[targetRow][targetCol];
-                    
-                    // Check if facing an ATM tile
-                if (facing == TileType.ATM) {
-                    atmState = 0;
-                    atmSessionBalance = player.getBankBalance();
-                    atmMenu = new ATMMenu(playerUsername, atmSessionBalance, () -> {
-                        atmMenu = null;
+                StoreSimulation.Interaction interaction = sim.interact();
+                switch (interaction) {
+                    case THUGGER:
+                        // Lock and discounts were applied by the simulation
+                        playThuggerSound();
+                        repaint();
+                        break;
+                    case ATM:
                         atmState = 0;
+                        atmSessionBalance = sim.getBankBalance();
+                        atmMenu = new ATMMenu(sim.getPlayerUsername(), atmSessionBalance, () -> {
+                            atmMenu = null;
+                            atmState = 0;
+                            repaint();
+                        });
                         repaint();
-                    });
-                    repaint();
-                    return;
-                }                    // Check if facing a SEARCH tile
-                    if (facing == TileType.SEARCH) {
-                        searchKiosk = new SearchKiosk(() -> searchKiosk = null);
+                        break;
+                    case SEARCH_KIOSK:
+                        searchKiosk = new SearchKiosk(() -> searchKiosk = null, sim);
                         searchKiosk.setParentComponent(TileGrid.this);
                         searchKiosk.setSize(getWidth(), getHeight());
                         requestFocusInWindow();  // Keep focus on TileGrid so it receives key events
                         repaint();
-                        return;
-                    }
-
-                    // Check if facing a BASKET or CART tile
-                    if (facing == TileType.BASKET) {
-                        if (inventory.isEquipmentEquipped() && inventory.getEquipment() == ShopperInventory.EquipmentType.BASKET) {
-                            // Already equipped, check if empty before allowing return
-                            if (inventory.getTotalQuantity() > 0) {
-                                // Not empty, ask if they want to return and forfeit
-                                equipmentConfirmationPanel = new EquipmentConfirmationPanel(
-                                    "Your basket is not empty.\nReturning it will cause the items\nin your equipment to be forfeited.",
-                                    true,
-                                    () -> {
-                                        // Confirm return and forfeit items
-                                        inventory.clear();
-                                        inventory.returnEquipment();
-                                        equipmentConfirmationPanel = new EquipmentConfirmationPanel(
-                                            "Your items have been forfeited.",
-                                            false,
-                                            () -> {},
-                                            () -> {
-                                                equipmentConfirmationPanel = null;
-                                                repaint();
-                                                updateStatus();
-                                            }
-                                        );
-                                        equipmentConfirmationPanel.setSize(getWidth(), getHeight());
-                                        repaint();
-                                        updateStatus();
-                                    },
-                                    () -> {
-                                        equipmentConfirmationPanel = null;
-                                        repaint();
-                                    }
-                                );
-                            } else {
-                                // Empty, ask if they want to return it
-                                equipmentConfirmationPanel = new EquipmentConfirmationPanel(
-                                    "Are you sure you want to\nreturn this basket?",
-                                    true,
-                                    () -> {
-                                        inventory.returnEquipment();
-                                        equipmentConfirmationPanel = null;
-                                        repaint();
-                                        updateStatus();
-                                    },
-                                    () -> {
-                                        equipmentConfirmationPanel = null;
-                                        repaint();
-                                    }
-                                );
-                            }
-                            equipmentConfirmationPanel.setSize(getWidth(), getHeight());
-                            repaint();
-                        } else {
-                            // Show equip confirmation
-                            inventory.setEquipment(ShopperInventory.EquipmentType.BASKET);
-                            inventory.equipCurrentEquipment();
-                            equipmentConfirmationPanel = new EquipmentConfirmationPanel(
-                                "Basket equipped!",
-                                false,
-                                () -> {},
-                                () -> {
-                                    equipmentConfirmationPanel = null;
-                                    repaint();
-                                }
-                            );
-                            equipmentConfirmationPanel.setSize(getWidth(), getHeight());
-                            repaint();
-                            updateStatus();
-                        }
-                        return;
-                    }
-
-                    if (facing == TileType.CART) {
-                        if (inventory.isEquipmentEquipped() && inventory.getEquipment() == ShopperInventory.EquipmentType.CART) {
-                            // Already equipped, check if empty before allowing return
-                            if (inventory.getTotalQuantity() > 0) {
-                                // Not empty, ask if they want to return and forfeit
-                                equipmentConfirmationPanel = new EquipmentConfirmationPanel(
-                                    "Your cart is not empty.\nReturning it will cause the items\nin your equipment to be forfeited.",
-                                    true,
-                                    () -> {
-                                        // Confirm return and forfeit items
-                                        inventory.clear();
-                                        inventory.returnEquipment();
-                                        equipmentConfirmationPanel = new EquipmentConfirmationPanel(
-                                            "Your items have been forfeited.",
-                                            false,
-                                            () -> {},
-                                            () -> {
-                                                equipmentConfirmationPanel = null;
-                                                repaint();
-                                                updateStatus();
-                                            }
-                                        );
-                                        equipmentConfirmationPanel.setSize(getWidth(), getHeight());
-                                        repaint();
-                                        updateStatus();
-                                    },
-                                    () -> {
-                                        equipmentConfirmationPanel = null;
-                                        repaint();
-                                    }
-                                );
-                            } else {
-                                // Empty, ask if they want to return it
-                                equipmentConfirmationPanel = new EquipmentConfirmationPanel(
-                                    "Are you sure you want to\nreturn this cart?",
-                                    true,
-                                    () -> {
-                                        inventory.returnEquipment();
-                                        equipmentConfirmationPanel = null;
-                                        repaint();
-                                        updateStatus();
-                                    },
-                                    () -> {
-                                        equipmentConfirmationPanel = null;
-                                        repaint();
-                                    }
-                                );
-                            }
-                            equipmentConfirmationPanel.setSize(getWidth(), getHeight());
-                            repaint();
-                        } else {
-                            // Show equip confirmation
-                            inventory.setEquipment(ShopperInventory.EquipmentType.CART);
-                            inventory.equipCurrentEquipment();
-                            equipmentConfirmationPanel = new EquipmentConfirmationPanel(
-                                "Cart equipped!",
-                                false,
-                                () -> {},
-                                () -> {
-                                    equipmentConfirmationPanel = null;
-                                    repaint();
-                                }
-                            );
-                            equipmentConfirmationPanel.setSize(getWidth(), getHeight());
-                            repaint();
-                            updateStatus();
-                        }
-                        return;
-                    }
-
-                    // Check if it's a cashier tile
-                    if (facing == TileType.CASHIER) {
-                        if (inventory.isEmpty()) {
-                            JOptionPane.showMessageDialog(
-                                null,
-                                "You have no items to check out.",
-                                "Empty Checkout",
-                                JOptionPane.INFORMATION_MESSAGE
-                            );
-                            return;
-                        }
-                        
-                        double totalPrice = inventory.getTotalPrice();
-                        
-                        // Show checkout confirmation
-                        int choice = JOptionPane.showConfirmDialog(
-                            null,
-                            "Proceed with checkout?\n\nTotal: ₱" + String.format("%.2f", totalPrice),
-                            "Checkout",
-                            JOptionPane.YES_NO_OPTION
-                        );
-                        
-                        if (choice == JOptionPane.YES_OPTION) {
-                            // Check if player has sufficient balance
-                            double playerBalance = player.getBalance();
-                            if (playerBalance < totalPrice) {
-                                JOptionPane.showMessageDialog(
-                                    null,
-                                    "Insufficient balance!",
-                                    "Checkout Failed",
-                                    JOptionPane.WARNING_MESSAGE
-                                );
-                                repaint();
-                                return;
-                            }
-                            
-                            // Generate receipt only after successful balance check
-                            String receipt = inventory.generateReceipt();
-                            
-                            // Complete checkout - deduct balance
-                            player.setBalance(playerBalance - totalPrice);
-                            inventory.checkout();
-                            JOptionPane.showMessageDialog(
-                                null,
-                                "Checkout successful!\n\nYour receipt has been saved.\nPress B to view it.",
-                                "Checkout Complete",
-                                JOptionPane.INFORMATION_MESSAGE
-                            );
-                            repaint();
-                            updateStatus();
-                        }
-                        return;
-                    }
-
-                    // Check if it's an interactable tile
-                    String tileKey = null;
-                    if (facing == TileType.SHELF) tileKey = "shelf";
-                    else if (facing == TileType.CHILLED) tileKey = "chilled";
-                    else if (facing == TileType.FRIDGE) tileKey = "ref";
-                    else if (facing == TileType.TABLE) tileKey = "table";
-
-                    if (tileKey != null && TileInventory.isInteractable(tileKey)) {
-                        // Clear waypoints when opening a menu (player is interacting with a tile)
-                        hasWaypoint = false;
-                        waypoints.clear();
-                        if (searchKiosk != null) {
-                            searchKiosk.clearWaypoint();
-                        }
-                        
-                        // Store current tile info for return functionality
-                        currentTileRow = targetRow;
-                        currentTileCol = targetCol;
-                        currentReturnableProducts = getReturnableProducts(tileKey, targetRow, targetCol, currentFloor);
-                        
-                        menu = new InteractionMenu(tileKey, targetRow, targetCol, currentFloor, () -> menu = null);
-                        menu.setParentComponent(TileGrid.this);  // Set parent for repaint on mode switch
-                        menu.setSize(getWidth(), getHeight());
-                        requestFocusInWindow();  // Ensure TileGrid keeps focus for KeyListener
+                        break;
+                    case BASKET:
+                        handleEquipmentTile(ShopperInventory.EquipmentType.BASKET, "basket", "Basket");
+                        break;
+                    case CART:
+                        handleEquipmentTile(ShopperInventory.EquipmentType.CART, "cart", "Cart");
+                        break;
+                    case CASHIER:
+                        handleCashierTile();
+                        break;
+                    case FIXTURE:
+                        openFixtureMenu();
+                        break;
+                    case STAIRS:
+                        System.out.println("DEBUG: Stairs pressed - sim.getCurrentFloor() now = " + sim.getCurrentFloor());
                         repaint();
-                        return;
-                    }
+                        updateStatus();
+                        break;
+                    case EXIT:
+                        handleExitTile();
+                        break;
+                    default:
+                        break;
                 }
+            }
+        };
+    }
 
-                // Otherwise, handle stairs interaction
-                TileType t = getCurrentGrid()[shopperRow][shopperCol];
-                if (t == TileType.STAIRS_UP && currentFloor == 0) {
-                    if (gridFloor1[shopperRow][shopperCol] != TileType.WALL) {
-                        currentFloor = 1;
-                        System.out.println("DEBUG: Stairs UP pressed - currentFloor now = 1");
-                        regenerateBlackTile();
-                        // Filter waypoints to only show those on floor 1
-                        if (hasWaypoint && !allWaypoints.isEmpty()) {
-                            waypoints = new java.util.ArrayList<>();
-                            for (int[] wp : allWaypoints) {
-                                if (wp[0] == 1) {
-                                    waypoints.add(wp);
-                                }
+    /**
+     * Equip a basket/cart, or offer to return it (forfeiting items) if it is already equipped
+     */
+    private void handleEquipmentTile(ShopperInventory.EquipmentType type, String name, String title) {
+        if (sim.hasEquipped(type)) {
+            // Already equipped, check if empty before allowing return
+            if (sim.getInventory().getTotalQuantity() > 0) {
+                // Not empty, ask if they want to return and forfeit
+                equipmentConfirmationPanel = new EquipmentConfirmationPanel(
+                    "Your " + name + " is not empty.\nReturning it will cause the items\nin your equipment to be forfeited.",
+                    true,
+                    () -> {
+                        // Confirm return and forfeit items
+                        sim.returnEquipment(true);
+                        equipmentConfirmationPanel = new EquipmentConfirmationPanel(
+                            "Your items have been forfeited.",
+                            false,
+                            () -> {},
+                            () -> {
+                                equipmentConfirmationPanel = null;
+                                repaint();
+                                updateStatus();
                             }
-                        }
+                        );
+                        equipmentConfirmationPanel.setSize(getWidth(), getHeight());
                         repaint();
                         updateStatus();
+                    },
+                    () -> {
+                        equipmentConfirmationPanel = null;
+                        repaint();
                     }
-                } else if (t == TileType.STAIRS_DOWN && currentFloor == 1) {
-                    if (gridFloor0[shopperRow][shopperCol] != TileType.WALL) {
-                        currentFloor = 0;
-                        System.out.println("DEBUG: Stairs DOWN pressed - currentFloor now = 0");
-                        // Filter waypoints to only show those on floor 0
-                        if (hasWaypoint && !allWaypoints.isEmpty()) {
-                            waypoints = new java.util.ArrayList<>();
-                            for (int[] wp : allWaypoints) {
-                                if (wp[0] == 0) {
-                                    waypoints.add(wp);
-                                }
-                            }
-                        }
+                );
+            } else {
+                // Empty, ask if they want to return it
+                equipmentConfirmationPanel = new EquipmentConfirmationPanel(
+                    "Are you sure you want to\nreturn this " + name + "?",
+                    true,
+                    () -> {
+                        sim.returnEquipment(false);
+                        equipmentConfirmationPanel = null;
                         repaint();
                         updateStatus();
+                    },
+                    () -> {
+                        equipmentConfirmationPanel = null;
+                        repaint();
                     }
-                } else if (t == TileType.EXIT && currentFloor == 0) {
-                    // Handle exit tile
-                    handleExitTile();
+                );
+            }
+            equipmentConfirmationPanel.setSize(getWidth(), getHeight());
+            repaint();
+        } else {
+            // Show equip confirmation
+            sim.equip(type);
+            equipmentConfirmationPanel = new EquipmentConfirmationPanel(
+                title + " equipped!",
+                false,
+                () -> {},
+                () -> {
+                    equipmentConfirmationPanel = null;
+                    repaint();
                 }
+            );
+            equipmentConfirmationPanel.setSize(getWidth(), getHeight());
+            repaint();
+            updateStatus();
+        }
+    }
+
+    /**
+     * Confirm and run checkout at a cashier tile
+     */
+    private void handleCashierTile() {
+        if (sim.getInventory().isEmpty()) {
+            JOptionPane.showMessageDialog(
+                null,
+                "You have no items to check out.",
+                "Empty Checkout",
+                JOptionPane.INFORMATION_MESSAGE
+            );
+            return;
+        }
+        
+        double totalPrice = sim.getInventory().getTotalPrice();
+        
+        // Show checkout confirmation
+        int choice = JOptionPane.showConfirmDialog(
+            null,
+            "Proceed with checkout?\n\nTotal: ₱" + String.format("%.2f", totalPrice),
+            "Checkout",
+            JOptionPane.YES_NO_OPTION
+        );
+        
+        if (choice == JOptionPane.YES_OPTION) {
+            if (sim.checkout() == StoreSimulation.CheckoutResult.INSUFFICIENT_BALANCE) {
+                JOptionPane.showMessageDialog(
+                    null,
+                    "Insufficient balance!",
+                    "Checkout Failed",
+                    JOptionPane.WARNING_MESSAGE
+                );
+                repaint();
+                return;
             }
-        };
+            JOptionPane.showMessageDialog(
+                null,
+                "Checkout successful!\n\nYour receipt has been saved.\nPress B to view it.",
+                "Checkout Complete",
+                JOptionPane.INFORMATION_MESSAGE
+            );
+            repaint();
+            updateStatus();
+        }
+    }
+
+    /**
+     * Open the product menu of the shelf/chilled/fridge/table being faced
+     */
+    private void openFixtureMenu() {
+        String tileKey = sim.getFacingFixtureKey();
+        int targetRow = sim.getFacingRow();
+        int targetCol = sim.getFacingCol();
+        int floor = sim.getCurrentFloor();
+
+        // Clear waypoints when opening a menu (player is interacting with a tile)
+        invalidateWaypoints();
+        sim.clearWaypoints();
+        if (searchKiosk != null) {
+            searchKiosk.clearWaypoint();
+        }
+        
+        // Store current tile info for return functionality
+        currentTileRow = targetRow;
+        currentTileCol = targetCol;
+        currentReturnableProducts = sim.getReturnableProducts(tileKey, targetRow, targetCol, floor);
+        System.out.println("DEBUG getReturnableProducts: tileKey=" + tileKey + ", count=" + currentReturnableProducts.size());
+        
+        menu = new InteractionMenu(tileKey, targetRow, targetCol, floor, () -> menu = null);
+        menu.setParentComponent(TileGrid.this);  // Set parent for repaint on mode switch
+        menu.setSize(getWidth(), getHeight());
+        requestFocusInWindow();  // Ensure TileGrid keeps focus for KeyListener
+        repaint();
     }
     
     /**
      * Handle when player steps on the EXIT tile
      */
     private void handleExitTile() {
+        StoreSimulation.ExitResult exit = sim.canExit();
+
         // Check if player has equipment
-        if (inventory.getEquipment() != ShopperInventory.EquipmentType.HANDS) {
+        if (exit == StoreSimulation.ExitResult.HAS_EQUIPMENT) {
             JOptionPane.showMessageDialog(
                 null,
                 "You cannot leave the supermarket with equipment!\nPlease return your equipment first.",
@@ -1187,7 +972,7 @@ public class TileGrid extends JPanel {
         }
         
         // Check if player has unchecked items in inventory
-        if (!inventory.isEmpty()) {
+        if (exit == StoreSimulation.ExitResult.HAS_ITEMS) {
             JOptionPane.showMessageDialog(
                 null,
                 "You have unchecked items in your inventory!\nPlease checkout first.",
@@ -1218,35 +1003,17 @@ public class TileGrid extends JPanel {
      * Restart the simulation with all values reset
      */
     private void restartSimulation() {
-        // Reset player position
-        shopperRow = 21;
-        shopperCol = 11;
-        currentFloor = 0;
+        // Reset position, inventories, discounts, profile and waypoints
+        sim.restart();
         
         // Reset player state
         player.face(-1, 0);  // Face up
         
-        // Reset inventory
-        storeInventory = new StoreInventory();
-        inventory = new ShopperInventory(storeInventory);
-        
-        // Reset player balance and other state
-        playerAge = 18;
-        playerUsername = "Player";
-        isInteractingWithThugger = false;
-        hasInteractedWithThugger = false;
-        thuggerInteractionTime = 0;
-        discountMultiplier = 1.0;
-        player.setBalance(initialBalance);
-        
         // Reset other UI elements
         inventoryDisplay = null;
         menu = null;
         atmMenu = null;
         searchKiosk = null;
-        hasWaypoint = false;
-        waypoints.clear();
-        allWaypoints.clear();
         
         // Clear dialogue
         dialogueText = null;
@@ -1259,16 +1026,16 @@ public class TileGrid extends JPanel {
         if (board != null) {
             Tile[][] btiles = board.getTiles();
             String type = "<unknown>";
-            if (shopperRow >= 0 && shopperRow < btiles.length && shopperCol >= 0 && shopperCol < btiles[0].length) {
-                Tile bt = btiles[shopperRow][shopperCol];
+            if (sim.getShopperRow() >= 0 && sim.getShopperRow() < btiles.length && sim.getShopperCol() >= 0 && sim.getShopperCol() < btiles[0].length) {
+                Tile bt = btiles[sim.getShopperRow()][sim.getShopperCol()];
                 if (bt != null) type = bt.getType();
             }
-            status.setText(String.format("Floor: %d — Shopper: (%d, %d) — Tile: %s", currentFloor + 1, shopperRow, shopperCol, type));
+            status.setText(String.format("Floor: %d — Shopper: (%d, %d) — Tile: %s", sim.getCurrentFloor() + 1, sim.getShopperRow(), sim.getShopperCol(), type));
             return;
         }
 
-        TileType t = getCurrentGrid()[shopperRow][shopperCol];
-        status.setText(String.format("Floor: %d — Shopper: (%d, %d) — Tile: %s", currentFloor + 1, shopperRow, shopperCol, t.name()));
+        TileType t = sim.getTile(sim.getCurrentFloor(), sim.getShopperRow(), sim.getShopperCol());
+        status.setText(String.format("Floor: %d — Shopper: (%d, %d) — Tile: %s", sim.getCurrentFloor() + 1, sim.getShopperRow(), sim.getShopperCol(), t.name()));
     }
 
     @Override
@@ -1277,27 +1044,28 @@ public class TileGrid extends JPanel {
         Graphics2D g = (Graphics2D) g0.create();
         g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-        TileType[][] grid = getCurrentGrid();
+        if (updateCamera()) {
+            repaint();  // Scrolled during a partial repaint; redraw the rest of the panel too
+        }
 
-        for (int r = 0; r < SIZE; r++) {
-            for (int c = 0; c < SIZE; c++) {
-                int x = c * CELL, y = r * CELL;
-                if (board != null) {
-                    renderBoardTile(g, x, y, r, c);
-                } else {
-                    renderGridTile(g, x, y, grid[r][c]);
-                }
+        // Tiles, sprites, waypoints and the route are drawn in world coordinates
+        g.translate(-camX, -camY);
 
-                g.setColor(Color.DARK_GRAY);
-                g.drawRect(x, y, CELL, CELL);
-            }
+        // Static tiles and grid lines come from the pre-rendered blocks;
+        // everything below is composited on top of them every frame
+        drawTiles(g, sim.getCurrentFloor());
+        FieldOfView.View view = lastView;
+        if (view != null) {
+            drawFog(g, view);
         }
 
-        int centerX = shopperCol * CELL + CELL / 2;
-        int centerY = shopperRow * CELL + CELL / 2;
+        int centerX = sim.getShopperCol() * CELL + CELL / 2;
+        int centerY = sim.getShopperRow() * CELL + CELL / 2;
 
         // Draw Thugger first (so player appears in front)
-        if (thugger != null && thugger.getAppearFloor() == currentFloor) {
+        boolean thuggerVisible = thugger != null && thugger.getAppearFloor() == sim.getCurrentFloor()
+            && (view == null || view.isVisible(thugger.getY() / CELL, thugger.getX() / CELL));
+        if (thuggerVisible) {
             thugger.draw(g, CELL);
         }
 
@@ -1305,7 +1073,7 @@ public class TileGrid extends JPanel {
         if (player != null) {
             player.draw(g, centerX, centerY, CELL);
         } else {
-            int sx = shopperCol * CELL, sy = shopperRow * CELL;
+            int sx = sim.getShopperCol() * CELL, sy = sim.getShopperRow() * CELL;
             int pad = CELL / 6;
             g.setColor(new Color(220, 40, 40));
             g.fillOval(sx + pad, sy + pad, CELL - 2 * pad, CELL - 2 * pad);
@@ -1316,14 +1084,14 @@ public class TileGrid extends JPanel {
             g.setColor(new Color(220, 220, 220));
             g.setFont(new Font("Arial", Font.BOLD, 9));
             FontMetrics fm = g.getFontMetrics();
-            String playerLabel = playerUsername;
+            String playerLabel = sim.getPlayerUsername();
             int labelX = centerX - fm.stringWidth(playerLabel) / 2;
             int labelY = centerY - CELL + 5;
             g.drawString(playerLabel, labelX, labelY);
             
             // Draw age below name
             g.setFont(new Font("Arial", Font.PLAIN, 8));
-            String ageStr = "Age: " + playerAge;
+            String ageStr = "Age: " + sim.getPlayerAge();
             fm = g.getFontMetrics();
             int ageX = centerX - fm.stringWidth(ageStr) / 2;
             int ageY = labelY + 10;
@@ -1331,7 +1099,7 @@ public class TileGrid extends JPanel {
         }
 
         // Draw Thugger label AFTER player (so it appears on top of Thugger sprite)
-        if (thugger != null && thugger.getAppearFloor() == currentFloor) {
+        if (thuggerVisible) {
             g.setColor(new Color(220, 220, 220));
             g.setFont(new Font("Arial", Font.BOLD, 10));
             int thuggerScreenX = thugger.getX();
@@ -1344,21 +1112,23 @@ public class TileGrid extends JPanel {
             g.drawString(thuggerLabel, labelX, labelY);
         }
 
+        g.translate(camX, camY);
+
         // Draw floor indicator (top left)
         g.setColor(new Color(0, 0, 0, 160));
         g.fillRect(4, 4, 70, 18);
         g.setColor(Color.WHITE);
         g.setFont(g.getFont().deriveFont(Font.BOLD, 12f));
-        String floorText = currentFloor == 2 ? "SECRET" : "Floor " + (currentFloor + 1);
+        String floorText = sim.getCurrentFloor() == 2 ? "SECRET" : "Floor " + (sim.getCurrentFloor() + 1);
         g.drawString(floorText, 8, 16);
 
         // Draw inventory status with remaining capacity (next to floor)
         g.setColor(Color.WHITE);
         g.setFont(g.getFont().deriveFont(Font.BOLD, 11f));
-        int currentQuantity = inventory.getTotalQuantity();
-        int maxCapacity = inventory.getEquipment().getCapacity();
+        int currentQuantity = sim.getInventory().getTotalQuantity();
+        int maxCapacity = sim.getInventory().getEquipment().getCapacity();
         int remainingCapacity = maxCapacity - currentQuantity;
-        String equipmentStr = "Equipment: " + inventory.getEquipment().getDisplayName() + " (" + remainingCapacity + "/" + maxCapacity + ")";
+        String equipmentStr = "Equipment: " + sim.getInventory().getEquipment().getDisplayName() + " (" + remainingCapacity + "/" + maxCapacity + ")";
         FontMetrics fm = g.getFontMetrics();
         int equipmentWidth = fm.stringWidth(equipmentStr) + 8;
         
@@ -1369,7 +1139,7 @@ public class TileGrid extends JPanel {
         g.drawString(equipmentStr, 84, 16);
         
         // Draw balance (top right)
-        String balanceStr = "Balance: ₱" + String.format("%.2f", player.getBalance());
+        String balanceStr = "Balance: ₱" + String.format("%.2f", sim.getBalance());
         int balanceWidth = fm.stringWidth(balanceStr) + 8;
         
         g.setColor(new Color(0, 0, 0, 160));
@@ -1379,7 +1149,7 @@ public class TileGrid extends JPanel {
         g.drawString(balanceStr, getWidth() - balanceWidth, 16);
         
         // Draw help text (under floor, top left)
-        String helpStr = "V: Inventory | ENTER: Interact";
+        String helpStr = "V: Inventory | ENTER: Interact | F: Fog";
         int helpWidth = fm.stringWidth(helpStr) + 8;
         
         g.setColor(new Color(0, 0, 0, 160));
@@ -1389,14 +1159,16 @@ public class TileGrid extends JPanel {
         g.drawString(helpStr, 8, 36);
         
         // Draw dialogue bubble if active (only show Thugger dialogue on floor 2)
-        if (dialogueText != null && currentFloor == 2) {
+        if (dialogueText != null && sim.getCurrentFloor() == 2) {
             drawDialogueBubble(g, dialogueText);
         }
 
+        g.translate(-camX, -camY);
+
         // Draw waypoint highlights if active (AFTER sprites so visible on top)
-        // Check both TileGrid's hasWaypoint and SearchKiosk's active waypoint state
-        boolean shouldShowWaypoints = hasWaypoint || (searchKiosk != null && searchKiosk.hasActiveWaypoint());
-        java.util.List<int[]> wpToRender = (searchKiosk != null && searchKiosk.hasActiveWaypoint()) ? searchKiosk.getWaypoints() : waypoints;
+        // Check both the simulation's waypoints and SearchKiosk's active waypoint state
+        boolean shouldShowWaypoints = sim.hasWaypoint() || (searchKiosk != null && searchKiosk.hasActiveWaypoint());
+        java.util.List<int[]> wpToRender = (searchKiosk != null && searchKiosk.hasActiveWaypoint()) ? searchKiosk.getWaypoints() : sim.getWaypoints();
         
         if (shouldShowWaypoints && !wpToRender.isEmpty()) {
             // Draw pulsing border effect - alternates visibility to show through sprites
@@ -1418,7 +1190,7 @@ public class TileGrid extends JPanel {
                     int waypointCol = wp[2];
                     
                     // Only draw if waypoint is on current floor
-                    if (waypointFloor == currentFloor && waypointRow >= 0 && waypointRow < SIZE && waypointCol >= 0 && waypointCol < SIZE) {
+                    if (waypointFloor == sim.getCurrentFloor() && waypointRow >= 0 && waypointRow < floorRows() && waypointCol >= 0 && waypointCol < floorCols()) {
                         int wpX = waypointCol * CELL;
                         int wpY = waypointRow * CELL;
                         
@@ -1434,6 +1206,19 @@ public class TileGrid extends JPanel {
             }
         }
 
+        // Draw the route to the nearest waypoint as dots, skipping the shopper's own tile
+        if (route.size() > 1) {
+            g.setColor(new Color(60, 120, 255, 200));
+            int dot = Math.max(4, CELL / 4);
+            for (int i = 1; i < route.size(); i++) {
+                int[] step = route.get(i);
+                if (step[0] != sim.getCurrentFloor()) continue;
+                g.fillOval(step[2] * CELL + (CELL - dot) / 2, step[1] * CELL + (CELL - dot) / 2, dot, dot);
+            }
+        }
+
+        g.translate(camX, camY);
+
         // Draw search kiosk if open
         if (searchKiosk != null) {
             searchKiosk.setSize(getWidth(), getHeight());
@@ -1497,11 +1282,327 @@ public class TileGrid extends JPanel {
         g.dispose();
     }
 
+    /**
+     * Mark the player sprite and its name/age labels as dirty at the current cell
+     */
+    private void invalidatePlayer() {
+        int centerX = sim.getShopperCol() * CELL + CELL / 2;
+        int centerY = sim.getShopperRow() * CELL + CELL / 2;
+        if (player != null) {
+            invalidateWorld(player.getDrawBounds(centerX, centerY, CELL));
+        } else {
+            invalidateWorld(sim.getShopperCol() * CELL, sim.getShopperRow() * CELL, CELL + 1, CELL + 1);
+        }
+        // Labels are drawn above the sprite and can be wider than it
+        int labelWidth = getFontMetrics(new Font("Arial", Font.BOLD, 9)).stringWidth(sim.getPlayerUsername()) + 4;
+        invalidateWorld(centerX - labelWidth / 2, centerY - CELL - 6, labelWidth, 20);
+    }
+
+    /**
+     * Mark the waypoint tiles on the current floor as dirty
+     */
+    private void invalidateWaypoints() {
+        java.util.List<int[]> wpToRender = (searchKiosk != null && searchKiosk.hasActiveWaypoint()) ? searchKiosk.getWaypoints() : sim.getWaypoints();
+        for (int[] wp : wpToRender) {
+            if (wp[0] == sim.getCurrentFloor()) {
+                invalidateWorld(wp[2] * CELL - 1, wp[1] * CELL - 1, CELL + 3, CELL + 3);
+            }
+        }
+    }
+
+    /**
+     * Recompute the route to the nearest waypoint and repaint the old and new route
+     * tiles if it changed. The distance field is only looked up again when the
+     * targets or the layout change, and the route only when the shopper moves
+     */
+    private void updateRoute() {
+        java.util.List<int[]> targets;
+        Object source = null;  // Kiosk waypoint list (replaced, never changed in place) or the simulation
+        int sourceVersion = 0;
+        boolean ordered = false;
+        if (searchKiosk != null && searchKiosk.hasActiveWaypoint()) {
+            targets = searchKiosk.getWaypoints();
+            source = targets;
+            ordered = searchKiosk.hasOrderedRoute();
+            if (ordered && !targets.isEmpty()) {
+                targets = targets.subList(0, 1);  // Head for the first stop of the route
+            }
+        } else if (sim.hasWaypoint()) {
+            targets = sim.getNextTargets();
+            source = sim;
+            sourceVersion = sim.getWaypointVersion();
+        } else {
+            targets = java.util.Collections.emptyList();
+        }
+
+        if (source != routeSource || sourceVersion != routeSourceVersion || ordered != routeOrdered
+                || sim.getLayoutVersion() != routeLayoutVersion) {
+            routeSource = source;
+            routeSourceVersion = sourceVersion;
+            routeOrdered = ordered;
+            routeLayoutVersion = sim.getLayoutVersion();
+            routeField = targets.isEmpty() ? null : sim.getNavigator().getDistanceField(targets);
+        } else if (sim.getCurrentFloor() == routeFloor && sim.getShopperRow() == routeRow
+                && sim.getShopperCol() == routeCol) {
+            return;  // Nothing the route depends on has changed
+        }
+        routeFloor = sim.getCurrentFloor();
+        routeRow = sim.getShopperRow();
+        routeCol = sim.getShopperCol();
+
+        java.util.List<int[]> newRoute = routeField == null ? java.util.Collections.<int[]>emptyList()
+            : sim.getNavigator().findPath(routeField, routeFloor, routeRow, routeCol);
+        if (sameRoute(route, newRoute)) {
+            return;
+        }
+        invalidateRoute(route);
+        route = newRoute;
+        invalidateRoute(route);
+    }
+
+    private static boolean sameRoute(java.util.List<int[]> a, java.util.List<int[]> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (!java.util.Arrays.equals(a.get(i), b.get(i))) return false;
+        }
+        return true;
+    }
+
+    private void invalidateRoute(java.util.List<int[]> path) {
+        for (int[] step : path) {
+            if (step[0] == sim.getCurrentFloor()) {
+                invalidateWorld(step[2] * CELL, step[1] * CELL, CELL, CELL);
+            }
+        }
+    }
+
+    /**
+     * Called every timer tick: queue repaints for anything that animates or
+     * changes without a key press (waypoint pulse, HUD values, dialogue bubble)
+     */
+    private void invalidateAnimatedRegions() {
+        updateCamera();
+        if (sim.hasWaypoint() || (searchKiosk != null && searchKiosk.hasActiveWaypoint())) {
+            invalidateWaypoints();
+        }
+        updateRoute();
+        updateFog();
+
+        int quantity = sim.getInventory().getTotalQuantity();
+        double balance = player != null ? sim.getBalance() : 0.0;
+        if (quantity != lastHudQuantity || sim.getInventory().getEquipment() != lastHudEquipment || balance != lastHudBalance) {
+            lastHudQuantity = quantity;
+            lastHudEquipment = sim.getInventory().getEquipment();
+            lastHudBalance = balance;
+            dirtyRegions.invalidate(0, 0, getWidth(), HUD_HEIGHT);
+        }
+
+        // Dialogue is set/cleared from the sound thread, so compare against the last painted value
+        String dialogue = dialogueText;
+        if (dialogue != lastDialogueText) {
+            lastDialogueText = dialogue;
+            if (thugger != null) {
+                invalidateWorld(thugger.getX() - 78, thugger.getY() - 98, 156, 71);
+            }
+            dirtyRegions.invalidate(getWidth() / 2 - 78, 77, 156, 71);
+        }
+    }
+
+    /**
+     * Field of view at the shopper's tile, or null if everything is shown
+     */
+    private FieldOfView.View currentView() {
+        if (board != null) {
+            return board.getView();
+        }
+        if (!fogEnabled) {
+            return null;
+        }
+        if (fovLayoutVersion != sim.getLayoutVersion()) {
+            for (FieldOfView fov : fieldsOfView) {
+                if (fov != null) fov.invalidate();
+            }
+            fovLayoutVersion = sim.getLayoutVersion();
+        }
+        int floor = sim.getCurrentFloor();
+        if (fieldsOfView[floor] == null) {
+            fieldsOfView[floor] = new FieldOfView(sim.getRows(), sim.getCols(),
+                (r, c) -> !StoreSimulation.isWalkable(sim.getTile(floor, r, c)));
+        }
+        return fieldsOfView[floor].getView(sim.getShopperRow(), sim.getShopperCol(), VISION_RADIUS);
+    }
+
+    /**
+     * Repaint only the tiles that came into or went out of view since the last call
+     */
+    private void updateFog() {
+        FieldOfView.View view = currentView();
+        if (view == lastView) {
+            return;  // Views are cached, so an unchanged view is the same object
+        }
+        if (view == null || lastView == null) {
+            dirtyRegions.invalidate(0, 0, getWidth(), getHeight());
+        } else {
+            view.forEachChange(lastView, (r, c) -> invalidateWorld(c * CELL, r * CELL, CELL + 1, CELL + 1));
+        }
+        lastView = view;
+    }
+
+    /**
+     * Cover tiles outside the field of view, limited to the area being repainted
+     */
+    private void drawFog(Graphics2D g, FieldOfView.View view) {
+        Rectangle clip = visibleWorld(g);
+        int r0 = Math.max(0, clip.y / CELL), r1 = Math.min(floorRows() - 1, (clip.y + clip.height) / CELL);
+        int c0 = Math.max(0, clip.x / CELL), c1 = Math.min(floorCols() - 1, (clip.x + clip.width) / CELL);
+        g.setColor(FOG);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                if (!view.isVisible(r, c)) {
+                    g.fillRect(c * CELL, r * CELL, CELL + 1, CELL + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Scroll so the shopper stays SCROLL_MARGIN tiles inside the viewport, or as
+     * close as the floor's edges allow; a scroll repaints the whole panel
+     * @return true if the camera moved
+     */
+    private boolean updateCamera() {
+        int viewWidth = getWidth() > 0 ? getWidth() : getPreferredSize().width;
+        int viewHeight = getHeight() > 0 ? getHeight() : getPreferredSize().height;
+        int x = scrollToward(camX, sim.getShopperCol() * CELL, viewWidth, floorCols() * CELL);
+        int y = scrollToward(camY, sim.getShopperRow() * CELL, viewHeight, floorRows() * CELL);
+        if (x == camX && y == camY) {
+            return false;
+        }
+        camX = x;
+        camY = y;
+        dirtyRegions.invalidateAll();
+        return true;
+    }
+
+    private static int scrollToward(int cam, int pos, int view, int world) {
+        int margin = Math.max(0, Math.min(SCROLL_MARGIN * CELL, (view - CELL) / 2));
+        if (pos - cam < margin) {
+            cam = pos - margin;
+        } else if (pos + CELL - cam > view - margin) {
+            cam = pos + CELL - view + margin;
+        }
+        return Math.max(0, Math.min(cam, world - view));
+    }
+
+    /**
+     * Mark a rectangle in world coordinates as dirty
+     */
+    private void invalidateWorld(int x, int y, int width, int height) {
+        dirtyRegions.invalidate(x - camX, y - camY, width, height);
+    }
+
+    private void invalidateWorld(Rectangle r) {
+        if (r != null) invalidateWorld(r.x, r.y, r.width, r.height);
+    }
+
+    /**
+     * Part of the world being repainted: the clip, or the whole viewport
+     */
+    private Rectangle visibleWorld(Graphics2D g) {
+        Rectangle clip = g.getClipBounds();
+        return clip != null ? clip : new Rectangle(camX, camY, getWidth(), getHeight());
+    }
+
+    /**
+     * Draw the cached blocks that intersect the area being repainted; the cost
+     * depends on the viewport size, not on the size of the floor
+     */
+    private void drawTiles(Graphics2D g, int floor) {
+        Rectangle clip = visibleWorld(g);
+        int span = BLOCK * CELL;
+        int br0 = Math.max(0, clip.y / span), br1 = Math.min((floorRows() - 1) / BLOCK, (clip.y + clip.height) / span);
+        int bc0 = Math.max(0, clip.x / span), bc1 = Math.min((floorCols() - 1) / BLOCK, (clip.x + clip.width) / span);
+        for (int br = br0; br <= br1; br++) {
+            for (int bc = bc0; bc <= bc1; bc++) {
+                g.drawImage(getBlock(floor, br, bc), bc * span, br * span, null);
+            }
+        }
+    }
+
+    /**
+     * Most blocks the viewport can intersect at once
+     */
+    private int blocksInView() {
+        int span = BLOCK * CELL;
+        return (getWidth() / span + 2) * (getHeight() / span + 2);
+    }
+
+    /**
+     * Get the pre-rendered tiles of a block, rendering them if they aren't cached
+     */
+    private BufferedImage getBlock(int floor, int blockRow, int blockCol) {
+        int row = blockRow * BLOCK, col = blockCol * BLOCK;
+        boolean full = row + BLOCK <= floorRows() && col + BLOCK <= floorCols();
+        TileType uniform = board == null && full
+            ? sim.getGrid(floor).getUniformType(row >> ChunkedGrid.CHUNK_SHIFT, col >> ChunkedGrid.CHUNK_SHIFT)
+            : null;
+        long key = uniform != null
+            ? (1L << 62) | ((long) floor << 48) | uniform.ordinal()
+            : ((long) floor << 48) | ((long) blockRow << 24) | blockCol;
+        BufferedImage block = blockCache.get(key);
+        if (block == null) {
+            block = renderBlock(floor, row, col);
+            blockCache.put(key, block);
+        }
+        return block;
+    }
+
+    /**
+     * Render the tiles of a block (plus grid lines) into an off-screen image
+     */
+    private BufferedImage renderBlock(int floor, int row, int col) {
+        int rows = Math.min(BLOCK, floorRows() - row), cols = Math.min(BLOCK, floorCols() - col);
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        BufferedImage block = gc != null
+            ? gc.createCompatibleImage(cols * CELL + 1, rows * CELL + 1, Transparency.OPAQUE)
+            : new BufferedImage(cols * CELL + 1, rows * CELL + 1, BufferedImage.TYPE_INT_RGB);
+
+        Graphics2D g = block.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(getBackground());
+        g.fillRect(0, 0, block.getWidth(), block.getHeight());
+
+        ChunkedGrid grid = sim.getGrid(floor);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int x = c * CELL, y = r * CELL;
+                if (board != null) {
+                    renderBoardTile(g, x, y, row + r, col + c);
+                } else {
+                    renderGridTile(g, x, y, grid.get(row + r, col + c), floor, row + r, col + c);
+                }
+
+                g.setColor(Color.DARK_GRAY);
+                g.drawRect(x, y, CELL, CELL);
+            }
+        }
+        g.dispose();
+        return block;
+    }
+
+    /**
+     * Drop the cached blocks of a floor so they are re-rendered on the next paint
+     */
+    private void invalidateFloorLayer(int floor) {
+        blockCache.keySet().removeIf(key -> ((key >>> 48) & 0x3FFF) == floor);
+    }
+
     private void renderBoardTile(Graphics2D g, int x, int y, int r, int c) {
         Tile bt = board.getTiles()[r][c];
         String ty = bt != null ? bt.getType() : "empty";
-        if (ty.equalsIgnoreCase("empty") && imageLoader.getFloorImage() != null) {
-            g.drawImage(imageLoader.getFloorImage(), x, y, CELL, CELL, null);
+        BufferedImage floorImage = imageLoader.getTileImage(TileType.FLOOR, CELL);
+        if (ty.equalsIgnoreCase("empty") && floorImage != null) {
+            g.drawImage(floorImage, x, y, null);
         } else {
             switch (ty.toLowerCase()) {
                 case "wall": g.setColor(new Color(80, 80, 80)); break;
@@ -1524,40 +1625,14 @@ public class TileGrid extends JPanel {
         }
     }
 
-    private void renderGridTile(Graphics2D g, int x, int y, TileType t) {
-        if (t == TileType.FLOOR && imageLoader.getFloorImage() != null) {
-            g.drawImage(imageLoader.getFloorImage(), x, y, CELL, CELL, null);
-        } else if (t == TileType.SECRETFLOOR && imageLoader.getSecretFloorImage() != null) {
-            g.drawImage(imageLoader.getSecretFloorImage(), x, y, CELL, CELL, null);
-        } else if (t == TileType.TABLE && imageLoader.getTableImage() != null) {
-            g.drawImage(imageLoader.getTableImage(), x, y, CELL, CELL, null);
-        } else if (t == TileType.FRIDGE && imageLoader.getFridgeImage() != null) {
-            g.drawImage(imageLoader.getFridgeImage(), x, y, CELL, CELL, null);
-        } else if (t == TileType.CHILLED && imageLoader.getChilledImage() != null) {
-            g.drawImage(imageLoader.getChilledImage(), x, y, CELL, CELL, null);
-        } else if (t == TileType.SHELF && imageLoader.getShelfImage() != null) {
-            g.drawImage(imageLoader.getShelfImage(), x, y, CELL, CELL, null);
-        } else if ((t == TileType.STAIRS_UP || t == TileType.STAIRS_DOWN) && imageLoader.getStairsImage() != null) {
-            g.drawImage(imageLoader.getStairsImage(), x, y, CELL, CELL, null);
-        } else if (t == TileType.SEARCH && imageLoader.getSearchImage() != null) {
-            g.drawImage(imageLoader.getSearchImage(), x, y, CELL, CELL, null);
-        } else if (t == TileType.BASKET && imageLoader.getBasketImage() != null) {
-            g.drawImage(imageLoader.getBasketImage(), x, y, CELL, CELL, null);
-        } else if (t == TileType.CART && imageLoader.getCartImage() != null) {
-            g.drawImage(imageLoader.getCartImage(), x, y, CELL, CELL, null);
-        } else if (t == TileType.CASHIER && imageLoader.getCashierImage() != null) {
-            g.drawImage(imageLoader.getCashierImage(), x, y, CELL, CELL, null);
-        } else if (t == TileType.ATM && imageLoader.getAtmImage() != null) {
-            g.drawImage(imageLoader.getAtmImage(), x, y, CELL, CELL, null);
-        } else if (t == TileType.BLACK_TILE) {
-            g.setColor(t.color);
-            g.fillRect(x, y, CELL, CELL);
-        } else if (t == TileType.DOOR) {
-            g.setColor(t.color);
-            g.fillRect(x, y, CELL, CELL);
+    private void renderGridTile(Graphics2D g, int x, int y, TileType t, int floor, int row, int col) {
+        BufferedImage tileImage = imageLoader.getTileImage(t, CELL);
+        if (tileImage != null) {
+            // Pre-scaled to CELL, so this is a straight copy
+            g.drawImage(tileImage, x, y, null);
         } else {
             // WALL and other tiles - use dark gray for secret floor, normal color otherwise
-            if (currentFloor == 2 && t == TileType.WALL) {
+            if (floor == 2 && t == TileType.WALL) {
                 g.setColor(new Color(40, 40, 45));
             } else {
                 g.setColor(t.color);
@@ -1566,9 +1641,9 @@ public class TileGrid extends JPanel {
         }
 
         if (t == TileType.DOOR) {
-            drawDoorArrow(g, x, y, CELL);
+            drawDoorArrow(g, x, y, CELL, floor, row, col);
         } else if (t == TileType.EXIT) {
-            drawExitArrow(g, x, y, CELL);
+            drawExitArrow(g, x, y, CELL, floor, row, col);
         }
     }
 
@@ -1598,79 +1673,44 @@ public class TileGrid extends JPanel {
         }
     }
 
-    private void drawDoorArrow(Graphics2D g, int x, int y, int size) {
-        // Determine which door this is based on position
-        // Row 21, Col 11 = spawn (arrow up), Row 21, Col 10 = exit (arrow down)
-        int col = x / size;
-        int row = y / size;
-        
-        int centerX = x + size / 2;
-        int centerY = y + size / 2;
-        int arrowSize = size / 3;
-        
+    private void drawDoorArrow(Graphics2D g, int x, int y, int size, int floor, int row, int col) {
+        // The entrance points the way in (against its one-way move), other one-way doors their way
+        int[] entrance = sim.getEntrance();
+        int[] oneWay = sim.getOneWay(floor, row, col);
         g.setColor(new Color(255, 255, 200));
-        g.setStroke(new BasicStroke(2));
-        
-        if (row == 21 && col == 11) {
-            // Spawn door - arrow pointing up
-            g.drawLine(centerX, centerY - arrowSize, centerX, centerY + arrowSize);
-            g.drawLine(centerX - arrowSize / 2, centerY - arrowSize / 2, centerX, centerY - arrowSize);
-            g.drawLine(centerX + arrowSize / 2, centerY - arrowSize / 2, centerX, centerY - arrowSize);
-        } else if (row == 21 && col == 10) {
-            // Exit door - arrow pointing down
-            g.drawLine(centerX, centerY - arrowSize, centerX, centerY + arrowSize);
-            g.drawLine(centerX - arrowSize / 2, centerY + arrowSize / 2, centerX, centerY + arrowSize);
-            g.drawLine(centerX + arrowSize / 2, centerY + arrowSize / 2, centerX, centerY + arrowSize);
+        if (entrance[0] == floor && entrance[1] == row && entrance[2] == col) {
+            drawArrow(g, x, y, size, oneWay != null ? -oneWay[0] : -1, oneWay != null ? -oneWay[1] : 0);
+        } else if (oneWay != null) {
+            drawArrow(g, x, y, size, oneWay[0], oneWay[1]);
         }
     }
 
-    private void drawExitArrow(Graphics2D g, int x, int y, int size) {
-        // Draw exit arrow pointing down
+    private void drawExitArrow(Graphics2D g, int x, int y, int size, int floor, int row, int col) {
+        // Draw exit arrow the way it is entered, down unless the layout says otherwise
+        int[] oneWay = sim.getOneWay(floor, row, col);
+        g.setColor(new Color(100, 255, 100));
+        drawArrow(g, x, y, size, oneWay != null ? oneWay[0] : 1, oneWay != null ? oneWay[1] : 0);
+    }
+
+    /**
+     * Arrow across a tile pointing along (dr, dc), in the current color
+     */
+    private void drawArrow(Graphics2D g, int x, int y, int size, int dr, int dc) {
         int centerX = x + size / 2;
         int centerY = y + size / 2;
         int arrowSize = size / 3;
-        
-        g.setColor(new Color(100, 255, 100));
+        int tipX = centerX + dc * arrowSize, tipY = centerY + dr * arrowSize;
+        int barbX = tipX - dc * arrowSize / 2, barbY = tipY - dr * arrowSize / 2;
+
         g.setStroke(new BasicStroke(2));
-        
-        // Arrow pointing down
-        g.drawLine(centerX, centerY - arrowSize, centerX, centerY + arrowSize);
-        g.drawLine(centerX - arrowSize / 2, centerY + arrowSize / 2, centerX, centerY + arrowSize);
-        g.drawLine(centerX + arrowSize / 2, centerY + arrowSize / 2, centerX, centerY + arrowSize);
+        g.drawLine(centerX - dc * arrowSize, centerY - dr * arrowSize, tipX, tipY);
+        g.drawLine(barbX - dr * arrowSize / 2, barbY - dc * arrowSize / 2, tipX, tipY);
+        g.drawLine(barbX + dr * arrowSize / 2, barbY + dc * arrowSize / 2, tipX, tipY);
     }
 
-    private void regenerateBlackTile() {
-        // Clear previous black tiles on Floor 2 (gridFloor1)
-        if (blackTileRow != -1 && blackTileCol != -1) {
-            if (gridFloor1[blackTileRow][blackTileCol] == TileType.BLACK_TILE) {
-                gridFloor1[blackTileRow][blackTileCol] = TileType.ATM;
-            }
-        }
-        
-        // Generate new random black tile (10% chance)
-        if (Math.random() < 0.1) {
-            // Choose either ATM at (16, 1) or (16, 20)
-            if (Math.random() < 0.5) {
-                blackTileRow = 16;
-                blackTileCol = 1;
-            } else {
-                blackTileRow = 16;
-                blackTileCol = 20;
-            }
-            gridFloor1[blackTileRow][blackTileCol] = TileType.BLACK_TILE;
-            System.out.println("DEBUG: BLACK TILE REGENERATED AT (" + blackTileRow + ", " + blackTileCol + ")");
-            System.out.flush();
-        } else {
-            blackTileRow = -1;
-            blackTileCol = -1;
-            System.out.println("DEBUG: No black tile this visit");
-            System.out.flush();
-        }
-    }
-    
     private void playThuggerSound() {
         // Only show notification in secret room (floor 2)
-        boolean showNotification = (currentFloor == 2);
+        boolean showNotification = (sim.getCurrentFloor() == 2);
         if (showNotification) {
             dialogueText = "Now Playing:\nHalftime - Young Thug";
             dialogueStartTime = System.currentTimeMillis();
@@ -1699,7 +1739,7 @@ public class TileGrid extends JPanel {
                 }
                 
                 // Apply 50% discount after song finishes
-                discountMultiplier = 0.5;
+                sim.applySongDiscount();
                 System.out.println("DEBUG: 50% discount applied to all items!");
             } catch (Exception e) {
                 System.err.println("Error playing sound: " + e.getMessage());
@@ -1712,10 +1752,10 @@ public class TileGrid extends JPanel {
         // Position bubble above thugger if he's visible
         int bubbleX, bubbleY;
         
-        if (thugger != null && thugger.getAppearFloor() == currentFloor) {
+        if (thugger != null && thugger.getAppearFloor() == sim.getCurrentFloor()) {
             // Position above thugger's position
-            bubbleX = thugger.getX() - 75;
-            bubbleY = thugger.getY() - 95;
+            bubbleX = thugger.getX() - camX - 75;
+            bubbleY = thugger.getY() - camY - 95;
         } else {
             // Fallback position
             bubbleX = getWidth() / 2 - 75;
@@ -1751,151 +1791,4 @@ public class TileGrid extends JPanel {
             startY += fm.getHeight();
         }
     }
-
-    /**
-     * Determine if product can be purchased based on age
-     */
-    private boolean canBuyProduct(String productId) {
-        if (playerAge < 18) {
-            // Players under 18 cannot buy Alcohol (ALC) or Cleaning Agents (CLE)
-            // UNLESS they are interacting with Thugger (who sells alcohol to minors)
-            if (isInteractingWithThugger) {
-                return !productId.startsWith("CLE");  // Can buy anything except cleaning agents
-            }
-            return !productId.startsWith("ALC") && !productId.startsWith("CLE");
-        }
-        return true;
-    }
-
-    /**
-     * Get returnable products for a tile - returns list of products in player's inventory
-     * that are also sold at the given tile
-     */
-    private java.util.List<String> getReturnableProducts(String tileKey, int row, int col, int floor) {
-        java.util.List<String> returnable = new java.util.ArrayList<>();
-        String[] tileProducts = TileInventory.getItemsForTile(tileKey, row, col, floor);
-        
-        System.out.println("DEBUG getReturnableProducts: tileKey=" + tileKey + ", tileProducts.length=" + tileProducts.length);
-        
-        for (String product : tileProducts) {
-            // Extract product name without ID and price for lookup
-            String cleanName = extractProductName(product);
-            
-            // Try to find this product in inventory by matching clean names
-            for (String inventoryProductName : inventory.getAllProductNames()) {
-                String inventoryCleanName = extractProductName(inventoryProductName);
-                if (inventoryCleanName.equals(cleanName)) {
-                    int quantity = inventory.getProductQuantity(inventoryProductName);
-                    System.out.println("  Checking product: '" + product + "' -> clean: '" + cleanName + "' -> found in inventory as: '" + inventoryProductName + "' -> quantity: " + quantity);
-                    if (quantity > 0) {
-                        returnable.add(inventoryProductName);  // Add the full name
-                    }
-                    break;
-                }
-            }
-        }
-        
-        System.out.println("DEBUG: Returnable products count = " + returnable.size());
-        return returnable;
-    }
-
-    /**
-     * Extract product name from full product string (e.g., "🍪 Candies (SNK00001) - ₱45.00" -> "Candies")
-     */
-    private String extractProductName(String productString) {
-        // Format: "emoji Name (ID) - ₱price"
-        int parenIndex = productString.indexOf('(');
-        if (parenIndex > 0) {
-            String namePart = productString.substring(0, parenIndex).trim();
-            // Remove emoji
-            if (namePart.length() > 0 && Character.isHighSurrogate(namePart.charAt(0))) {
-                namePart = namePart.substring(2).trim();
-            } else if (namePart.length() > 1 && namePart.charAt(0) > 127) {
-                namePart = namePart.substring(1).trim();
-            }
-            return namePart;
-        }
-        return productString;
-    }
-
-    /**
-     * Get product category from product ID
-     */
-    private String getProductCategory(String productId) {
-        if (productId == null || productId.length() < 3) return "";
-        return productId.substring(0, 3).toUpperCase();
-    }
-
-    /**
-     * Check if product qualifies for senior discount
-     * Senior citizens (60+) get discounts on consumables except alcohol
-     */
-    private boolean qualifiesForSeniorDiscount(String productId) {
-        if (playerAge < 60) return false;
-        
-        String category = getProductCategory(productId);
-        // Cannot discount alcohol (ALC)
-        if (category.equals("ALC")) return false;
-        
-        // Beverages: SFT (soft drinks), JUC (juice), MLK (milk)
-        // Food: CER (cereal), NDL (noodles), SNK (snacks), CAN (canned), 
-        //       FRZ (frozen), BRD (bread), FRU (fruit), VEG (vegetable), EGG (eggs),
-        //       CHK (chicken), BEF (beef), SEA (seafood)
-        // Condiments (CON) are food
-        String[] foodCategories = {"CER", "NDL", "SNK", "CAN", "FRZ", "BRD", "FRU", "VEG", "EGG", "CHK", "BEF", "SEA", "CHS", "CON"};
-        String[] beverageCategories = {"SFT", "JUC", "MLK"};
-        
-        for (String cat : foodCategories) {
-            if (category.equals(cat)) return true;
-        }
-        for (String cat : beverageCategories) {
-            if (category.equals(cat)) return true;
-        }
-        
-        return false;
-    }
-
-    /**
-     * Get senior discount percentage for a product
-     * Food items: 20% off, Beverages: 10% off
-     */
-    private double getSeniorDiscountMultiplier(String productId) {
-        String category = getProductCategory(productId);
-        
-        // Beverages: 10% off (0.9)
-        String[] beverageCategories = {"SFT", "JUC", "MLK"};
-        for (String cat : beverageCategories) {
-            if (category.equals(cat)) return 0.9;
-        }
-        
-        // Food items: 20% off (0.8)
-        return 0.8;
-    }
-
-    /**
-     * Calculate effective price considering age restrictions and senior discounts
-     */
-    private double calculateEffectivePrice(String productId, double basePrice) {
-        // First check age restriction
-        if (!canBuyProduct(productId)) {
-            return -1;  // Indicate purchase not allowed
-        }
-        
-        double price = basePrice;
-        
-        // Apply Thugger discount (50% - already applied via discountMultiplier)
-        price *= discountMultiplier;
-        
-        // Apply 50% discount for normal-aged players who have interacted with Thugger
-        if (hasInteractedWithThugger) {
-            price *= 0.5;  // 50% off all products
-        }
-        
-        // Apply senior discount if qualified
-        if (qualifiesForSeniorDiscount(productId)) {
-            price *= getSeniorDiscountMultiplier(productId);
-        }
-        
-        return price;
-    }
 }
@@ -1,6 +1,13 @@
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
 import javax.imageio.ImageIO;
 
 public class TileImageLoader {
@@ -17,6 +24,12 @@ public class TileImageLoader {
     private BufferedImage cashierImage;
     private BufferedImage atmImage;
 
+    // Decoded source image per tile type (stairs up/down share one image)
+    private final Map<TileType, BufferedImage> sourceImages = new EnumMap<>(TileType.class);
+    // Source images pre-scaled to scaledCellSize in the screen's native format
+    private final Map<TileType, BufferedImage> scaledImages = new EnumMap<>(TileType.class);
+    private int scaledCellSize = -1;
+
     private static final String BASE_PATH = "Graphics/Tileset/";
 
     public TileImageLoader() {
@@ -36,6 +49,97 @@ public class TileImageLoader {
         loadImage("Cart.png", "cart", img -> cartImage = img);
         loadImage("Cashier.png", "cashier", img -> cashierImage = img);
         loadImage("ATM.png", "atm", img -> atmImage = img);
+
+        registerSource(TileType.FLOOR, floorImage);
+        registerSource(TileType.SECRETFLOOR, secretFloorImage);
+        registerSource(TileType.TABLE, tableImage);
+        registerSource(TileType.FRIDGE, fridgeImage);
+        registerSource(TileType.CHILLED, chilledImage);
+        registerSource(TileType.SHELF, shelfImage);
+        registerSource(TileType.STAIRS_UP, stairsImage);
+        registerSource(TileType.STAIRS_DOWN, stairsImage);
+        registerSource(TileType.SEARCH, searchImage);
+        registerSource(TileType.BASKET, basketImage);
+        registerSource(TileType.CART, cartImage);
+        registerSource(TileType.CASHIER, cashierImage);
+        registerSource(TileType.ATM, atmImage);
+    }
+
+    private void registerSource(TileType type, BufferedImage img) {
+        if (img != null) {
+            sourceImages.put(type, img);
+        }
+    }
+
+    /**
+     * Get the image for a tile type already scaled to cellSize x cellSize, so it can be
+     * drawn with a plain unscaled drawImage. Returns null if the type has no image.
+     * The cache holds one cell size at a time and is rebuilt when the size changes.
+     */
+    public BufferedImage getTileImage(TileType type, int cellSize) {
+        if (cellSize != scaledCellSize) {
+            scaledImages.clear();
+            scaledCellSize = cellSize;
+        }
+        BufferedImage scaled = scaledImages.get(type);
+        if (scaled == null) {
+            BufferedImage src = sourceImages.get(type);
+            if (src == null) {
+                return null;
+            }
+            // Stairs up/down share a source, so share the scaled copy too
+            for (Map.Entry<TileType, BufferedImage> entry : sourceImages.entrySet()) {
+                if (entry.getValue() == src && scaledImages.containsKey(entry.getKey())) {
+                    scaled = scaledImages.get(entry.getKey());
+                    break;
+                }
+            }
+            if (scaled == null) {
+                scaled = scaleToCompatible(src, cellSize, cellSize);
+            }
+            scaledImages.put(type, scaled);
+        }
+        return scaled;
+    }
+
+    /**
+     * Scale an image once into the default screen's compatible format. Compatible
+     * images are managed by Java2D, which caches them in video memory when possible.
+     */
+    static BufferedImage scaleToCompatible(BufferedImage src, int width, int height) {
+        // Halve large sources step by step first; a single bilinear pass from a
+        // multi-megapixel tile down to one cell skips most source pixels
+        BufferedImage current = src;
+        int w = src.getWidth();
+        int h = src.getHeight();
+        while (w / 2 >= width && h / 2 >= height) {
+            w /= 2;
+            h /= 2;
+            BufferedImage half = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D hg = half.createGraphics();
+            hg.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            hg.drawImage(current, 0, 0, w, h, null);
+            hg.dispose();
+            current = half;
+        }
+
+        BufferedImage result = createCompatibleImage(width, height, src.getColorModel().getTransparency());
+        Graphics2D g = result.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(current, 0, 0, width, height, null);
+        g.dispose();
+        return result;
+    }
+
+    static BufferedImage createCompatibleImage(int width, int height, int transparency) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+            return gc.createCompatibleImage(width, height, transparency);
+        }
+        return new BufferedImage(width, height,
+            transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
     }
 
     private void loadImage(String filename, String name, java.util.function.Consumer<BufferedImage> setter) {
@@ -0,0 +1,184 @@
+import java.util.*;
+
+/**
+ * Inverted index from product to the fixture tiles that sell it, built by
+ * walking the floor grids once and asking TileInventory what each fixture
+ * stocks. Lookups by category code (first three letters of the ID, e.g. "ALC")
+ * or by product ID return precomputed, shared Locations.
+ *
+ * Tiles are packed into one int: floor << 22 | row << 11 | col, so floors
+ * can be up to 2048 x 2048 (ChunkedGrid.MAX_SIZE).
+ */
+public class TileLocationIndex {
+    private static final Locations NONE = new Locations(new int[0], 1);
+
+    private final int fixtureVersion;
+    private final Map<String, Locations> byCategory = new HashMap<>();
+    private final Map<String, Locations> byProductId = new HashMap<>();
+
+    /**
+     * Tiles that sell one category or product, ordered by floor then row then col
+     */
+    public static final class Locations {
+        private final int[] packed;
+        private final int[] floorStart;  // Tiles of floor f are packed[floorStart[f] .. floorStart[f + 1])
+        private List<int[]> tiles;  // Same tiles as [floor, row, col], unpacked on first use
+
+        private Locations(int[] packed, int floors) {
+            this.packed = packed;
+            this.floorStart = new int[floors + 1];
+            for (int tile : packed) {
+                floorStart[floorOf(tile) + 1]++;
+            }
+            for (int f = 0; f < floors; f++) {
+                floorStart[f + 1] += floorStart[f];
+            }
+        }
+
+        public int size() {
+            return packed.length;
+        }
+
+        /**
+         * Packed tile at index i (see TileLocationIndex.pack)
+         */
+        public int get(int i) {
+            return packed[i];
+        }
+
+        public int floorBegin(int floor) {
+            return floor + 1 < floorStart.length ? floorStart[floor] : packed.length;
+        }
+
+        public int floorEnd(int floor) {
+            return floor + 1 < floorStart.length ? floorStart[floor + 1] : packed.length;
+        }
+
+        /**
+         * Read-only [floor, row, col] view, shared between callers
+         */
+        public synchronized List<int[]> asList() {
+            if (tiles == null) {
+                int[][] unpacked = new int[packed.length][];
+                for (int i = 0; i < packed.length; i++) {
+                    unpacked[i] = new int[]{floorOf(packed[i]), rowOf(packed[i]), colOf(packed[i])};
+                }
+                tiles = Collections.unmodifiableList(Arrays.asList(unpacked));
+            }
+            return tiles;
+        }
+    }
+
+    /**
+     * Growable list of packed tiles, without boxing
+     */
+    private static final class TileList {
+        private int[] tiles = new int[4];
+        private int size;
+
+        /**
+         * Append a tile unless it is the last one added (a fixture selling several matching products)
+         */
+        void add(int tile) {
+            if (size > 0 && tiles[size - 1] == tile) return;
+            if (size == tiles.length) {
+                tiles = Arrays.copyOf(tiles, size * 2);
+            }
+            tiles[size++] = tile;
+        }
+    }
+
+    /**
+     * @param grids Tile grid of every floor, indexed by floor
+     * @param fixtureVersion Version of the fixtures the grids hold
+     */
+    public TileLocationIndex(ChunkedGrid[] grids, int fixtureVersion) {
+        this.fixtureVersion = fixtureVersion;
+
+        Map<String, TileList> categoryTiles = new TreeMap<>();
+        Map<String, TileList> productTiles = new HashMap<>();
+        for (int floor = 0; floor < grids.length; floor++) {
+            ChunkedGrid grid = grids[floor];
+            for (int row = 0; row < grid.getRows(); row++) {
+                for (int col = 0; col < grid.getCols(); col++) {
+                    String key = StoreSimulation.fixtureKey(grid.get(row, col));
+                    if (key == null) continue;
+
+                    int tile = pack(floor, row, col);
+                    String lastCategory = null;
+                    for (Product product : TileInventory.getProductsForTile(key, row, col, floor)) {
+                        String category = product.getCategory().getCode();
+                        // Products of one fixture are grouped, only add the tile once per category
+                        if (!category.equals(lastCategory)) {
+                            addTile(categoryTiles, category, tile);
+                            lastCategory = category;
+                        }
+                        addTile(productTiles, product.getId(), tile);
+                    }
+                }
+            }
+        }
+
+        for (Map.Entry<String, TileList> e : categoryTiles.entrySet()) {
+            byCategory.put(e.getKey(), toLocations(e.getValue(), grids.length));
+        }
+        for (Map.Entry<String, TileList> e : productTiles.entrySet()) {
+            byProductId.put(e.getKey(), toLocations(e.getValue(), grids.length));
+        }
+    }
+
+    private static void addTile(Map<String, TileList> map, String key, int tile) {
+        TileList list = map.get(key);
+        if (list == null) {
+            list = new TileList();
+            map.put(key, list);
+        }
+        list.add(tile);
+    }
+
+    private static Locations toLocations(TileList tiles, int floors) {
+        int[] packed = Arrays.copyOf(tiles.tiles, tiles.size);
+        Arrays.sort(packed);  // Floor-major order, matches floorStart
+        return new Locations(packed, floors);
+    }
+
+    public static int pack(int floor, int row, int col) {
+        return (floor << 22) | (row << 11) | col;
+    }
+
+    public static int floorOf(int packed) {
+        return packed >>> 22;
+    }
+
+    public static int rowOf(int packed) {
+        return (packed >>> 11) & 0x7FF;
+    }
+
+    public static int colOf(int packed) {
+        return packed & 0x7FF;
+    }
+
+    public int getFixtureVersion() {
+        return fixtureVersion;
+    }
+
+    /**
+     * Tiles selling any product of a category (e.g. "ALC"), never null
+     */
+    public Locations findCategory(String category) {
+        Locations l = byCategory.get(category);
+        return l != null ? l : NONE;
+    }
+
+    /**
+     * Tiles selling one product (e.g. "ALC00002"), never null
+     */
+    public Locations findProduct(String productId) {
+        Locations l = byProductId.get(productId);
+        return l != null ? l : NONE;
+    }
+
+    public Set<String> getCategories() {
+        return Collections.unmodifiableSet(byCategory.keySet());
+    }
+}